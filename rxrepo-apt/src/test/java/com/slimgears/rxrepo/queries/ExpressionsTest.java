@@ -2,12 +2,14 @@ package com.slimgears.rxrepo.queries;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.slimgears.rxrepo.annotations.Filterable;
 import com.slimgears.rxrepo.annotations.Indexable;
 import com.slimgears.rxrepo.expressions.BooleanExpression;
 import com.slimgears.rxrepo.expressions.ObjectExpression;
 import com.slimgears.rxrepo.filters.ComparableFilter;
 import com.slimgears.rxrepo.filters.StringFilter;
+import com.slimgears.rxrepo.util.CompiledExpressionCache;
 import com.slimgears.rxrepo.util.Expressions;
 import com.slimgears.rxrepo.util.PropertyExpressions;
 import org.junit.Assert;
@@ -511,4 +513,54 @@ public class ExpressionsTest {
         Assert.assertTrue(compiledComposedPredicate.test(testEntity1));
         Assert.assertFalse(compiledComposedPredicate.test(testEntity2));
     }
+
+    @Test
+    public void testReferencedProperties() {
+        ObjectExpression<TestEntity, Boolean> predicate = TestEntity.$.text.contains("test").and(TestEntity.$.refEntity.id.eq(1));
+        Assert.assertEquals(
+                ImmutableSet.of(TestEntity.$.text, TestEntity.$.refEntity.id),
+                PropertyExpressions.referencedProperties(predicate).orElse(null));
+        Assert.assertFalse(PropertyExpressions.referencedProperties(TestEntity.$.searchText("test")).isPresent());
+    }
+
+    @Test
+    public void testCompiledExpressionIsCachedByStructure() {
+        CompiledExpressionCache cache = CompiledExpressionCache.create(16, Expressions::compileInterpreted);
+        cache.compile(TestEntity.$.text.contains("cached").and(TestEntity.$.number.greaterThan(5)));
+        Function<TestEntity, Boolean> predicate = cache.compile(TestEntity.$.text.contains("cached").and(TestEntity.$.number.greaterThan(5)));
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1, cache.stats().hitCount());
+        Assert.assertEquals(1, cache.stats().missCount());
+        Assert.assertFalse(predicate.apply(testEntity1));
+    }
+
+    @Test
+    public void testSpecializedCompilerMatchesInterpreter() {
+        List<ObjectExpression<TestEntity, Boolean>> predicates = ImmutableList.of(
+                TestEntity.$.number.betweenExclusive(2, 5),
+                TestEntity.$.number.in(3, 4).or(TestEntity.$.text.startsWith("Entity")),
+                TestEntity.$.refEntity.id.eq(10).and(TestEntity.$.refEntity.text.contains("1")),
+                TestEntity.$.text.endsWith("2").not(),
+                TestEntity.$.optionalRefEntity.id.eq(1),
+                TestEntity.$.searchText("Entity"),
+                TestEntity.$.text.matches("Entity \\d"),
+                TestEntity.$.text.matches(TestEntity.$.text));
+
+        predicates.forEach(predicate -> ImmutableList.of(testEntity1, testEntity2).forEach(entity ->
+                Assert.assertEquals(
+                        Expressions.compileInterpreted(predicate).apply(entity),
+                        Expressions.compileSpecialized(predicate).apply(entity))));
+    }
+
+    @Test
+    public void testExpressionWithCollectionConstantIsNotCached() {
+        CompiledExpressionCache cache = CompiledExpressionCache.create(16, Expressions::compileInterpreted);
+        Function<TestEntity, Boolean> inList = cache.compile(TestEntity.$.number.in(ImmutableList.of(1, 2, 3)));
+        Function<TestEntity, Boolean> inArray = cache.compile(TestEntity.$.number.in(1, 2, 3));
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.stats().requestCount());
+        Assert.assertEquals(inList.apply(testEntity1), inArray.apply(testEntity1));
+    }
 }
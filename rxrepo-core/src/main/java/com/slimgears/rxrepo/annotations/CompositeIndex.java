@@ -0,0 +1,22 @@
+package com.slimgears.rxrepo.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(CompositeIndex.List.class)
+public @interface CompositeIndex {
+    // Property names, in index order: equality predicates go first, range predicate or sorting property goes last
+    String[] value();
+    boolean unique() default false;
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    @interface List {
+        CompositeIndex[] value();
+    }
+}
@@ -8,6 +8,16 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Indexable {
+    enum Kind {
+        Auto,
+        Hash,
+        Ordered
+    }
+
     boolean unique() default false;
     boolean asString() default false;
+    // Hash index serves equality lookups only. Ordered index also serves range predicates and sorting, and Auto
+    // resolves to ordered index for comparable properties and to hash otherwise. Changing kind of existing index
+    // rebuilds it
+    Kind kind() default Kind.Hash;
 }
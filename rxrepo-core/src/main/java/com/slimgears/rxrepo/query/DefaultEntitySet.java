@@ -20,7 +20,6 @@ import io.reactivex.ObservableTransformer;
 import io.reactivex.Single;
 import io.reactivex.exceptions.CompositeException;
 import io.reactivex.functions.Function;
-import io.reactivex.schedulers.Schedulers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -384,12 +383,11 @@ public class DefaultEntitySet<K, S> implements EntitySet<K, S> {
         return queryProvider.insert(metaClass, entities)
                 .andThen(Single.<List<S>>fromCallable(() -> ImmutableList.copyOf(entities)))
                 .onErrorResumeNext(e -> isConcurrencyException(e)
-                        ? Single.defer(() -> Observable
-                                .fromIterable(entities)
-                                .window(100)
-                                .observeOn(Schedulers.newThread())
-                                .concatMap(w -> w.flatMapSingle(this::update))
-                                .toList())
+                        ? Single.defer(() -> queryProvider.insertOrUpdate(metaClass, entities))
+                                .compose(Singles.backOffDelayRetry(
+                                        DefaultEntitySet::isConcurrencyException,
+                                        Duration.ofMillis(config.retryInitialDurationMillis()),
+                                        config.retryCount()))
                         : Single.error(e));
     }
 
@@ -408,7 +406,7 @@ public class DefaultEntitySet<K, S> implements EntitySet<K, S> {
                         config.retryCount()));
     }
 
-    private static boolean isConcurrencyException(Throwable exception) {
+    static boolean isConcurrencyException(Throwable exception) {
         log.debug("Checking exception: {}", exception.getMessage(), exception);
         return exception instanceof ConcurrentModificationException ||
                 exception instanceof NoSuchElementException ||
@@ -3,10 +3,16 @@ package com.slimgears.rxrepo.query;
 import com.slimgears.rxrepo.query.decorator.MandatoryPropertiesQueryProviderDecorator;
 import com.slimgears.rxrepo.query.provider.QueryProvider;
 import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
+import com.slimgears.util.rx.Singles;
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DefaultRepository implements Repository {
     private final static RepositoryConfigModel defaultConfig = RepositoryConfig
@@ -17,13 +23,17 @@ public class DefaultRepository implements Repository {
             .build();
 
     private final RepositoryConfigModel config;
+    private final QueryProvider underlyingProvider;
+    private final QueryProvider.Decorator decorator;
     private final QueryProvider queryProvider;
     private final Map<MetaClassWithKey<?, ?>, EntitySet<?, ?>> entitySetMap = new HashMap<>();
 
-    DefaultRepository(QueryProvider queryProvider, RepositoryConfigModel config) {
-        this.queryProvider = QueryProvider.Decorator.of(
-                MandatoryPropertiesQueryProviderDecorator.create())
-                .apply(queryProvider);
+    DefaultRepository(QueryProvider queryProvider, QueryProvider.Decorator decorator, RepositoryConfigModel config) {
+        this.underlyingProvider = queryProvider;
+        this.decorator = QueryProvider.Decorator.of(
+                decorator,
+                MandatoryPropertiesQueryProviderDecorator.create());
+        this.queryProvider = this.decorator.apply(queryProvider);
         this.config = Optional.ofNullable(config).orElse(defaultConfig);
     }
 
@@ -38,6 +48,41 @@ public class DefaultRepository implements Repository {
         return entitySetMap.values();
     }
 
+    // Decorators are applied on top of transaction provider, so that writes issued by decorators
+    // (e.g. referenced entities) become a part of the same transaction.
+    // Whole unit of work is retried when commit fails due to concurrent modification.
+    // Transaction is rolled back when unit of work fails, or when subscriber disposes before commit started
+    @Override
+    public Completable transaction(Function<Repository, Completable> unitOfWork) {
+        return Single
+                .defer(() -> underlyingProvider.beginTransaction()
+                        .flatMap(tx -> {
+                            AtomicBoolean completed = new AtomicBoolean();
+                            Completable commit = Completable.defer(() -> completed.compareAndSet(false, true)
+                                    ? tx.commit()
+                                    : Completable.complete());
+                            Completable rollback = Completable.defer(() -> completed.compareAndSet(false, true)
+                                    ? tx.rollback().onErrorComplete()
+                                    : Completable.complete());
+                            return Completable
+                                    .defer(() -> unitOfWork.apply(new TransactionRepository(tx.provider(), decorator, config)))
+                                    .onErrorResumeNext(e -> rollback.andThen(Completable.error(e)))
+                                    .andThen(commit)
+                                    .doOnDispose(() -> rollback.subscribe())
+                                    .toSingleDefault(tx);
+                        }))
+                .compose(Singles.backOffDelayRetry(
+                        DefaultEntitySet::isConcurrencyException,
+                        Duration.ofMillis(config.retryInitialDurationMillis()),
+                        config.retryCount()))
+                .ignoreElement();
+    }
+
+    @Override
+    public Completable warmUp(Iterable<? extends MetaClassWithKey<?, ?>> metaClasses) {
+        return queryProvider.warmUp(metaClasses);
+    }
+
     @Override
     public void clearAndClose() {
         queryProvider.dropAll().blockingAwait();
@@ -52,4 +97,24 @@ public class DefaultRepository implements Repository {
     public void close() {
         this.queryProvider.close();
     }
+
+    private static class TransactionRepository extends DefaultRepository {
+        private TransactionRepository(QueryProvider queryProvider, QueryProvider.Decorator decorator, RepositoryConfigModel config) {
+            super(queryProvider, decorator, config);
+        }
+
+        @Override
+        public Completable transaction(Function<Repository, Completable> unitOfWork) {
+            return Completable.defer(() -> unitOfWork.apply(this));
+        }
+
+        @Override
+        public void clearAndClose() {
+            throw new UnsupportedOperationException("Transaction repository cannot be closed");
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
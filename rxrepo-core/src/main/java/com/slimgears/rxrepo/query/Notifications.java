@@ -1,11 +1,14 @@
 package com.slimgears.rxrepo.query;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.slimgears.rxrepo.expressions.ObjectExpression;
 import com.slimgears.rxrepo.expressions.PropertyExpression;
 import com.slimgears.rxrepo.query.provider.QueryInfo;
 import com.slimgears.rxrepo.query.provider.SortingInfo;
 import com.slimgears.rxrepo.util.Expressions;
+import com.slimgears.rxrepo.util.PropertyExpressions;
+import com.slimgears.rxrepo.util.PropertyResolver;
 import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
 import io.reactivex.Maybe;
 import io.reactivex.ObservableTransformer;
@@ -17,6 +20,7 @@ import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -112,6 +116,54 @@ public class Notifications {
                 .compose(fieldsFilter(query.properties()));
     }
 
+    public static <K, S, T> ImmutableList<PropertyExpression<S, ?, ?>> watchedProperties(QueryInfo<K, S, T> query) {
+        if (query.properties().isEmpty()) {
+            return ImmutableList.of();
+        }
+
+        ImmutableList<PropertyExpression<S, ?, ?>> properties = query.properties()
+                .stream()
+                .<PropertyExpression<S, ?, ?>>map(prop -> Expressions.compose(query.mapping(), prop))
+                .collect(ImmutableList.toImmutableList());
+
+        if (!properties.stream().allMatch(PropertyExpressions::isRootedAtArgument)) {
+            return ImmutableList.of();
+        }
+
+        return Optional
+                .ofNullable(query.predicate())
+                .map(PropertyExpressions::referencedProperties)
+                .orElseGet(() -> Optional.of(ImmutableSet.of()))
+                .map(predicateProperties -> ImmutableSet.<PropertyExpression<S, ?, ?>>builder()
+                        .addAll(properties)
+                        .addAll(predicateProperties)
+                        .build()
+                        .asList())
+                .orElseGet(ImmutableList::of);
+    }
+
+    public static ObservableTransformer<Notification<PropertyResolver>, Notification<PropertyResolver>> rawFieldsFilter(Collection<? extends PropertyExpression<?, ?, ?>> properties) {
+        if (properties.isEmpty()) {
+            return src -> src;
+        }
+
+        List<String> paths = properties.stream()
+                .map(PropertyExpression::path)
+                .collect(Collectors.toList());
+
+        return src -> src.filter(n -> rawFieldsChanged(n, paths));
+    }
+
+    private static boolean rawFieldsChanged(Notification<PropertyResolver> notification, List<String> paths) {
+        if (!notification.isModify()) {
+            return true;
+        }
+
+        PropertyResolver oldValue = notification.oldValue();
+        PropertyResolver newValue = notification.newValue();
+        return paths.stream().anyMatch(path -> !PropertyResolver.equalAt(oldValue, newValue, path));
+    }
+
     private static <S, T> ObservableTransformer<Notification<S>, Notification<T>> map(ObjectExpression<S, T> projection) {
         java.util.function.Function<S, T> mapper = Expressions.compile(projection);
         return src -> src.map(n -> n.map(mapper));
@@ -2,7 +2,10 @@ package com.slimgears.rxrepo.query;
 
 import com.slimgears.rxrepo.query.provider.QueryProvider;
 import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
+import io.reactivex.Completable;
+import io.reactivex.functions.Function;
 
+import java.util.Arrays;
 import java.util.function.Consumer;
 
 public interface Repository extends AutoCloseable {
@@ -10,6 +13,17 @@ public interface Repository extends AutoCloseable {
 
     Iterable<EntitySet<?, ?>> allEntitySets();
 
+    // Writes performed through repository passed to unit of work are committed together once it completes,
+    // or rolled back if it fails. Nested transactions join the outer one.
+    Completable transaction(Function<Repository, Completable> unitOfWork);
+
+    // Eagerly prepares schema for given entities, so that first access to them is not delayed by schema creation
+    Completable warmUp(Iterable<? extends MetaClassWithKey<?, ?>> metaClasses);
+
+    default Completable warmUp(MetaClassWithKey<?, ?>... metaClasses) {
+        return warmUp(Arrays.asList(metaClasses));
+    }
+
     void close();
     void clearAndClose();
 
@@ -27,6 +41,16 @@ public interface Repository extends AutoCloseable {
                 return self.allEntitySets();
             }
 
+            @Override
+            public Completable transaction(Function<Repository, Completable> unitOfWork) {
+                return self.transaction(unitOfWork);
+            }
+
+            @Override
+            public Completable warmUp(Iterable<? extends MetaClassWithKey<?, ?>> metaClasses) {
+                return self.warmUp(metaClasses);
+            }
+
             @Override
             public void clearAndClose() {
                 onClose.accept(this);
@@ -46,7 +70,6 @@ public interface Repository extends AutoCloseable {
     }
 
     static Repository fromProvider(QueryProvider provider, RepositoryConfigModel config, QueryProvider.Decorator... decorators) {
-        QueryProvider.Decorator decorator = QueryProvider.Decorator.of(decorators);
-        return new DefaultRepository(decorator.apply(provider), config);
+        return new DefaultRepository(provider, QueryProvider.Decorator.of(decorators), config);
     }
 }
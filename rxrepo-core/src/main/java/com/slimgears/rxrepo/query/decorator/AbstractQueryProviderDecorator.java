@@ -15,6 +15,8 @@ import io.reactivex.functions.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 import static com.slimgears.util.generic.LazyString.lazy;
 
 public class AbstractQueryProviderDecorator implements QueryProvider {
@@ -41,6 +43,11 @@ public class AbstractQueryProviderDecorator implements QueryProvider {
         return underlyingProvider.insertOrUpdate(metaClass, key, entityUpdater);
     }
 
+    @Override
+    public <K, S> Single<List<S>> insertOrUpdate(MetaClassWithKey<K, S> metaClass, Iterable<S> entities) {
+        return underlyingProvider.insertOrUpdate(metaClass, entities);
+    }
+
     @Override
     public <K, S, T> Observable<T> query(QueryInfo<K, S, T> query) {
         return underlyingProvider.query(query);
@@ -73,6 +80,11 @@ public class AbstractQueryProviderDecorator implements QueryProvider {
         return underlyingProvider.delete(delete);
     }
 
+    @Override
+    public Completable warmUp(Iterable<? extends MetaClassWithKey<?, ?>> metaClasses) {
+        return underlyingProvider.warmUp(metaClasses);
+    }
+
     @Override
     public <K, S> Completable drop(MetaClassWithKey<K, S> metaClass) {
         return underlyingProvider.drop(metaClass);
@@ -83,6 +95,11 @@ public class AbstractQueryProviderDecorator implements QueryProvider {
         return underlyingProvider.dropAll();
     }
 
+    @Override
+    public Single<Transaction> beginTransaction() {
+        return underlyingProvider.beginTransaction();
+    }
+
     @Override
     public void close() {
         underlyingProvider.close();
@@ -13,14 +13,17 @@ import io.reactivex.Single;
 import io.reactivex.functions.Function;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Semaphore;
 
 public class LimitConcurrentOperationsQueryProviderDecorator extends AbstractQueryProviderDecorator {
     private final Semaphore availableOperations;
+    private final int maxOperations;
 
     private LimitConcurrentOperationsQueryProviderDecorator(QueryProvider underlyingProvider, int maxOperations) {
         super(underlyingProvider);
         this.availableOperations = new Semaphore(maxOperations);
+        this.maxOperations = maxOperations;
     }
 
     public static QueryProvider.Decorator create(int maxConcurrentOperations) {
@@ -49,6 +52,13 @@ public class LimitConcurrentOperationsQueryProviderDecorator extends AbstractQue
                 .doFinally(this::doFinally);
     }
 
+    @Override
+    public <K, S> Single<List<S>> insertOrUpdate(MetaClassWithKey<K, S> metaClass, Iterable<S> entities) {
+        return Observable.fromIterable(entities)
+                .concatMapEager(e -> insertOrUpdate(metaClass, e).toObservable(), maxOperations, 1)
+                .toList();
+    }
+
     @Override
     public <K, S, T> Observable<T> query(QueryInfo<K, S, T> query) {
         return super.query(query)
@@ -24,6 +24,7 @@ public class LiveQueryProviderDecorator extends AbstractQueryProviderDecorator {
     public <K, S, T> Observable<Notification<T>> liveQuery(QueryInfo<K, S, T> query) {
         return super.liveQuery(QueryInfo.<K, S, S>builder()
                         .metaClass(query.metaClass())
+                        .propertiesAddAll(Notifications.watchedProperties(query))
                         .build())
                 .compose(Notifications.applyQuery(query));
     }
@@ -11,6 +11,8 @@ import io.reactivex.*;
 import io.reactivex.functions.Function;
 import io.reactivex.schedulers.Schedulers;
 
+import java.util.List;
+
 public class SchedulingQueryProviderDecorator extends AbstractQueryProviderDecorator {
     private final Scheduler updateScheduler;
     private final Scheduler queryScheduler;
@@ -57,6 +59,11 @@ public class SchedulingQueryProviderDecorator extends AbstractQueryProviderDecor
         return super.insertOrUpdate(metaClass, entity).subscribeOn(updateScheduler);
     }
 
+    @Override
+    public <K, S> Single<List<S>> insertOrUpdate(MetaClassWithKey<K, S> metaClass, Iterable<S> entities) {
+        return super.insertOrUpdate(metaClass, entities).subscribeOn(updateScheduler);
+    }
+
     @Override
     public <K, S> Single<Integer> update(UpdateInfo<K, S> update) {
         return super.update(update).subscribeOn(updateScheduler);
@@ -14,6 +14,7 @@ import io.reactivex.functions.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Optional;
 
 public class UpdateReferencesFirstQueryProviderDecorator extends AbstractQueryProviderDecorator {
@@ -40,6 +41,14 @@ public class UpdateReferencesFirstQueryProviderDecorator extends AbstractQueryPr
         return insertReferences(metaClass, entity).andThen(super.insertOrUpdate(metaClass, entity));
     }
 
+    @Override
+    public <K, S> Single<List<S>> insertOrUpdate(MetaClassWithKey<K, S> metaClass, Iterable<S> entities) {
+        return Observable.fromIterable(entities)
+                .concatMapEager(e -> insertReferences(metaClass, e).andThen(Observable.just(e)))
+                .ignoreElements()
+                .andThen(super.insertOrUpdate(metaClass, entities));
+    }
+
     @Override
     public <K, S> Maybe<S> insertOrUpdate(MetaClassWithKey<K, S> metaClass, K key, Function<Maybe<S>, Maybe<S>> entityUpdater) {
         return super.insertOrUpdate(metaClass, key, maybeEntity -> entityUpdater
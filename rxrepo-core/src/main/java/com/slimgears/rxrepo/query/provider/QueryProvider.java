@@ -11,6 +11,7 @@ import io.reactivex.Single;
 import io.reactivex.functions.Function;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.UnaryOperator;
 
@@ -39,6 +40,13 @@ public interface QueryProvider extends AutoCloseable {
                 .toSingle();
     }
 
+    // Returns stored entities, in order of given entities. Providers supporting batched writes upsert many entities at once
+    default <K, S> Single<List<S>> insertOrUpdate(MetaClassWithKey<K, S> metaClass, Iterable<S> entities) {
+        return Observable.fromIterable(entities)
+                .concatMapEager(e -> insertOrUpdate(metaClass, e).toObservable())
+                .toList();
+    }
+
     default <K, S, T, R> Observable<R> liveAggregate(QueryInfo<K, S, T> query, Aggregator<T, T, R> aggregator) {
         return liveQuery(query)
             .debounce(500, TimeUnit.MILLISECONDS)
@@ -46,9 +54,46 @@ public interface QueryProvider extends AutoCloseable {
             .distinctUntilChanged();
     }
 
+    // Providers without transaction support apply writes immediately, so rollback has no effect
+    default Single<Transaction> beginTransaction() {
+        return Single.just(Transaction.create(this, Completable.complete(), Completable.complete()));
+    }
+
+    // Creates storage structures (classes, tables, indexes) ahead of first use.
+    // Providers without schema have nothing to prepare
+    default Completable warmUp(Iterable<? extends MetaClassWithKey<?, ?>> metaClasses) {
+        return Completable.complete();
+    }
+
     default void close() {
     }
 
+    // Writes performed through transaction provider are applied atomically on commit
+    interface Transaction {
+        QueryProvider provider();
+        Completable commit();
+        Completable rollback();
+
+        static Transaction create(QueryProvider provider, Completable commit, Completable rollback) {
+            return new Transaction() {
+                @Override
+                public QueryProvider provider() {
+                    return provider;
+                }
+
+                @Override
+                public Completable commit() {
+                    return commit;
+                }
+
+                @Override
+                public Completable rollback() {
+                    return rollback;
+                }
+            };
+        }
+    }
+
     @FunctionalInterface
     interface Decorator extends UnaryOperator<QueryProvider> {
         default Decorator andThen(Decorator decorator) {
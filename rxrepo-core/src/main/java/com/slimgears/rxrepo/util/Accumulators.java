@@ -0,0 +1,240 @@
+package com.slimgears.rxrepo.util;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+import com.google.common.reflect.TypeToken;
+import com.slimgears.rxrepo.expressions.Aggregator;
+import com.slimgears.rxrepo.expressions.CollectionExpression;
+import com.slimgears.rxrepo.expressions.ConstantExpression;
+import com.slimgears.rxrepo.expressions.Expression;
+import com.slimgears.rxrepo.expressions.UnaryOperationExpression;
+import com.slimgears.rxrepo.expressions.internal.MoreTypeTokens;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@SuppressWarnings({"unchecked", "WeakerAccess"})
+public class Accumulators {
+    private final static ImmutableSet<Class<?>> integralTypes = ImmutableSet.of(Long.class, Integer.class, Short.class, Byte.class);
+    private final static ImmutableSet<Class<?>> floatingPointTypes = ImmutableSet.of(Double.class, Float.class);
+    private final static ImmutableSet<Expression.Type> supportedTypes = ImmutableSet.of(
+            Expression.Type.Count,
+            Expression.Type.Sum,
+            Expression.Type.Average,
+            Expression.Type.Min,
+            Expression.Type.Max);
+
+    public interface Accumulator<T, R> {
+        void add(T value);
+        long count();
+        R result();
+    }
+
+    // Built-in accumulators only apply when aggregation operand is the aggregated collection itself,
+    // aggregations over derived collections (e.g. count of filtered elements) are evaluated by expression
+    public static <T, R> Accumulator<T, R> forAggregator(Aggregator<T, T, R> aggregator, TypeToken<T> elementType) {
+        CollectionExpression<T, T, Collection<T>> collection = CollectionExpression.indirectArg(MoreTypeTokens.collection(elementType));
+        UnaryOperationExpression<T, Collection<T>, R> aggregation = aggregator.apply(collection);
+        return supportedTypes.contains(aggregation.type()) && collection.equals(aggregation.operand())
+                ? create(aggregation.type(), elementType.getRawType())
+                : new CollectingAccumulator<>(aggregator);
+    }
+
+    public static <T, R> R accumulate(Expression.Type aggregationType, Collection<T> values) {
+        Class<?> elementClass = values.stream()
+                .filter(v -> v != null)
+                .findFirst()
+                .<Class<?>>map(Object::getClass)
+                .orElse(Object.class);
+        Accumulator<T, R> accumulator = create(aggregationType, elementClass);
+        values.forEach(accumulator::add);
+        return accumulator.result();
+    }
+
+    public static <T, R> Accumulator<T, R> create(Expression.Type aggregationType, Class<?> elementClass) {
+        Class<?> cls = Primitives.wrap(elementClass);
+        switch (aggregationType) {
+            case Count: return (Accumulator<T, R>)new CountAccumulator();
+            case Sum: return (Accumulator<T, R>)(integralTypes.contains(cls)
+                    ? new LongSumAccumulator(cls)
+                    : floatingPointTypes.contains(cls)
+                    ? new DoubleSumAccumulator(cls)
+                    : new GenericSumAccumulator());
+            case Average: return (Accumulator<T, R>)(integralTypes.contains(cls)
+                    ? new LongAverageAccumulator()
+                    : new DoubleAverageAccumulator());
+            case Min: return (Accumulator<T, R>)new ComparingAccumulator(true);
+            case Max: return (Accumulator<T, R>)new ComparingAccumulator(false);
+            default: throw new IllegalArgumentException("Not supported aggregation type: " + aggregationType);
+        }
+    }
+
+    private static abstract class AbstractAccumulator<T, R> implements Accumulator<T, R> {
+        private long count;
+
+        @Override
+        public void add(T value) {
+            count++;
+            if (value != null) {
+                onValue(value);
+            }
+        }
+
+        @Override
+        public long count() {
+            return count;
+        }
+
+        protected abstract void onValue(T value);
+    }
+
+    private static class CountAccumulator extends AbstractAccumulator<Object, Long> {
+        @Override
+        protected void onValue(Object value) {
+        }
+
+        @Override
+        public Long result() {
+            return count();
+        }
+    }
+
+    private static class LongSumAccumulator extends AbstractAccumulator<Number, Number> {
+        private final Class<?> resultClass;
+        private long sum;
+        private boolean empty = true;
+
+        private LongSumAccumulator(Class<?> resultClass) {
+            this.resultClass = resultClass;
+        }
+
+        @Override
+        protected void onValue(Number value) {
+            sum += value.longValue();
+            empty = false;
+        }
+
+        @Override
+        public Number result() {
+            return !empty ? (Number)GenericMath.fromNumber(sum, resultClass) : null;
+        }
+    }
+
+    private static class DoubleSumAccumulator extends AbstractAccumulator<Number, Number> {
+        private final Class<?> resultClass;
+        private double sum;
+        private boolean empty = true;
+
+        private DoubleSumAccumulator(Class<?> resultClass) {
+            this.resultClass = resultClass;
+        }
+
+        @Override
+        protected void onValue(Number value) {
+            sum += value.doubleValue();
+            empty = false;
+        }
+
+        @Override
+        public Number result() {
+            return !empty ? (Number)GenericMath.fromNumber(sum, resultClass) : null;
+        }
+    }
+
+    private static class GenericSumAccumulator extends AbstractAccumulator<Number, Number> {
+        private Number sum;
+
+        @Override
+        protected void onValue(Number value) {
+            sum = sum != null ? GenericMath.add(sum, value) : value;
+        }
+
+        @Override
+        public Number result() {
+            return sum;
+        }
+    }
+
+    private static class LongAverageAccumulator extends AbstractAccumulator<Number, Double> {
+        private long sum;
+
+        @Override
+        protected void onValue(Number value) {
+            sum += value.longValue();
+        }
+
+        @Override
+        public Double result() {
+            return count() > 0 ? (double)sum / count() : 0.0;
+        }
+    }
+
+    private static class DoubleAverageAccumulator extends AbstractAccumulator<Number, Double> {
+        private double sum;
+
+        @Override
+        protected void onValue(Number value) {
+            sum += value.doubleValue();
+        }
+
+        @Override
+        public Double result() {
+            return count() > 0 ? sum / count() : 0.0;
+        }
+    }
+
+    // Null values are skipped: min/max of values containing nulls is the min/max of non-null values,
+    // and null only if there are no non-null values
+    private static class ComparingAccumulator extends AbstractAccumulator<Object, Object> {
+        private final boolean min;
+        private Object current;
+
+        private ComparingAccumulator(boolean min) {
+            this.min = min;
+        }
+
+        @Override
+        protected void onValue(Object value) {
+            if (current == null) {
+                current = value;
+                return;
+            }
+            int result = Expressions.compare(value, current);
+            if (min ? result < 0 : result > 0) {
+                current = value;
+            }
+        }
+
+        @Override
+        public Object result() {
+            return current;
+        }
+    }
+
+    // Custom aggregators are evaluated by compiling aggregation expression over collected values
+    private static class CollectingAccumulator<T, R> implements Accumulator<T, R> {
+        private final Aggregator<T, T, R> aggregator;
+        private final List<T> values = new ArrayList<>();
+
+        private CollectingAccumulator(Aggregator<T, T, R> aggregator) {
+            this.aggregator = aggregator;
+        }
+
+        @Override
+        public void add(T value) {
+            values.add(value);
+        }
+
+        @Override
+        public long count() {
+            return values.size();
+        }
+
+        @Override
+        public R result() {
+            CollectionExpression<T, T, Collection<T>> collection = ConstantExpression.of(values);
+            return Expressions.compile(aggregator.apply(collection)).apply(null);
+        }
+    }
+}
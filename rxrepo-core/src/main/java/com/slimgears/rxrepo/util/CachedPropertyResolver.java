@@ -1,5 +1,6 @@
 package com.slimgears.rxrepo.util;
 
+import com.slimgears.util.autovalue.annotations.MetaClass;
 import com.slimgears.util.stream.Lazy;
 
 import java.util.concurrent.ConcurrentHashMap;
@@ -28,4 +29,10 @@ public class CachedPropertyResolver implements PropertyResolver {
     public Object getProperty(String name, Class type) {
         return values.get().computeIfAbsent(name, n -> underlyingResolver.getProperty(n, type));
     }
+
+    // Underlying resolver may materialize objects directly, bypassing per property caching
+    @Override
+    public <T> T toObject(MetaClass<T> metaClass) {
+        return underlyingResolver.toObject(metaClass);
+    }
 }
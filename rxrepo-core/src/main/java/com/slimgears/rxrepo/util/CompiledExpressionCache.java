@@ -0,0 +1,98 @@
+package com.slimgears.rxrepo.util;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.slimgears.rxrepo.expressions.Expression;
+import com.slimgears.rxrepo.expressions.ExpressionVisitor;
+import com.slimgears.rxrepo.expressions.ObjectExpression;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+// Compiled functions keyed by expression structure. Expressions holding collection, map or array constants
+// (e.g. large 'in (...)' lists) are compiled without caching: hashing them on every lookup costs as much as
+// compiling, and keeping them as keys would retain arbitrary (and possibly mutable) user data
+public class CompiledExpressionCache {
+    private final Cache<ObjectExpression<?, ?>, Function> compiledExpressions;
+    private final Function<ObjectExpression<?, ?>, Function> compiler;
+
+    private CompiledExpressionCache(long maximumSize, Function<ObjectExpression<?, ?>, Function> compiler) {
+        this.compiledExpressions = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.compiler = compiler;
+    }
+
+    public static CompiledExpressionCache create(long maximumSize, Function<ObjectExpression<?, ?>, Function> compiler) {
+        return new CompiledExpressionCache(maximumSize, compiler);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <S, T> Function<S, T> compile(ObjectExpression<S, T> exp) {
+        if (!isCacheable(exp)) {
+            return (Function<S, T>)compiler.apply(exp);
+        }
+        try {
+            return (Function<S, T>)compiledExpressions.get(exp, () -> compiler.apply(exp));
+        } catch (ExecutionException e) {
+            throw new IllegalArgumentException("Could not compile expression: " + exp, e.getCause());
+        } catch (UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    public CacheStats stats() {
+        return compiledExpressions.stats();
+    }
+
+    public long size() {
+        return compiledExpressions.size();
+    }
+
+    public void clear() {
+        compiledExpressions.invalidateAll();
+    }
+
+    static boolean isCacheable(ObjectExpression<?, ?> exp) {
+        return new ExpressionVisitor<Void, Boolean>() {
+            @Override
+            protected Boolean reduceBinary(ObjectExpression<?, ?> expression, Expression.Type type, Boolean first, Boolean second) {
+                return first && second;
+            }
+
+            @Override
+            protected Boolean reduceUnary(ObjectExpression<?, ?> expression, Expression.Type type, Boolean first) {
+                return first;
+            }
+
+            @Override
+            protected <S, T> Boolean visitOther(ObjectExpression<S, T> expression, Void arg) {
+                return false;
+            }
+
+            @Override
+            protected <T, V> Boolean visitProperty(PropertyMeta<T, V> propertyMeta, Void arg) {
+                return true;
+            }
+
+            @Override
+            protected <V> Boolean visitConstant(Expression.Type type, V value, Void arg) {
+                return !(value instanceof Collection || value instanceof Map || (value != null && value.getClass().isArray()));
+            }
+
+            @Override
+            protected <T> Boolean visitArgument(TypeToken<T> argType, Void arg) {
+                return true;
+            }
+        }.visit(exp, null);
+    }
+}
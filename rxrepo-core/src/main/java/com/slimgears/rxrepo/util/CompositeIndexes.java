@@ -0,0 +1,32 @@
+package com.slimgears.rxrepo.util;
+
+import com.google.common.collect.ImmutableList;
+import com.slimgears.rxrepo.annotations.CompositeIndex;
+import com.slimgears.util.autovalue.annotations.MetaClass;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class CompositeIndexes {
+    private final static Map<MetaClass<?>, List<CompositeIndex>> indexesCache = new ConcurrentHashMap<>();
+
+    // Annotations of prototype interface are not inherited by generated class, so all supertypes are inspected
+    public static List<CompositeIndex> of(MetaClass<?> metaClass) {
+        return indexesCache.computeIfAbsent(metaClass, mc -> mc.asType().getTypes().rawTypes().stream()
+                .flatMap(cls -> Arrays.stream(cls.getAnnotationsByType(CompositeIndex.class)))
+                .distinct()
+                .collect(ImmutableList.toImmutableList()));
+    }
+
+    public static <S> List<PropertyMeta<S, ?>> propertiesOf(MetaClass<S> metaClass, CompositeIndex index) {
+        return Arrays.stream(index.value())
+                .<PropertyMeta<S, ?>>map(name -> Objects.requireNonNull(
+                        metaClass.getProperty(name),
+                        () -> "Property " + name + " is not found in " + metaClass.simpleName()))
+                .collect(ImmutableList.toImmutableList());
+    }
+}
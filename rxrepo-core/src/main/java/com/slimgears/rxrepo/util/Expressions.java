@@ -1,6 +1,7 @@
 package com.slimgears.rxrepo.util;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.reflect.TypeToken;
 import com.slimgears.rxrepo.encoding.MetaClassSearchableFields;
@@ -15,16 +16,63 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 public class Expressions {
+    public static final String compiledCacheSizeProperty = "rxrepo.expressions.compiledCacheSize";
+    public static final String disableSpecializedCompilerProperty = "rxrepo.expressions.disableSpecializedCompiler";
+    private static final boolean specializedCompilerEnabled = System.getProperty(disableSpecializedCompilerProperty) == null;
+    private static final long defaultCompiledCacheSize = 4096;
+    private static final CompiledExpressionCache compiledExpressions = CompiledExpressionCache.create(
+            Long.getLong(compiledCacheSizeProperty, defaultCompiledCacheSize),
+            Expressions::compileUncached);
+
     @SuppressWarnings("unchecked")
     public static <S, T> Function<S, T> compile(ObjectExpression<S, T> exp) {
+        return exp != null
+                ? compiledExpressions.compile(exp)
+                : (Function<S, T>)Function.identity();
+    }
+
+    public static void precompile(ObjectExpression<?, ?>... expressions) {
+        precompile(Arrays.asList(expressions));
+    }
+
+    public static void precompile(Iterable<? extends ObjectExpression<?, ?>> expressions) {
+        expressions.forEach(Expressions::compile);
+    }
+
+    public static CacheStats compiledCacheStats() {
+        return compiledExpressions.stats();
+    }
+
+    public static long compiledCacheSize() {
+        return compiledExpressions.size();
+    }
+
+    public static void clearCompiledCache() {
+        compiledExpressions.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <S, T> Function<S, T> compileInterpreted(ObjectExpression<S, T> exp) {
         return exp != null
                 ? (Function<S, T>)new InternalVisitor().visit(exp, null)
                 : (Function<S, T>)Function.identity();
     }
 
+    @SuppressWarnings("unchecked")
+    public static <S, T> Function<S, T> compileSpecialized(ObjectExpression<S, T> exp) {
+        return exp != null
+                ? (Function<S, T>)SpecializedExpressionCompiler.tryCompile(exp).orElseGet(() -> compileInterpreted(exp))
+                : (Function<S, T>)Function.identity();
+    }
+
+    private static Function compileUncached(ObjectExpression<?, ?> exp) {
+        return specializedCompilerEnabled
+                ? compileSpecialized(exp)
+                : compileInterpreted(exp);
+    }
+
     public static <S, V extends Comparable<V>> Comparator<S> compileComparator(PropertyExpression<S, ?, V> property, boolean ascending) {
         return ascending ? Comparator.comparing(compile(property)) : Comparator.comparing(compile(property)).reversed();
     }
@@ -163,6 +211,11 @@ public class Expressions {
                 .put(Expression.OperationType.Composition, composition())
                 .build();
 
+        private final static ImmutableMap<Expression.Type, Function<Object, Function>> constantPatternReducersMap = ImmutableMap.<Expression.Type, Function<Object, Function>>builder()
+                .put(Expression.Type.Matches, Expressions::matchesPattern)
+                .put(Expression.Type.SearchText, Expressions::searchTextPattern)
+                .build();
+
         private static Function reduce(Expression.Type type, Function... functions) {
             return Optionals.or(
                     () -> Optional.ofNullable(expressionTypeReducersMap.get(type)).map(r -> r.apply(functions)),
@@ -172,7 +225,18 @@ public class Expressions {
 
         @Override
         protected Function reduceBinary(ObjectExpression<?, ?> expression, Expression.Type type, Function first, Function second) {
-            return reduce(type, first, second);
+            return constantOperandOf(expression)
+                    .flatMap(value -> Optional.ofNullable(constantPatternReducersMap.get(type)).map(r -> r.apply(value)))
+                    .map(matcher -> composition().apply(new Function[]{first, matcher}))
+                    .orElseGet(() -> reduce(type, first, second));
+        }
+
+        private static Optional<Object> constantOperandOf(ObjectExpression<?, ?> expression) {
+            return Optional.of(expression)
+                    .flatMap(Optionals.ofType(BinaryOperationExpression.class))
+                    .map(BinaryOperationExpression::right)
+                    .flatMap(Optionals.ofType(ConstantExpression.class))
+                    .map(ConstantExpression::value);
         }
 
         @Override
@@ -206,21 +270,15 @@ public class Expressions {
     }
 
     private static <T> Function<Collection<T>, T> min() {
-        return c -> Optional
-                .ofNullable(c)
-                .flatMap(cc -> cc.stream().min(Comparator.nullsFirst(Expressions::compare)))
-                .orElse(null);
+        return aggregate(Expression.Type.Min, null);
     }
 
     private static <T> Function<Collection<T>, T> max() {
-        return c -> Optional
-                .ofNullable(c)
-                .flatMap(cc -> cc.stream().max(Comparator.nullsFirst(Expressions::compare)))
-                .orElse(null);
+        return aggregate(Expression.Type.Max, null);
     }
 
     @SuppressWarnings("unchecked")
-    private static <T> int compare(T left, T right) {
+    static <T> int compare(T left, T right) {
         return left instanceof Comparable && right instanceof Comparable
                 ? ((Comparable<T>)left).compareTo(right)
                 : left.toString().compareTo(right.toString());
@@ -231,21 +289,15 @@ public class Expressions {
     }
 
     private static <N extends Number> Function<Collection<N>, Double> average() {
-        Function<Collection<N>, N> sumFunc = sum();
-        Function<Collection<?>, Long> countFunc = count();
-        return col -> {
-            long count = countFunc.apply(col);
-            return count > 0 ? sumFunc.apply(col).doubleValue() / count : 0.0;
-        };
+        return aggregate(Expression.Type.Average, 0.0);
     }
 
     private static <N extends Number> Function<Collection<N>, N> sum() {
-        return col -> Optional
-                .ofNullable(col)
-                .map(Collection::stream)
-                .orElseGet(Stream::empty)
-                .reduce(GenericMath::add)
-                .orElse(null);
+        return aggregate(Expression.Type.Sum, null);
+    }
+
+    private static <T, R> Function<Collection<T>, R> aggregate(Expression.Type aggregationType, R defaultValue) {
+        return col -> col != null ? Accumulators.accumulate(aggregationType, col) : defaultValue;
     }
 
     private static BiFunction<String, String, String> concat() {
@@ -276,16 +328,25 @@ public class Expressions {
         return numericBinariesWithDefaultNumbers(GenericMath::add, 0, 0);
     }
 
-    private static BiFunction<String, String, Boolean> startsWith() {
+    static BiFunction<String, String, Boolean> startsWith() {
         return (s1, s2) -> s1 != null && (s2 == null || s1.startsWith(s2));
     }
 
-    private static BiFunction<String, String, Boolean> endsWith() {
+    static BiFunction<String, String, Boolean> endsWith() {
         return (s1, s2) -> s1 != null && (s2 == null || s1.endsWith(s2));
     }
 
     private static BiFunction<String, String, Boolean> matches() {
-        return (s1, s2) -> (s1 == null && s2 == null) || (s1 != null && s2 != null && s1.matches(s2));
+        return (s1, s2) -> matchesPattern(s2).apply(s1);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Function<Object, Boolean> matchesPattern(Object regex) {
+        if (regex == null) {
+            return Objects::isNull;
+        }
+        Pattern pattern = Pattern.compile((String)regex);
+        return s -> s != null && pattern.matcher((String)s).matches();
     }
 
     private static <N extends Number> BiFunction<N, N, N> numericBinariesWithDefaultNumbers(BiFunction<N, N, N> func, N defaultValue1, N defaultValue2) {
@@ -301,16 +362,15 @@ public class Expressions {
     }
 
     private static BiFunction<Object, String, Boolean> searchText() {
-        return (obj, str) -> Optional.ofNullable(obj)
-                .map(MetaClassSearchableFields::searchableTextFromObject)
-                .map(text -> {
-                    Pattern pattern = Pattern.compile(SearchTextUtils.searchTextToRegex(getStringOrEmpty(str)), Pattern.CASE_INSENSITIVE);
-                    return pattern.matcher(text).find();
-                })
-                .orElse(false);
+        return (obj, str) -> obj != null && searchTextPattern(str).apply(obj);
+    }
+
+    static Function<Object, Boolean> searchTextPattern(Object searchText) {
+        Pattern pattern = Pattern.compile(SearchTextUtils.searchTextToRegex(getStringOrEmpty((String)searchText)), Pattern.CASE_INSENSITIVE);
+        return obj -> obj != null && pattern.matcher(MetaClassSearchableFields.searchableTextFromObject(obj)).find();
     }
 
-    private static BiFunction<String, String, Boolean> contains() {
+    static BiFunction<String, String, Boolean> contains() {
         return (s1, s2) -> s1 != null && (s2 == null || s1.contains(s2)); //if s1 == null returns false but then null does not contain null
     }
 }
@@ -1,7 +1,12 @@
 package com.slimgears.rxrepo.util;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
+import com.slimgears.rxrepo.expressions.ArgumentExpression;
+import com.slimgears.rxrepo.expressions.ComposedExpression;
+import com.slimgears.rxrepo.expressions.Expression;
+import com.slimgears.rxrepo.expressions.ExpressionVisitor;
 import com.slimgears.rxrepo.expressions.ObjectExpression;
 import com.slimgears.rxrepo.expressions.PropertyExpression;
 import com.slimgears.util.autovalue.annotations.MetaClass;
@@ -117,6 +122,65 @@ public class PropertyExpressions {
         return pos >= 0 ? path.substring(0, pos) : path;
     }
 
+    public static boolean isRootedAtArgument(PropertyExpression<?, ?, ?> propertyExpression) {
+        return rootOf(propertyExpression).target() instanceof ArgumentExpression;
+    }
+
+    // Returns empty if the expression depends on anything beyond plain property paths of its argument
+    @SuppressWarnings("unchecked")
+    public static <S> Optional<ImmutableSet<PropertyExpression<S, ?, ?>>> referencedProperties(ObjectExpression<S, ?> expression) {
+        Set<PropertyExpression<S, ?, ?>> properties = Sets.newLinkedHashSet();
+        boolean onlyProperties = new ExpressionVisitor<Void, Boolean>() {
+            @Override
+            protected Boolean reduceBinary(ObjectExpression<?, ?> expression, Expression.Type type, Boolean first, Boolean second) {
+                return first && second;
+            }
+
+            @Override
+            protected Boolean reduceUnary(ObjectExpression<?, ?> expression, Expression.Type type, Boolean first) {
+                return first;
+            }
+
+            @Override
+            protected <_S, T, V> Boolean visitProperty(PropertyExpression<_S, T, V> expression, Void arg) {
+                if (!isRootedAtArgument(expression)) {
+                    return false;
+                }
+                properties.add((PropertyExpression<S, ?, ?>)expression);
+                return true;
+            }
+
+            @Override
+            protected <_S, T, R> Boolean visitComposition(ComposedExpression<_S, T, R> expression, Void arg) {
+                return false;
+            }
+
+            @Override
+            protected <_S, T> Boolean visitOther(ObjectExpression<_S, T> expression, Void arg) {
+                return false;
+            }
+
+            @Override
+            protected <T, V> Boolean visitProperty(PropertyMeta<T, V> propertyMeta, Void arg) {
+                return true;
+            }
+
+            @Override
+            protected <V> Boolean visitConstant(Expression.Type type, V value, Void arg) {
+                return true;
+            }
+
+            @Override
+            protected <T> Boolean visitArgument(TypeToken<T> argType, Void arg) {
+                return false;
+            }
+        }.visit(expression, null);
+
+        return onlyProperties
+                ? Optional.of(ImmutableSet.copyOf(properties))
+                : Optional.empty();
+    }
+
     public static boolean propertyEquals(PropertyExpression<?, ?, ?> property, Object other) {
         return Optional.ofNullable(other)
                 .filter(p -> property.hashCode() == p.hashCode())
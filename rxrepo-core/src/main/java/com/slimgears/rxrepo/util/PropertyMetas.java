@@ -46,6 +46,10 @@ public class PropertyMetas {
         return hasMetaClass(property.type());
     }
 
+    public static boolean isComparable(PropertyMeta<?, ?> property) {
+        return !isEmbedded(property) && property.type().wrap().isSubtypeOf(Comparable.class);
+    }
+
     public static boolean isKey(PropertyMeta<?, ?> property) {
         return keyPropertiesCache.computeIfAbsent(property, pm ->
             Optional.of(pm.declaringType())
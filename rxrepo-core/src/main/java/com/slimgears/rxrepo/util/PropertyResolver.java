@@ -51,7 +51,16 @@ public interface PropertyResolver {
         return CachedPropertyResolver.of(this);
     }
 
+    static boolean equalAt(PropertyResolver first, PropertyResolver second, String path) {
+        return PropertyResolvers.equalAt(first, second, path);
+    }
+
     static <T> PropertyResolver fromObject(MetaClass<T> metaClass, T obj) {
         return PropertyResolvers.fromObject(metaClass, obj);
     }
+
+    // Converts raw property value (e.g. nested resolvers, collections of resolvers) to value of given type
+    static <V> V toValue(TypeToken<V> type, Object value) {
+        return PropertyResolvers.toValue(type, value);
+    }
 }
@@ -64,6 +64,52 @@ class PropertyResolvers {
         return resolver.cache();
     }
 
+    static boolean equalAt(PropertyResolver first, PropertyResolver second, String path) {
+        int pos = path.indexOf('.');
+        String head = pos >= 0 ? path.substring(0, pos) : path;
+        Object firstValue = first.getProperty(head, Object.class);
+        Object secondValue = second.getProperty(head, Object.class);
+        if (pos < 0) {
+            return valueEquals(firstValue, secondValue);
+        }
+        if (firstValue instanceof PropertyResolver && secondValue instanceof PropertyResolver) {
+            return equalAt((PropertyResolver)firstValue, (PropertyResolver)secondValue, path.substring(pos + 1));
+        }
+        return firstValue == null && secondValue == null;
+    }
+
+    private static boolean valueEquals(Object first, Object second) {
+        if (first instanceof PropertyResolver && second instanceof PropertyResolver) {
+            PropertyResolver firstResolver = (PropertyResolver)first;
+            PropertyResolver secondResolver = (PropertyResolver)second;
+            Set<String> names = Streams.fromIterable(firstResolver.propertyNames()).collect(Collectors.toSet());
+            return names.equals(Streams.fromIterable(secondResolver.propertyNames()).collect(Collectors.toSet())) &&
+                    names.stream().allMatch(name -> valueEquals(
+                            firstResolver.getProperty(name, Object.class),
+                            secondResolver.getProperty(name, Object.class)));
+        } else if (first instanceof Map && second instanceof Map) {
+            Map<?, ?> firstMap = (Map<?, ?>)first;
+            Map<?, ?> secondMap = (Map<?, ?>)second;
+            return firstMap.keySet().equals(secondMap.keySet()) &&
+                    firstMap.keySet().stream().allMatch(key -> valueEquals(firstMap.get(key), secondMap.get(key)));
+        } else if (first instanceof Collection && second instanceof Collection) {
+            Collection<?> firstCollection = (Collection<?>)first;
+            Collection<?> secondCollection = (Collection<?>)second;
+            if (firstCollection.size() != secondCollection.size()) {
+                return false;
+            }
+            Iterator<?> firstIterator = firstCollection.iterator();
+            Iterator<?> secondIterator = secondCollection.iterator();
+            while (firstIterator.hasNext()) {
+                if (!valueEquals(firstIterator.next(), secondIterator.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Objects.equals(first, second);
+    }
+
     private static <T extends HasMetaClass<T>> PropertyResolver fromObject(T obj) {
         return fromObject(obj.metaClass(), obj);
     }
@@ -120,7 +166,7 @@ class PropertyResolvers {
     }
 
     @SuppressWarnings("unchecked")
-    private static <V> V toValue(TypeToken<V> type, Object value) {
+    static <V> V toValue(TypeToken<V> type, Object value) {
         if (value == null) {
             return null;
         } else if (value instanceof Iterable && type.isSubtypeOf(Iterable.class)) {
@@ -0,0 +1,358 @@
+package com.slimgears.rxrepo.util;
+
+import com.google.common.reflect.TypeToken;
+import com.slimgears.rxrepo.expressions.Expression;
+import com.slimgears.rxrepo.expressions.ExpressionVisitor;
+import com.slimgears.rxrepo.expressions.ObjectExpression;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Builds a tree of dedicated final node classes instead of generic lambda chains, so the JIT
+// can inline property getters, boolean logic and comparisons. Expressions containing node types
+// not handled here are left to the interpreting compiler in Expressions.
+class SpecializedExpressionCompiler {
+    private final static Map<PropertyMeta<?, ?>, Function<Object, Object>> gettersCache = new ConcurrentHashMap<>();
+
+    static Optional<Function> tryCompile(ObjectExpression<?, ?> expression) {
+        try {
+            return Optional.of(new CompilingVisitor().visit(expression, null));
+        } catch (NotSupportedException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static class NotSupportedException extends RuntimeException {
+    }
+
+    private static class CompilingVisitor extends ExpressionVisitor<Void, Function> {
+        @Override
+        protected Function reduceBinary(ObjectExpression<?, ?> expression, Expression.Type type, Function first, Function second) {
+            switch (type.operationType()) {
+                case Property:
+                case Composition:
+                    return first instanceof ArgumentNode ? second : new CompositionNode(first, second);
+                default:
+                    break;
+            }
+            switch (type) {
+                case And: return new AndNode(first, second);
+                case Or: return new OrNode(first, second);
+                case Equals: return second instanceof ConstantNode
+                        ? new EqualsConstantNode(first, ((ConstantNode)second).value)
+                        : new EqualsNode(first, second);
+                case GreaterThan: return new CompareNode(first, second, true);
+                case LessThan: return new CompareNode(first, second, false);
+                case ValueIn: return new ValueInNode(first, second);
+                case Contains: return new StringBinaryNode(first, second, Expressions.contains());
+                case StartsWith: return new StringBinaryNode(first, second, Expressions.startsWith());
+                case EndsWith: return new StringBinaryNode(first, second, Expressions.endsWith());
+                case Matches: return new PatternNode(first, Expressions.matchesPattern(constantOf(second)));
+                case SearchText: return new PatternNode(first, Expressions.searchTextPattern(constantOf(second)));
+                default: throw new NotSupportedException();
+            }
+        }
+
+        private static Object constantOf(Function function) {
+            if (!(function instanceof ConstantNode)) {
+                throw new NotSupportedException();
+            }
+            return ((ConstantNode)function).value;
+        }
+
+        @Override
+        protected Function reduceUnary(ObjectExpression<?, ?> expression, Expression.Type type, Function first) {
+            switch (type) {
+                case Not: return new NotNode(first);
+                case IsNull: return new IsNullNode(first);
+                default: throw new NotSupportedException();
+            }
+        }
+
+        @Override
+        protected <S, T> Function visitOther(ObjectExpression<S, T> expression, Void arg) {
+            throw new NotSupportedException();
+        }
+
+        @Override
+        protected <T, V> Function visitProperty(PropertyMeta<T, V> propertyMeta, Void arg) {
+            return new PropertyNode(propertyMeta.declaringType().asClass(), getterOf(propertyMeta));
+        }
+
+        @Override
+        protected <V> Function visitConstant(Expression.Type type, V value, Void arg) {
+            return new ConstantNode(value);
+        }
+
+        @Override
+        protected <T> Function visitArgument(TypeToken<T> argType, Void arg) {
+            return new ArgumentNode();
+        }
+    }
+
+    private static Function<Object, Object> getterOf(PropertyMeta<?, ?> propertyMeta) {
+        return gettersCache.computeIfAbsent(propertyMeta, SpecializedExpressionCompiler::createGetter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetter(PropertyMeta<?, ?> propertyMeta) {
+        Class<?> declaringClass = propertyMeta.declaringType().asClass();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle getter = lookup.findVirtual(declaringClass, propertyMeta.name(), MethodType.methodType(propertyMeta.type().getRawType()));
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    getter,
+                    getter.type().wrap());
+            return (Function<Object, Object>)callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            PropertyMeta<Object, ?> meta = (PropertyMeta<Object, ?>)propertyMeta;
+            return meta::getValue;
+        }
+    }
+
+    private static final class ArgumentNode implements Function<Object, Object> {
+        @Override
+        public Object apply(Object o) {
+            return o;
+        }
+    }
+
+    private static final class ConstantNode implements Function<Object, Object> {
+        private final Object value;
+
+        private ConstantNode(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return value;
+        }
+    }
+
+    private static final class PropertyNode implements Function<Object, Object> {
+        private final Class<?> declaringClass;
+        private final Function<Object, Object> getter;
+
+        private PropertyNode(Class<?> declaringClass, Function<Object, Object> getter) {
+            this.declaringClass = declaringClass;
+            this.getter = getter;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return declaringClass.isInstance(o) ? getter.apply(o) : null;
+        }
+    }
+
+    private static final class CompositionNode implements Function<Object, Object> {
+        private final Function<Object, Object> first;
+        private final Function<Object, Object> second;
+
+        @SuppressWarnings("unchecked")
+        private CompositionNode(Function first, Function second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return second.apply(first.apply(o));
+        }
+    }
+
+    private static final class AndNode implements Function<Object, Object> {
+        private final Function<Object, Object> first;
+        private final Function<Object, Object> second;
+
+        @SuppressWarnings("unchecked")
+        private AndNode(Function first, Function second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return (Boolean)first.apply(o) && (Boolean)second.apply(o);
+        }
+    }
+
+    private static final class OrNode implements Function<Object, Object> {
+        private final Function<Object, Object> first;
+        private final Function<Object, Object> second;
+
+        @SuppressWarnings("unchecked")
+        private OrNode(Function first, Function second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return (Boolean)first.apply(o) || (Boolean)second.apply(o);
+        }
+    }
+
+    private static final class NotNode implements Function<Object, Object> {
+        private final Function<Object, Object> operand;
+
+        @SuppressWarnings("unchecked")
+        private NotNode(Function operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return Boolean.FALSE.equals(operand.apply(o));
+        }
+    }
+
+    private static final class IsNullNode implements Function<Object, Object> {
+        private final Function<Object, Object> operand;
+
+        @SuppressWarnings("unchecked")
+        private IsNullNode(Function operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return operand.apply(o) == null;
+        }
+    }
+
+    private static final class EqualsNode implements Function<Object, Object> {
+        private final Function<Object, Object> first;
+        private final Function<Object, Object> second;
+
+        @SuppressWarnings("unchecked")
+        private EqualsNode(Function first, Function second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return Objects.equals(first.apply(o), second.apply(o));
+        }
+    }
+
+    private static final class EqualsConstantNode implements Function<Object, Object> {
+        private final Function<Object, Object> operand;
+        private final Object value;
+
+        @SuppressWarnings("unchecked")
+        private EqualsConstantNode(Function operand, Object value) {
+            this.operand = operand;
+            this.value = value;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return Objects.equals(operand.apply(o), value);
+        }
+    }
+
+    private static final class CompareNode implements Function<Object, Object> {
+        private final Function<Object, Object> first;
+        private final Function<Object, Object> second;
+        private final boolean greaterThan;
+
+        @SuppressWarnings("unchecked")
+        private CompareNode(Function first, Function second, boolean greaterThan) {
+            this.first = first;
+            this.second = second;
+            this.greaterThan = greaterThan;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            Object a = first.apply(o);
+            Object b = second.apply(o);
+            if (a == null || b == null) {
+                return false;
+            }
+            int result = compare(a, b);
+            return greaterThan ? result > 0 : result < 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static int compare(Object a, Object b) {
+            if (a instanceof Integer && b instanceof Integer) {
+                return Integer.compare((Integer)a, (Integer)b);
+            } else if (a instanceof Long && b instanceof Long) {
+                return Long.compare((Long)a, (Long)b);
+            } else if (a instanceof Double && b instanceof Double) {
+                return Double.compare((Double)a, (Double)b);
+            }
+            return ((Comparable<Object>)a).compareTo(b);
+        }
+    }
+
+    private static final class ValueInNode implements Function<Object, Object> {
+        private final Function<Object, Object> first;
+        private final Function<Object, Object> second;
+
+        @SuppressWarnings("unchecked")
+        private ValueInNode(Function first, Function second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            Object value = first.apply(o);
+            Object collection = second.apply(o);
+            return value != null && collection != null && ((Collection<?>)collection).contains(value);
+        }
+    }
+
+    private static final class StringBinaryNode implements Function<Object, Object> {
+        private final Function<Object, Object> first;
+        private final Function<Object, Object> second;
+        private final BiFunction<String, String, Boolean> operation;
+
+        @SuppressWarnings("unchecked")
+        private StringBinaryNode(Function first, Function second, BiFunction<String, String, Boolean> operation) {
+            this.first = first;
+            this.second = second;
+            this.operation = operation;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return operation.apply((String)first.apply(o), (String)second.apply(o));
+        }
+    }
+
+    private static final class PatternNode implements Function<Object, Object> {
+        private final Function<Object, Object> operand;
+        private final Function<Object, Boolean> matcher;
+
+        @SuppressWarnings("unchecked")
+        private PatternNode(Function operand, Function<Object, Boolean> matcher) {
+            this.operand = operand;
+            this.matcher = matcher;
+        }
+
+        @Override
+        public Object apply(Object o) {
+            return matcher.apply(operand.apply(o));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.slimgears.rxrepo.util;
+
+import com.google.common.reflect.TypeToken;
+import com.slimgears.rxrepo.expressions.Aggregator;
+import com.slimgears.rxrepo.expressions.Expression;
+import com.slimgears.rxrepo.expressions.ObjectExpression;
+import com.slimgears.rxrepo.expressions.UnaryOperationExpression;
+import com.slimgears.rxrepo.expressions.internal.BooleanUnaryOperationExpression;
+import com.slimgears.rxrepo.expressions.internal.NumericUnaryOperationExpression;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+public class AccumulatorsTest {
+    @Test
+    public void testEmptyInput() {
+        Assert.assertEquals(Long.valueOf(0), Accumulators.accumulate(Expression.Type.Count, Collections.emptyList()));
+        Assert.assertNull(Accumulators.accumulate(Expression.Type.Sum, Collections.emptyList()));
+        Assert.assertEquals(0.0, Accumulators.<Integer, Double>accumulate(Expression.Type.Average, Collections.emptyList()), 0.0);
+        Assert.assertNull(Accumulators.accumulate(Expression.Type.Min, Collections.emptyList()));
+        Assert.assertNull(Accumulators.accumulate(Expression.Type.Max, Collections.emptyList()));
+    }
+
+    @Test
+    public void testNullValues() {
+        Collection<Integer> values = Arrays.asList(3, null, 1, null, 2);
+        Assert.assertEquals(Long.valueOf(5), Accumulators.accumulate(Expression.Type.Count, values));
+        Assert.assertEquals(6, Accumulators.<Integer, Integer>accumulate(Expression.Type.Sum, values).intValue());
+        Assert.assertEquals(Integer.valueOf(1), Accumulators.accumulate(Expression.Type.Min, values));
+        Assert.assertEquals(Integer.valueOf(3), Accumulators.accumulate(Expression.Type.Max, values));
+        Assert.assertNull(Accumulators.accumulate(Expression.Type.Min, Arrays.asList(null, null)));
+        Assert.assertNull(Accumulators.accumulate(Expression.Type.Sum, Arrays.asList(null, null)));
+    }
+
+    @Test
+    public void testIntegralSum() {
+        Object sum = Accumulators.accumulate(Expression.Type.Sum, Arrays.asList(1, 2, 3));
+        Assert.assertEquals(Integer.valueOf(6), sum);
+
+        Object longSum = Accumulators.accumulate(Expression.Type.Sum, Arrays.asList(Long.MAX_VALUE - 1, 1L));
+        Assert.assertEquals(Long.MAX_VALUE, longSum);
+    }
+
+    @Test
+    public void testFloatingPointSum() {
+        Object sum = Accumulators.accumulate(Expression.Type.Sum, Arrays.asList(0.5, 1.25, 2.0));
+        Assert.assertEquals(Double.valueOf(3.75), sum);
+
+        Object floatSum = Accumulators.accumulate(Expression.Type.Sum, Arrays.asList(0.5f, 1.5f));
+        Assert.assertEquals(Float.valueOf(2.0f), floatSum);
+    }
+
+    @Test
+    public void testAverage() {
+        Assert.assertEquals(2.5, Accumulators.<Integer, Double>accumulate(Expression.Type.Average, Arrays.asList(1, 2, 3, 4)), 0.0);
+        Assert.assertEquals(0.75, Accumulators.<Double, Double>accumulate(Expression.Type.Average, Arrays.asList(0.5, 1.0)), 0.0);
+        // Nulls are counted, but not summed
+        Assert.assertEquals(2.0, Accumulators.<Integer, Double>accumulate(Expression.Type.Average, Arrays.asList(2, null, 4)), 0.0);
+    }
+
+    @Test
+    public void testCustomAggregatorFallsBackToCompiledExpression() {
+        Aggregator<Integer, Integer, Boolean> isNull = new Aggregator<Integer, Integer, Boolean>() {
+            @Override
+            public <C extends Collection<Integer>> UnaryOperationExpression<Integer, C, Boolean> apply(ObjectExpression<Integer, C> collection) {
+                return BooleanUnaryOperationExpression.create(Expression.Type.IsNull, collection);
+            }
+
+            @Override
+            public TypeToken<Boolean> objectType(TypeToken<Integer> element) {
+                return TypeToken.of(Boolean.class);
+            }
+        };
+
+        Accumulators.Accumulator<Integer, Boolean> accumulator = Accumulators.forAggregator(isNull, TypeToken.of(Integer.class));
+        Arrays.asList(5, 6, 7).forEach(accumulator::add);
+        Assert.assertEquals(3, accumulator.count());
+        Assert.assertEquals(Boolean.FALSE, accumulator.result());
+    }
+
+    @Test
+    public void testFilteredCountIsEvaluatedByExpression() {
+        Aggregator<Integer, Integer, Long> countGreaterThanTwo = new Aggregator<Integer, Integer, Long>() {
+            @Override
+            public <C extends Collection<Integer>> UnaryOperationExpression<Integer, C, Long> apply(ObjectExpression<Integer, C> collection) {
+                return NumericUnaryOperationExpression.create(
+                        Expression.Type.Count,
+                        ObjectExpression.<Integer, Integer, C>asCollection(collection)
+                                .filter(ObjectExpression.<Integer, Integer>numericArg(Integer.class).greaterThan(2)));
+            }
+
+            @Override
+            public TypeToken<Long> objectType(TypeToken<Integer> element) {
+                return TypeToken.of(Long.class);
+            }
+        };
+
+        Accumulators.Accumulator<Integer, Long> accumulator = Accumulators.forAggregator(countGreaterThanTwo, TypeToken.of(Integer.class));
+        Arrays.asList(1, 2, 3, 4, 5).forEach(accumulator::add);
+        Assert.assertEquals(Long.valueOf(3), accumulator.result());
+    }
+}
@@ -0,0 +1,37 @@
+package com.slimgears.rxrepo.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+class H2ChangeCapture implements JdbcChangeCapture {
+    static final H2ChangeCapture instance = new H2ChangeCapture();
+
+    private H2ChangeCapture() {
+    }
+
+    @Override
+    public void createChangeLog(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + changeLogTable + " (" +
+                    "seq BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "table_name VARCHAR(256) NOT NULL, " +
+                    "old_row CLOB, " +
+                    "new_row CLOB)");
+        }
+    }
+
+    @Override
+    public void install(Connection connection, String tableName) throws SQLException {
+        createChangeLog(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TRIGGER IF NOT EXISTS " + triggerName(tableName) +
+                    " AFTER INSERT, UPDATE, DELETE ON " + tableName +
+                    " FOR EACH ROW CALL \"" + H2ChangeLogTrigger.class.getName() + "\"");
+        }
+    }
+
+    private static String triggerName(String tableName) {
+        return "\"RXREPO_" + tableName.replace("\"", "").toUpperCase() + "_CHANGES\"";
+    }
+}
@@ -0,0 +1,56 @@
+package com.slimgears.rxrepo.jdbc;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+// Instantiated by H2 for every table with installed change capture
+public class H2ChangeLogTrigger implements Trigger {
+    private final List<String> columnNames = new ArrayList<>();
+    private String tableName;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type) throws SQLException {
+        this.tableName = tableName;
+        try (ResultSet columns = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+            while (columns.next()) {
+                columnNames.add(columns.getString("COLUMN_NAME"));
+            }
+        }
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement("INSERT INTO " + JdbcChangeCapture.changeLogTable + " (table_name, old_row, new_row) VALUES (?, ?, ?)")) {
+            statement.setString(1, tableName);
+            statement.setString(2, encode(oldRow));
+            statement.setString(3, encode(newRow));
+            statement.executeUpdate();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void remove() {
+    }
+
+    private String encode(Object[] row) {
+        if (row == null) {
+            return null;
+        }
+        LinkedHashMap<String, Object> columns = new LinkedHashMap<>();
+        for (int i = 0; i < row.length && i < columnNames.size(); ++i) {
+            columns.put(columnNames.get(i), row[i]);
+        }
+        return JdbcRowCodec.encode(columns);
+    }
+}
@@ -0,0 +1,35 @@
+package com.slimgears.rxrepo.jdbc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.slimgears.rxrepo.sql.StatementUtils.concat;
+
+class H2SqlDialect extends JdbcSqlDialect {
+    static final H2SqlDialect instance = new H2SqlDialect();
+
+    private H2SqlDialect() {
+    }
+
+    // Without KEY clause MERGE matches rows by primary key, which also covers flattened composite keys
+    @Override
+    public String upsert(String tableName, String keyColumn, List<Map.Entry<String, String>> columnValues, Supplier<String> keyCondition) {
+        return concat("merge", "into", tableName, columnList(columnValues), "values", valueList(columnValues));
+    }
+
+    @Override
+    public String dropDatabase(String databaseName) {
+        return concat("drop", "all", "objects");
+    }
+
+    @Override
+    protected String stringType() {
+        return "VARCHAR";
+    }
+
+    @Override
+    protected String binaryType() {
+        return "VARBINARY";
+    }
+}
@@ -0,0 +1,44 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.google.common.collect.Maps;
+import com.slimgears.rxrepo.sql.ReferenceResolver;
+import com.slimgears.rxrepo.sql.SqlAssignmentGenerator;
+import com.slimgears.rxrepo.sql.SqlExpressionGenerator;
+import com.slimgears.rxrepo.util.PropertyResolver;
+import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+import com.slimgears.util.stream.Lazy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+class JdbcAssignmentGenerator implements SqlAssignmentGenerator {
+    private final SqlExpressionGenerator sqlExpressionGenerator;
+    private final JdbcSqlDialect dialect;
+
+    JdbcAssignmentGenerator(SqlExpressionGenerator sqlExpressionGenerator, JdbcSqlDialect dialect) {
+        this.sqlExpressionGenerator = sqlExpressionGenerator;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public <K, T> Function<String, Stream<Map.Entry<String, String>>> toColumnValues(
+            MetaClassWithKey<K, T> metaClass,
+            PropertyResolver propertyResolver,
+            ReferenceResolver referenceResolver) {
+        Lazy<T> object = Lazy.of(() -> propertyResolver.toObject(metaClass));
+        return prop -> {
+            PropertyMeta<T, ?> propertyMeta = metaClass.getProperty(prop);
+            if (propertyMeta == null) {
+                return Stream.empty();
+            }
+            List<Map.Entry<String, String>> columnValues = new ArrayList<>();
+            JdbcColumns.forEachValue(propertyMeta, propertyMeta.getValue(object.get()), (column, value) ->
+                    columnValues.add(Maps.immutableEntry(dialect.identifier(column), sqlExpressionGenerator.fromConstant(value))));
+            return columnValues.stream();
+        };
+    }
+}
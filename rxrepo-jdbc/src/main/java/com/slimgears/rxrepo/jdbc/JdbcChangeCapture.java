@@ -0,0 +1,17 @@
+package com.slimgears.rxrepo.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Installs database specific triggers which append (seq, table, old row, new row) records to change log table.
+// Row images are stored as plain text column name -> typed value lists (see JdbcRowCodec).
+public interface JdbcChangeCapture {
+    String changeLogTable = "RXREPO_CHANGE_LOG";
+
+    void createChangeLog(Connection connection) throws SQLException;
+    void install(Connection connection, String tableName) throws SQLException;
+
+    static JdbcChangeCapture h2() {
+        return H2ChangeCapture.instance;
+    }
+}
@@ -0,0 +1,65 @@
+package com.slimgears.rxrepo.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// Change log sequence numbers are assigned on insert, while rows become visible on commit, so rows written by
+// concurrent transactions may show up out of order. Cursor keeps a watermark below which all rows were read,
+// and rows above it are re-read until each missing sequence number either shows up or its grace period expires
+// (sequence numbers taken by rolled back transactions never show up). Not thread safe: used by single poller
+class JdbcChangeLogCursor {
+    private final static Logger log = LoggerFactory.getLogger(JdbcChangeLogCursor.class);
+    private final long gracePeriodNanos;
+    private final NavigableSet<Long> received = new TreeSet<>();
+    private final Map<Long, Long> missingSince = new HashMap<>();
+    private long watermark;
+
+    private JdbcChangeLogCursor(long watermark, long gracePeriodMillis) {
+        this.watermark = watermark;
+        this.gracePeriodNanos = TimeUnit.MILLISECONDS.toNanos(gracePeriodMillis);
+    }
+
+    static JdbcChangeLogCursor create(long watermark, long gracePeriodMillis) {
+        return new JdbcChangeLogCursor(watermark, gracePeriodMillis);
+    }
+
+    long watermark() {
+        return watermark;
+    }
+
+    // Returns false for rows which were already received
+    boolean accept(long seq) {
+        return seq > watermark && received.add(seq);
+    }
+
+    void advance(long nowNanos) {
+        if (!received.isEmpty()) {
+            for (long seq = watermark + 1; seq < received.last(); ++seq) {
+                if (!received.contains(seq)) {
+                    missingSince.putIfAbsent(seq, nowNanos);
+                }
+            }
+        }
+        while (true) {
+            long next = watermark + 1;
+            if (received.remove(next)) {
+                watermark = next;
+                continue;
+            }
+            Long since = missingSince.get(next);
+            if (since != null && nowNanos - since >= gracePeriodNanos) {
+                log.debug("Change log row {} did not show up within grace period, skipping", next);
+                missingSince.remove(next);
+                watermark = next;
+                continue;
+            }
+            return;
+        }
+    }
+}
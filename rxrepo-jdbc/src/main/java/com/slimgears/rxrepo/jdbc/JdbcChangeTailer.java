@@ -0,0 +1,153 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.slimgears.rxrepo.query.Notification;
+import com.slimgears.rxrepo.sql.SqlStatement;
+import com.slimgears.rxrepo.util.PropertyResolver;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Single poller per database: reads change log by sequence and fans out changes to all live query subscribers.
+// Polling interval grows exponentially while there are no changes and is reset once changes arrive.
+// Rows committed out of sequence order are picked up within grace period (see JdbcChangeLogCursor)
+class JdbcChangeTailer {
+    private final static Logger log = LoggerFactory.getLogger(JdbcChangeTailer.class);
+    private final static long minPollIntervalMillis = 10;
+    private final static long maxPollIntervalMillis = 1000;
+    private final static long gapGracePeriodMillis = 30000;
+    private final static long retainedChanges = 10000;
+    private final JdbcConnectionPool connectionPool;
+    private final JdbcChangeCapture changeCapture;
+    private final Set<String> installedTables = ConcurrentHashMap.newKeySet();
+    private final Observable<Change> changes;
+
+    static class Change {
+        final String tableName;
+        final Notification<PropertyResolver> notification;
+
+        private Change(String tableName, Notification<PropertyResolver> notification) {
+            this.tableName = tableName;
+            this.notification = notification;
+        }
+    }
+
+    JdbcChangeTailer(JdbcConnectionPool connectionPool, JdbcChangeCapture changeCapture, Scheduler scheduler) {
+        this.connectionPool = connectionPool;
+        this.changeCapture = changeCapture;
+        this.changes = Observable.<Change>create(emitter -> startPolling(emitter, scheduler)).share();
+    }
+
+    Observable<Notification<PropertyResolver>> changesOf(String tableName) {
+        return Observable
+                .fromCallable(() -> {
+                    install(tableName);
+                    return tableName;
+                })
+                .map(JdbcChangeTailer::unqualified)
+                .flatMap(table -> changes
+                        .filter(change -> change.tableName.equalsIgnoreCase(table))
+                        .map(change -> change.notification));
+    }
+
+    // Triggers are normally installed by schema provider when table is created. Installing here covers tables
+    // created outside of repository
+    private void install(String tableName) throws SQLException {
+        if (installedTables.contains(tableName)) {
+            return;
+        }
+        connectionPool.withConnection(connection -> {
+            changeCapture.install(connection, tableName);
+            return null;
+        });
+        installedTables.add(tableName);
+    }
+
+    private void startPolling(ObservableEmitter<Change> emitter, Scheduler scheduler) throws SQLException {
+        Scheduler.Worker worker = scheduler.createWorker();
+        emitter.setDisposable(worker);
+        long initialSeq = connectionPool.withConnection(this::lastSequence);
+        JdbcChangeLogCursor cursor = JdbcChangeLogCursor.create(initialSeq, gapGracePeriodMillis);
+        worker.schedule(new Runnable() {
+            private long interval = minPollIntervalMillis;
+
+            @Override
+            public void run() {
+                try {
+                    boolean received = connectionPool.withConnection(connection -> poll(connection, cursor, emitter));
+                    interval = received ? minPollIntervalMillis : Math.min(interval * 2, maxPollIntervalMillis);
+                } catch (SQLException e) {
+                    log.warn("Error when polling change log", e);
+                    interval = maxPollIntervalMillis;
+                }
+                if (!emitter.isDisposed()) {
+                    worker.schedule(this, interval, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    private long lastSequence(Connection connection) throws SQLException {
+        changeCapture.createChangeLog(connection);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(seq) FROM " + JdbcChangeCapture.changeLogTable)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    // Rows older than retention window are pruned, once all subscribers have already received them.
+    // Rows which cannot be decoded are skipped, so that they do not stall all live queries
+    private boolean poll(Connection connection, JdbcChangeLogCursor cursor, ObservableEmitter<Change> emitter) throws SQLException {
+        long lastWatermark = cursor.watermark();
+        boolean received = false;
+        PreparedStatement statement = connectionPool.prepareStatement(connection, SqlStatement.create(
+                "SELECT seq, table_name, old_row, new_row FROM " + JdbcChangeCapture.changeLogTable + " WHERE seq > ? ORDER BY seq",
+                lastWatermark));
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next() && !emitter.isDisposed()) {
+                long seq = resultSet.getLong(1);
+                if (!cursor.accept(seq)) {
+                    continue;
+                }
+                received = true;
+                String tableName = resultSet.getString(2);
+                try {
+                    emitter.onNext(new Change(
+                            tableName,
+                            Notification.ofModified(toResolver(resultSet.getString(3)), toResolver(resultSet.getString(4)))));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping change log row {} of table {}: could not decode row", seq, tableName, e);
+                }
+            }
+        }
+        cursor.advance(System.nanoTime());
+        long watermark = cursor.watermark();
+        if (watermark - retainedChanges > 0 && watermark / retainedChanges > lastWatermark / retainedChanges) {
+            connectionPool
+                    .prepareStatement(connection, SqlStatement.create("DELETE FROM " + JdbcChangeCapture.changeLogTable + " WHERE seq <= ?", watermark - retainedChanges))
+                    .executeUpdate();
+        }
+        return received;
+    }
+
+    private static PropertyResolver toResolver(String row) {
+        return row != null
+                ? ResultSetPropertyResolver.fromColumns(JdbcRowCodec.decode(row))
+                : null;
+    }
+
+    private static String unqualified(String tableName) {
+        String name = tableName.replace("\"", "");
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
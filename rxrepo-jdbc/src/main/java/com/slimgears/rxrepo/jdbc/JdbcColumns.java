@@ -0,0 +1,62 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.google.common.reflect.TypeToken;
+import com.slimgears.rxrepo.util.PropertyMetas;
+import com.slimgears.util.autovalue.annotations.MetaClass;
+import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
+import com.slimgears.util.autovalue.annotations.MetaClasses;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+
+import java.util.function.BiConsumer;
+
+// Embedded objects are flattened into groups of dotted columns (e.g. "description.text"),
+// references are stored as key columns of the referenced entity (e.g. "inventory.id").
+// Result set resolver maps dotted column labels back to nested objects. Values without column type of their own
+// (e.g. collections) are written as JSON text.
+class JdbcColumns {
+    static void forEachColumn(PropertyMeta<?, ?> property, BiConsumer<String, TypeToken<?>> consumer) {
+        forEachColumn(property.name(), property, consumer);
+    }
+
+    static void forEachValue(PropertyMeta<?, ?> property, Object value, BiConsumer<String, Object> consumer) {
+        forEachValue(property.name(), property, value, consumer);
+    }
+
+    private static void forEachColumn(String path, PropertyMeta<?, ?> property, BiConsumer<String, TypeToken<?>> consumer) {
+        if (PropertyMetas.isReference(property)) {
+            PropertyMeta<?, ?> keyProperty = JdbcColumns.<Object, Object>metaClassWithKey(property.type()).keyProperty();
+            forEachColumn(path + "." + keyProperty.name(), keyProperty, consumer);
+        } else if (PropertyMetas.isEmbedded(property)) {
+            metaClass(property.type()).properties().forEach(p -> forEachColumn(path + "." + p.name(), p, consumer));
+        } else {
+            consumer.accept(path, property.type());
+        }
+    }
+
+    private static void forEachValue(String path, PropertyMeta<?, ?> property, Object value, BiConsumer<String, Object> consumer) {
+        if (value == null) {
+            return;
+        }
+        if (PropertyMetas.isReference(property)) {
+            PropertyMeta<Object, ?> keyProperty = JdbcColumns.<Object, Object>metaClassWithKey(property.type()).keyProperty();
+            forEachValue(path + "." + keyProperty.name(), keyProperty, keyProperty.getValue(value), consumer);
+        } else if (PropertyMetas.isEmbedded(property)) {
+            JdbcColumns.<Object>metaClass(property.type()).properties()
+                    .forEach(p -> forEachValue(path + "." + p.name(), p, p.getValue(value), consumer));
+        } else if (JdbcJsonCodec.isEncoded(property.type())) {
+            consumer.accept(path, JdbcJsonCodec.encode(property.type(), value));
+        } else {
+            consumer.accept(path, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> MetaClass<T> metaClass(TypeToken<?> type) {
+        return (MetaClass<T>)MetaClasses.forTokenUnchecked(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, T> MetaClassWithKey<K, T> metaClassWithKey(TypeToken<?> type) {
+        return (MetaClassWithKey<K, T>)MetaClasses.forTokenUnchecked(type);
+    }
+}
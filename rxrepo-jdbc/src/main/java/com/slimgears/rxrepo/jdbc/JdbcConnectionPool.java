@@ -0,0 +1,163 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.slimgears.rxrepo.sql.SqlStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class JdbcConnectionPool implements AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(JdbcConnectionPool.class);
+    private final static int defaultStatementCacheSize = 64;
+    private final Callable<Connection> connectionFactory;
+    private final int maxConnections;
+    private final int statementCacheSize;
+    private final Map<Connection, JdbcPreparedStatementCache> statementCaches = new ConcurrentHashMap<>();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final Semaphore permits;
+    private final Queue<Connection> idleConnections = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public interface ConnectionFunction<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private JdbcConnectionPool(Callable<Connection> connectionFactory, int maxConnections, int statementCacheSize) {
+        this.connectionFactory = connectionFactory;
+        this.maxConnections = maxConnections;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    public static JdbcConnectionPool create(Callable<Connection> connectionFactory, int maxConnections, int statementCacheSize) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("maxConnections should be positive: " + maxConnections);
+        }
+        if (statementCacheSize <= 0) {
+            throw new IllegalArgumentException("statementCacheSize should be positive: " + statementCacheSize);
+        }
+        return new JdbcConnectionPool(connectionFactory, maxConnections, statementCacheSize);
+    }
+
+    public static JdbcConnectionPool create(Callable<Connection> connectionFactory, int maxConnections) {
+        return create(connectionFactory, maxConnections, defaultStatementCacheSize);
+    }
+
+    public static JdbcConnectionPool create(String url, int maxConnections) {
+        return create(() -> DriverManager.getConnection(url), maxConnections);
+    }
+
+    public int maxConnections() {
+        return maxConnections;
+    }
+
+    public long statementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long statementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public double statementCacheHitRate() {
+        long hits = statementCacheHits.get();
+        long total = hits + statementCacheMisses.get();
+        return total > 0 ? (double)hits / total : 1.0;
+    }
+
+    // Returned statement is owned by the connection's statement cache and should not be closed by caller
+    public PreparedStatement prepareStatement(Connection connection, SqlStatement statement) throws SQLException {
+        return statementCaches
+                .computeIfAbsent(connection, c -> new JdbcPreparedStatementCache(c, statementCacheSize, statementCacheHits, statementCacheMisses))
+                .prepare(statement.statement())
+                .bind(statement.args());
+    }
+
+    public <T> T withConnection(ConnectionFunction<T> function) throws SQLException {
+        Connection connection = acquire();
+        try {
+            return function.apply(connection);
+        } finally {
+            release(connection);
+        }
+    }
+
+    public Connection acquire() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for connection", e);
+        }
+        try {
+            Connection connection;
+            while ((connection = idleConnections.poll()) != null) {
+                if (!connection.isClosed()) {
+                    return connection;
+                }
+                closeQuietly(connection);
+            }
+            return connectionFactory.call();
+        } catch (Exception e) {
+            permits.release();
+            throw (e instanceof SQLException) ? (SQLException)e : new SQLException(e);
+        }
+    }
+
+    public void release(Connection connection) {
+        try {
+            if (closed.get() || connection.isClosed()) {
+                closeQuietly(connection);
+            } else {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                idleConnections.add(connection);
+            }
+        } catch (SQLException e) {
+            log.debug("Discarding broken connection", e);
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        Connection connection;
+        while ((connection = idleConnections.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        JdbcPreparedStatementCache statementCache = statementCaches.remove(connection);
+        if (statementCache != null) {
+            statementCache.close();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error when closing connection", e);
+        }
+    }
+}
@@ -2,59 +2,97 @@ package com.slimgears.rxrepo.jdbc;
 
 import com.slimgears.rxrepo.sql.SqlStatement;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Spliterators;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class JdbcHelper {
-    private final static Map<Class, ParamSetter<?>> paramSettersByClass = new HashMap<>();
+    private final static Map<Class<?>, ParamSetter<?>> paramSettersByClass = new HashMap<>();
+    private final static Map<Class<?>, ParamSetter<Object>> resolvedParamSetters = new ConcurrentHashMap<>();
     private final static Map<Integer, ColumnGetter<?>> columnGettersByType = new HashMap<>();
-    private final static ParamSetter<?> defaultSetter = JdbcHelper::setSerializedParam;
+    private final static ColumnGetter<?> defaultGetter = ResultSet::getObject;
 
     interface ParamSetter<T> {
         void setParam(PreparedStatement preparedStatement, int index, T val) throws SQLException;
     }
 
+    // Getters return null for SQL NULL values
     interface ColumnGetter<T> {
         T getValue(ResultSet resultSet, int columnIndex) throws SQLException;
     }
+
     static {
-        registerType(Types.INTEGER, PreparedStatement::setInt, ResultSet::getInt, Integer.class, int.class);
-        registerType(Types.BIGINT, PreparedStatement::setLong, ResultSet::getLong, Long.class, long.class);
-        registerType(Types.DOUBLE, PreparedStatement::setDouble, ResultSet::getDouble, Double.class, double.class);
-        registerType(Types.FLOAT, PreparedStatement::setFloat, ResultSet::getFloat, Float.class, float.class);
-        registerType(Types.REAL, PreparedStatement::setFloat, ResultSet::getFloat);
-        registerType(Types.SMALLINT, PreparedStatement::setShort, ResultSet::getShort, Short.class, short.class);
-        registerType(Types.TINYINT, PreparedStatement::setByte, ResultSet::getByte, Byte.class, byte.class);
-        registerType(Types.NVARCHAR, PreparedStatement::setString, ResultSet::getString, String.class);
-        registerType(Types.VARCHAR, PreparedStatement::setString, ResultSet::getString);
-        registerType(Types.NCHAR, PreparedStatement::setString, ResultSet::getString);
-        registerType(Types.CHAR, PreparedStatement::setString, ResultSet::getString);
-        registerType(Types.BLOB, PreparedStatement::setBytes, ResultSet::getBytes, byte[].class);
-        registerType(Types.DATE, PreparedStatement::setDate, ResultSet::getDate, Date.class);
+        registerSetter(PreparedStatement::setInt, Integer.class, int.class);
+        registerSetter(PreparedStatement::setLong, Long.class, long.class);
+        registerSetter(PreparedStatement::setDouble, Double.class, double.class);
+        registerSetter(PreparedStatement::setFloat, Float.class, float.class);
+        registerSetter(PreparedStatement::setShort, Short.class, short.class);
+        registerSetter(PreparedStatement::setByte, Byte.class, byte.class);
+        registerSetter(PreparedStatement::setBoolean, Boolean.class, boolean.class);
+        registerSetter(PreparedStatement::setString, String.class);
+        registerSetter(PreparedStatement::setBytes, byte[].class);
+        registerSetter(PreparedStatement::setBigDecimal, BigDecimal.class);
+        registerSetter(PreparedStatement::setDate, Date.class);
+        registerSetter(PreparedStatement::setTimestamp, Timestamp.class);
+
+        registerGetter((rs, i) -> { int v = rs.getInt(i); return rs.wasNull() ? null : v; }, Types.INTEGER);
+        registerGetter((rs, i) -> { long v = rs.getLong(i); return rs.wasNull() ? null : v; }, Types.BIGINT);
+        registerGetter((rs, i) -> { double v = rs.getDouble(i); return rs.wasNull() ? null : v; }, Types.DOUBLE, Types.FLOAT);
+        registerGetter((rs, i) -> { float v = rs.getFloat(i); return rs.wasNull() ? null : v; }, Types.REAL);
+        registerGetter((rs, i) -> { short v = rs.getShort(i); return rs.wasNull() ? null : v; }, Types.SMALLINT);
+        registerGetter((rs, i) -> { byte v = rs.getByte(i); return rs.wasNull() ? null : v; }, Types.TINYINT);
+        registerGetter((rs, i) -> { boolean v = rs.getBoolean(i); return rs.wasNull() ? null : v; }, Types.BOOLEAN, Types.BIT);
+        registerGetter(ResultSet::getString, Types.VARCHAR, Types.NVARCHAR, Types.CHAR, Types.NCHAR, Types.LONGVARCHAR, Types.CLOB);
+        registerGetter(ResultSet::getBytes, Types.BLOB, Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY);
+        registerGetter(ResultSet::getBigDecimal, Types.DECIMAL, Types.NUMERIC);
+        registerGetter(ResultSet::getDate, Types.DATE);
+        registerGetter(ResultSet::getTimestamp, Types.TIMESTAMP);
     }
 
     @SafeVarargs
-    private static <T> void registerType(int type, ParamSetter<T> setter, ColumnGetter<T> getter, Class<T>... classes) {
-        columnGettersByType.put(type, getter);
+    private static <T> void registerSetter(ParamSetter<T> setter, Class<T>... classes) {
         Arrays.asList(classes).forEach(cls -> paramSettersByClass.put(cls, setter));
     }
 
-    private static void setSerializedParam(PreparedStatement preparedStatement, int index, Object val) {
-        throw new RuntimeException("Type is not supported: " + val.getClass());
+    private static void registerGetter(ColumnGetter<?> getter, int... types) {
+        Arrays.stream(types).forEach(type -> columnGettersByType.put(type, getter));
+    }
+
+    @SuppressWarnings("unchecked")
+    static ParamSetter<Object> paramSetter(Class<?> cls) {
+        return resolvedParamSetters.computeIfAbsent(cls, c -> {
+            ParamSetter<?> setter = paramSettersByClass.get(c);
+            if (setter != null) {
+                return (ParamSetter<Object>)setter;
+            } else if (c.isEnum()) {
+                return (ps, index, val) -> ps.setString(index, ((Enum<?>)val).name());
+            } else if (c == Class.class) {
+                return (ps, index, val) -> ps.setString(index, ((Class<?>)val).getName());
+            } else if (java.util.Date.class.isAssignableFrom(c)) {
+                return (ps, index, val) -> ps.setTimestamp(index, new Timestamp(((java.util.Date)val).getTime()));
+            }
+            return PreparedStatement::setObject;
+        });
+    }
+
+    static ColumnGetter<?> columnGetter(int columnType) {
+        ColumnGetter<?> getter = columnGettersByType.get(columnType);
+        return getter != null ? getter : defaultGetter;
     }
 
     public static PreparedStatement prepareStatement(Connection connection, SqlStatement statement) {
@@ -71,16 +109,29 @@ public class JdbcHelper {
         }
     }
 
-    @SuppressWarnings("unchecked")
+    public static void bindParams(PreparedStatement preparedStatement, Object[] params) throws SQLException {
+        setParams(preparedStatement, params);
+    }
+
     private static void setParams(PreparedStatement preparedStatement, Object[] params) throws SQLException {
         for (int i = 0; i < params.length; ++i) {
-            Object param = Optional.ofNullable(params[i]).orElse("NULL");
-            Class paramClass = param.getClass();
-            ParamSetter<Object> setter = Optional
-                    .ofNullable(paramSettersByClass.get(paramClass))
-                    .map(ParamSetter.class::cast)
-                    .orElse(defaultSetter);
-            setter.setParam(preparedStatement, i + 1, param);
+            Object param = params[i];
+            if (param == null) {
+                preparedStatement.setNull(i + 1, nullType(preparedStatement, i + 1));
+            } else {
+                paramSetter(param.getClass()).setParam(preparedStatement, i + 1, param);
+            }
+        }
+    }
+
+    // Some drivers (e.g. Oracle) reject untyped nulls, so parameter type is taken from statement metadata.
+    // Drivers which do not report parameter types accept nulls typed as VARCHAR for columns of any type
+    static int nullType(PreparedStatement preparedStatement, int index) {
+        try {
+            int type = preparedStatement.getParameterMetaData().getParameterType(index);
+            return type != Types.NULL && type != Types.OTHER ? type : Types.VARCHAR;
+        } catch (SQLException | RuntimeException e) {
+            return Types.VARCHAR;
         }
     }
 
@@ -115,10 +166,43 @@ public class JdbcHelper {
         }
     }
 
+    // Converts column value to requested property type: enums and classes are stored by name, narrower numeric types are widened by database
+    @SuppressWarnings("unchecked")
+    static Object toPropertyValue(Object value, Class type) {
+        if (value == null || type == null || type.isInstance(value)) {
+            return value;
+        }
+        if (type.isEnum() && value instanceof String) {
+            return Enum.valueOf(type, (String)value);
+        }
+        if (type == Class.class && value instanceof String) {
+            try {
+                return Class.forName((String)value);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Stored class " + value + " not found", e);
+            }
+        }
+        if (value instanceof Number) {
+            Number number = (Number)value;
+            if (type == Integer.class || type == int.class) {
+                return number.intValue();
+            } else if (type == Long.class || type == long.class) {
+                return number.longValue();
+            } else if (type == Short.class || type == short.class) {
+                return number.shortValue();
+            } else if (type == Byte.class || type == byte.class) {
+                return number.byteValue();
+            } else if (type == Double.class || type == double.class) {
+                return number.doubleValue();
+            } else if (type == Float.class || type == float.class) {
+                return number.floatValue();
+            }
+        }
+        return value;
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> T getColumnValue(ResultSet resultSet, int columnType, int columnIndex) throws SQLException {
-        return (T)Optional.ofNullable(columnGettersByType.get(columnType))
-                .orElseThrow(() -> new RuntimeException("Not supported type: " + columnType))
-                .getValue(resultSet, columnIndex);
+        return (T)columnGetter(columnType).getValue(resultSet, columnIndex);
     }
 }
@@ -0,0 +1,53 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+import com.slimgears.rxrepo.encoding.MetaContext;
+import com.slimgears.rxrepo.encoding.MetaContexts;
+import com.slimgears.rxrepo.encoding.adapter.JacksonAdapter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Set;
+
+// Values without column type of their own (collections, maps, etc.) are stored as JSON text, written by the same
+// meta codecs as used by other repositories, and decoded according to declared property type
+class JdbcJsonCodec {
+    private final static JsonFactory jsonFactory = new JsonFactory();
+    private final static MetaContext context = MetaContexts.createDefault();
+
+    static boolean isEncoded(TypeToken<?> type) {
+        return !JdbcSqlDialect.hasColumnType(type);
+    }
+
+    static String encode(TypeToken<?> type, Object value) {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            encode(context.ofWriter(JacksonAdapter.writer(generator)), type, value);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return writer.toString();
+    }
+
+    // Iterables are decoded as lists, so values of set properties are converted
+    @SuppressWarnings("unchecked")
+    static <T> T decode(TypeToken<T> type, String json) {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            T value = context.read(JacksonAdapter.reader(parser), type);
+            return type.isSubtypeOf(Set.class) && !(value instanceof Set)
+                    ? (T)ImmutableSet.copyOf((Iterable<?>)value)
+                    : value;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void encode(MetaContext.Writer writer, TypeToken<T> type, Object value) {
+        context.codecProvider().resolve(type).encode(writer, (T)value);
+    }
+}
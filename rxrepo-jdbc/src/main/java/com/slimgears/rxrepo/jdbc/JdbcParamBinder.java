@@ -0,0 +1,44 @@
+package com.slimgears.rxrepo.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+// Remembers resolved setter per parameter position, so that repeated executions of the same statement
+// bind parameters without setter lookups. Setter is re-resolved only when parameter class changes.
+// SQL type of null parameters is resolved once per position as well.
+class JdbcParamBinder {
+    private final static int unresolvedType = Integer.MIN_VALUE;
+    private Class<?>[] types = new Class<?>[0];
+    private JdbcHelper.ParamSetter<Object>[] setters = newSetters(0);
+    private int[] nullTypes = new int[0];
+
+    void bind(PreparedStatement preparedStatement, Object[] params) throws SQLException {
+        if (params.length != types.length) {
+            types = new Class<?>[params.length];
+            setters = newSetters(params.length);
+            nullTypes = new int[params.length];
+            Arrays.fill(nullTypes, unresolvedType);
+        }
+        for (int i = 0; i < params.length; ++i) {
+            Object param = params[i];
+            if (param == null) {
+                if (nullTypes[i] == unresolvedType) {
+                    nullTypes[i] = JdbcHelper.nullType(preparedStatement, i + 1);
+                }
+                preparedStatement.setNull(i + 1, nullTypes[i]);
+                continue;
+            }
+            if (param.getClass() != types[i]) {
+                types[i] = param.getClass();
+                setters[i] = JdbcHelper.paramSetter(types[i]);
+            }
+            setters[i].setParam(preparedStatement, i + 1, param);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JdbcHelper.ParamSetter<Object>[] newSetters(int count) {
+        return (JdbcHelper.ParamSetter<Object>[])new JdbcHelper.ParamSetter[count];
+    }
+}
@@ -0,0 +1,76 @@
+package com.slimgears.rxrepo.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Not thread safe: a connection (and its statement cache) is used by a single thread at a time
+class JdbcPreparedStatementCache {
+    private final static Logger log = LoggerFactory.getLogger(JdbcPreparedStatementCache.class);
+    private final Connection connection;
+    private final AtomicLong hitCounter;
+    private final AtomicLong missCounter;
+    private final Map<String, CachedStatement> statements;
+
+    static class CachedStatement {
+        private final PreparedStatement statement;
+        private final JdbcParamBinder binder = new JdbcParamBinder();
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        // Every parameter is bound (including nulls), so parameters of previous execution are not cleared
+        PreparedStatement bind(Object[] params) throws SQLException {
+            binder.bind(statement, params);
+            return statement;
+        }
+    }
+
+    JdbcPreparedStatementCache(Connection connection, int maxSize, AtomicLong hitCounter, AtomicLong missCounter) {
+        this.connection = connection;
+        this.hitCounter = hitCounter;
+        this.missCounter = missCounter;
+        this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                closeQuietly(eldest.getValue().statement);
+                return true;
+            }
+        };
+    }
+
+    CachedStatement prepare(String sql) throws SQLException {
+        CachedStatement statement = statements.get(sql);
+        if (statement != null && !statement.statement.isClosed()) {
+            hitCounter.incrementAndGet();
+            return statement;
+        }
+        missCounter.incrementAndGet();
+        statement = new CachedStatement(connection.prepareStatement(sql));
+        statements.put(sql, statement);
+        return statement;
+    }
+
+    void close() {
+        statements.values().forEach(statement -> closeQuietly(statement.statement));
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            log.debug("Error when closing statement", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.slimgears.rxrepo.expressions.PropertyExpression;
+import com.slimgears.rxrepo.query.provider.QueryInfo;
+import com.slimgears.rxrepo.sql.ReferenceResolver;
+import com.slimgears.rxrepo.sql.SqlStatement;
+import com.slimgears.rxrepo.sql.SqlStatementProvider;
+import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
+
+// References are stored as key columns, so referenced entity is resolved to its key
+class JdbcReferenceResolver implements ReferenceResolver {
+    private final SqlStatementProvider statementProvider;
+
+    JdbcReferenceResolver(SqlStatementProvider statementProvider) {
+        this.statementProvider = statementProvider;
+    }
+
+    @Override
+    public <K, S> SqlStatement toReferenceValue(MetaClassWithKey<K, S> metaClass, K key) {
+        return statementProvider.forQuery(QueryInfo
+                .<K, S, S>builder()
+                .metaClass(metaClass)
+                .property(PropertyExpression.ofObject(metaClass.keyProperty()))
+                .predicate(PropertyExpression.ofObject(metaClass.keyProperty()).eq(key))
+                .build());
+    }
+}
@@ -0,0 +1,125 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.slimgears.rxrepo.query.Repository;
+import com.slimgears.rxrepo.query.RepositoryConfig;
+import com.slimgears.rxrepo.query.RepositoryConfigModelBuilder;
+import com.slimgears.rxrepo.query.decorator.LiveQueryProviderDecorator;
+import com.slimgears.rxrepo.query.decorator.UpdateReferencesFirstQueryProviderDecorator;
+import com.slimgears.rxrepo.query.provider.QueryProvider;
+import com.slimgears.rxrepo.sql.DefaultSqlStatementProvider;
+import com.slimgears.rxrepo.sql.SqlServiceFactory;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+public class JdbcRepository {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder implements RepositoryConfigModelBuilder<Builder> {
+        private String url = "jdbc:h2:mem:repository;DB_CLOSE_DELAY=-1";
+        private int maxConnections = 8;
+        private int fetchSize = 256;
+        private int batchSize = 1000;
+        private JdbcConnectionPool connectionPool;
+        private JdbcSqlDialect dialect = JdbcSqlDialect.h2();
+        private JdbcChangeCapture changeCapture = JdbcChangeCapture.h2();
+        private QueryProvider.Decorator decorator = QueryProvider.Decorator.identity();
+        private RepositoryConfig.Builder configBuilder = RepositoryConfig
+                .builder()
+                .retryCount(10)
+                .retryInitialDurationMillis(10)
+                .debounceTimeoutMillis(100);
+
+        public final Builder url(@Nonnull String url) {
+            this.url = url;
+            return this;
+        }
+
+        public final Builder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        // Externally provided pool is not closed together with repository
+        public final Builder connectionPool(@Nonnull JdbcConnectionPool connectionPool) {
+            this.connectionPool = connectionPool;
+            return this;
+        }
+
+        public final Builder dialect(@Nonnull JdbcSqlDialect dialect) {
+            this.dialect = dialect;
+            return this;
+        }
+
+        // Live queries are not supported when change capture is null
+        public final Builder changeCapture(JdbcChangeCapture changeCapture) {
+            this.changeCapture = changeCapture;
+            return this;
+        }
+
+        // Number of rows fetched by driver per round trip. Query results are read out regardless of consumer,
+        // and are held in memory until consumed, so large results should be paged (e.g. with limit / skip)
+        public final Builder fetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+            return this;
+        }
+
+        public final Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public final Builder decorate(@Nonnull QueryProvider.Decorator... decorators) {
+            this.decorator = this.decorator.andThen(QueryProvider.Decorator.of(decorators));
+            return this;
+        }
+
+        public final Repository build() {
+            Objects.requireNonNull(dialect);
+            JdbcConnectionPool pool = connectionPool != null
+                    ? connectionPool
+                    : JdbcConnectionPool.create(Objects.requireNonNull(url), maxConnections);
+            JdbcSqlStatementExecutor statementExecutor = JdbcSqlStatementExecutor.create(pool, fetchSize, changeCapture);
+
+            return SqlServiceFactory.builder()
+                    .schemaProvider(svc -> new JdbcSchemaProvider(pool, dialect, changeCapture))
+                    .statementExecutor(svc -> statementExecutor)
+                    .expressionGenerator(svc -> new JdbcSqlExpressionGenerator(dialect))
+                    .assignmentGenerator(svc -> new JdbcAssignmentGenerator(svc.expressionGenerator(), dialect))
+                    .statementProvider(svc -> new DefaultSqlStatementProvider(svc.expressionGenerator(), svc.assignmentGenerator(), svc.schemaProvider(), dialect))
+                    .referenceResolver(svc -> new JdbcReferenceResolver(svc.statementProvider()))
+                    .batchSize(batchSize)
+                    .decorate(
+                            LiveQueryProviderDecorator.create(),
+                            UpdateReferencesFirstQueryProviderDecorator.create(),
+                            decorator)
+                    .buildRepository(configBuilder.build())
+                    .onClose(repo -> {
+                        statementExecutor.close();
+                        if (pool != connectionPool) {
+                            pool.close();
+                        }
+                    });
+        }
+
+        @Override
+        public Builder retryCount(int value) {
+            configBuilder.retryCount(value);
+            return this;
+        }
+
+        @Override
+        public Builder debounceTimeoutMillis(int value) {
+            configBuilder.debounceTimeoutMillis(value);
+            return this;
+        }
+
+        @Override
+        public Builder retryInitialDurationMillis(int value) {
+            configBuilder.retryInitialDurationMillis(value);
+            return this;
+        }
+    }
+}
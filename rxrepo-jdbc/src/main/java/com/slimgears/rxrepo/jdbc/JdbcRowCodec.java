@@ -0,0 +1,137 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Plain text encoding of change log row images. Each column is written as 'name<TAB>type<TAB>value' line,
+// where type is a single character tag of supported column value types (values of other types are stored
+// as strings). Tabs, line breaks and backslashes are escaped. Decoding only ever constructs values of the
+// tagged types, so that rows written by database triggers cannot instantiate arbitrary classes
+class JdbcRowCodec {
+    private final static char nullTag = '0';
+    private final static char stringTag = 'S';
+    private final static ImmutableMap<Class<?>, Character> tagsByClass = ImmutableMap.<Class<?>, Character>builder()
+            .put(String.class, stringTag)
+            .put(Integer.class, 'I')
+            .put(Long.class, 'L')
+            .put(Short.class, 'H')
+            .put(Byte.class, 'B')
+            .put(Double.class, 'D')
+            .put(Float.class, 'F')
+            .put(Boolean.class, 'Z')
+            .put(BigDecimal.class, 'N')
+            .put(Timestamp.class, 'T')
+            .put(Date.class, 'd')
+            .put(Time.class, 't')
+            .put(byte[].class, 'X')
+            .build();
+    private final static ImmutableMap<Character, Function<String, Object>> decodersByTag = ImmutableMap.<Character, Function<String, Object>>builder()
+            .put(stringTag, s -> s)
+            .put('I', Integer::valueOf)
+            .put('L', Long::valueOf)
+            .put('H', Short::valueOf)
+            .put('B', Byte::valueOf)
+            .put('D', Double::valueOf)
+            .put('F', Float::valueOf)
+            .put('Z', Boolean::valueOf)
+            .put('N', BigDecimal::new)
+            .put('T', Timestamp::valueOf)
+            .put('d', Date::valueOf)
+            .put('t', Time::valueOf)
+            .put('X', s -> Base64.getDecoder().decode(s))
+            .build();
+
+    static String encode(Map<String, Object> columns) {
+        StringBuilder builder = new StringBuilder();
+        columns.forEach((name, value) -> {
+            escape(builder, name);
+            builder.append('\t');
+            if (value == null) {
+                builder.append(nullTag).append('\t');
+            } else {
+                Character tag = tagsByClass.get(value.getClass());
+                builder.append(tag != null ? tag : stringTag).append('\t');
+                escape(builder, value instanceof byte[]
+                        ? Base64.getEncoder().encodeToString((byte[])value)
+                        : value.toString());
+            }
+            builder.append('\n');
+        });
+        return builder.toString();
+    }
+
+    static Map<String, Object> decode(String text) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        int pos = 0;
+        while (pos < text.length()) {
+            int end = text.indexOf('\n', pos);
+            if (end < 0) {
+                end = text.length();
+            }
+            decodeColumn(text.substring(pos, end), columns);
+            pos = end + 1;
+        }
+        return columns;
+    }
+
+    private static void decodeColumn(String line, Map<String, Object> columns) {
+        int nameEnd = line.indexOf('\t');
+        if (nameEnd < 0 || line.length() < nameEnd + 3 || line.charAt(nameEnd + 2) != '\t') {
+            throw new IllegalArgumentException("Malformed change log row: " + line);
+        }
+        String name = unescape(line.substring(0, nameEnd));
+        char tag = line.charAt(nameEnd + 1);
+        if (tag == nullTag) {
+            columns.put(name, null);
+            return;
+        }
+        Function<String, Object> decoder = decodersByTag.get(tag);
+        if (decoder == null) {
+            throw new IllegalArgumentException("Unknown value type '" + tag + "' of change log column " + name);
+        }
+        columns.put(name, decoder.apply(unescape(line.substring(nameEnd + 3))));
+    }
+
+    private static void escape(StringBuilder builder, String str) {
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '\\': builder.append("\\\\"); break;
+                case '\t': builder.append("\\t"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                default: builder.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String str) {
+        if (str.indexOf('\\') < 0) {
+            return str;
+        }
+        StringBuilder builder = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            if (c != '\\' || i + 1 == str.length()) {
+                builder.append(c);
+                continue;
+            }
+            char next = str.charAt(++i);
+            switch (next) {
+                case 't': builder.append('\t'); break;
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                default: builder.append(next);
+            }
+        }
+        return builder.toString();
+    }
+}
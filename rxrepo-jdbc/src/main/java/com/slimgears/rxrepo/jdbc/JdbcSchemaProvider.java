@@ -0,0 +1,141 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.slimgears.rxrepo.annotations.CompositeIndex;
+import com.slimgears.rxrepo.annotations.Indexable;
+import com.slimgears.rxrepo.sql.SchemaProvider;
+import com.slimgears.rxrepo.util.CompositeIndexes;
+import com.slimgears.rxrepo.util.PropertyMetas;
+import com.slimgears.util.autovalue.annotations.MetaClass;
+import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+import io.reactivex.Completable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.slimgears.rxrepo.sql.StatementUtils.concat;
+
+class JdbcSchemaProvider implements SchemaProvider {
+    private final static Logger log = LoggerFactory.getLogger(JdbcSchemaProvider.class);
+    private final JdbcConnectionPool connectionPool;
+    private final JdbcSqlDialect dialect;
+    private final JdbcChangeCapture changeCapture;
+
+    JdbcSchemaProvider(JdbcConnectionPool connectionPool, JdbcSqlDialect dialect) {
+        this(connectionPool, dialect, null);
+    }
+
+    // When change capture is provided, its triggers are installed together with the table, so that writes
+    // are captured from the start, and not only after the first live query subscription
+    JdbcSchemaProvider(JdbcConnectionPool connectionPool, JdbcSqlDialect dialect, JdbcChangeCapture changeCapture) {
+        this.connectionPool = connectionPool;
+        this.dialect = dialect;
+        this.changeCapture = changeCapture;
+    }
+
+    @Override
+    public String databaseName() {
+        try {
+            return connectionPool.withConnection(Connection::getCatalog);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public <T> Completable createOrUpdate(MetaClass<T> metaClass) {
+        return Completable.fromAction(() -> connectionPool.withConnection(connection -> {
+            createOrUpdateTable(connection, metaClass);
+            return null;
+        }));
+    }
+
+    @Override
+    public <T> String tableName(MetaClass<T> metaClass) {
+        return dialect.identifier(metaClass.simpleName());
+    }
+
+    private <T> void createOrUpdateTable(Connection connection, MetaClass<T> metaClass) throws SQLException {
+        String tableName = tableName(metaClass);
+        Map<String, String> columns = new LinkedHashMap<>();
+        metaClass.properties().forEach(p -> JdbcColumns.forEachColumn(p, (column, type) -> columns.put(column, dialect.columnType(type))));
+        Set<String> existingColumns = existingColumns(connection, metaClass.simpleName());
+
+        try (Statement statement = connection.createStatement()) {
+            if (existingColumns.isEmpty()) {
+                log.debug("Creating table: {}", tableName);
+                List<String> definitions = columns.entrySet()
+                        .stream()
+                        .map(column -> concat(dialect.identifier(column.getKey()), column.getValue()))
+                        .collect(Collectors.toCollection(ArrayList::new));
+                if (metaClass instanceof MetaClassWithKey) {
+                    definitions.add(concat(
+                            "constraint", dialect.identifier(metaClass.simpleName() + "_pk"),
+                            "primary key", toColumnList(Collections.singletonList(((MetaClassWithKey<?, T>)metaClass).keyProperty()))));
+                }
+                statement.execute(concat("create table if not exists", tableName, definitions.stream().collect(Collectors.joining(", ", "(", ")"))));
+            } else {
+                for (Map.Entry<String, String> column : columns.entrySet()) {
+                    if (!existingColumns.contains(column.getKey())) {
+                        log.debug("{}: Adding column {}", tableName, column.getKey());
+                        statement.execute(concat("alter table", tableName, "add column", dialect.identifier(column.getKey()), column.getValue()));
+                    }
+                }
+            }
+
+            for (PropertyMeta<T, ?> property : metaClass.properties()) {
+                if (!PropertyMetas.isKey(property) && (property.hasAnnotation(Indexable.class) || PropertyMetas.isReference(property))) {
+                    boolean unique = property.hasAnnotation(Indexable.class) && property.getAnnotation(Indexable.class).unique();
+                    log.trace("{}: Adding property {} index", tableName, property.name());
+                    statement.execute(concat(
+                            "create", unique ? "unique" : "", "index if not exists",
+                            dialect.identifier(metaClass.simpleName() + "." + property.name() + "Index"),
+                            "on", tableName, toColumnList(Collections.singletonList(property))));
+                }
+            }
+
+            for (CompositeIndex index : CompositeIndexes.of(metaClass)) {
+                List<PropertyMeta<T, ?>> properties = CompositeIndexes.propertiesOf(metaClass, index);
+                log.trace("{}: Adding composite index on {}", tableName, String.join(", ", index.value()));
+                statement.execute(concat(
+                        "create", index.unique() ? "unique" : "", "index if not exists",
+                        dialect.identifier(metaClass.simpleName() + "." + String.join("_", index.value()) + "Index"),
+                        "on", tableName, toColumnList(properties)));
+            }
+        }
+
+        if (changeCapture != null) {
+            log.trace("{}: Installing change capture", tableName);
+            changeCapture.install(connection, tableName);
+        }
+    }
+
+    // Properties spanning several columns (embedded keys, references) contribute all of their columns
+    private String toColumnList(List<? extends PropertyMeta<?, ?>> properties) {
+        List<String> columns = new ArrayList<>();
+        properties.forEach(property -> JdbcColumns.forEachColumn(property, (column, type) -> columns.add(dialect.identifier(column))));
+        return columns.stream().collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static Set<String> existingColumns(Connection connection, String tableName) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (ResultSet resultSet = connection.getMetaData().getColumns(null, null, tableName, null)) {
+            while (resultSet.next()) {
+                columns.add(resultSet.getString("COLUMN_NAME"));
+            }
+        }
+        return columns;
+    }
+}
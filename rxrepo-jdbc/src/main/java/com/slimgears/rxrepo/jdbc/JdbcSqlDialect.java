@@ -0,0 +1,108 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+import com.slimgears.rxrepo.sql.SqlDialect;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.slimgears.rxrepo.sql.StatementUtils.concat;
+
+// ANSI flavored statements: quoted identifiers, insert with column list, limit / offset pagination
+public abstract class JdbcSqlDialect implements SqlDialect {
+    private final static Map<Class<?>, String> columnTypes = ImmutableMap.<Class<?>, String>builder()
+            .put(Boolean.class, "BOOLEAN")
+            .put(boolean.class, "BOOLEAN")
+            .put(Byte.class, "SMALLINT")
+            .put(byte.class, "SMALLINT")
+            .put(Short.class, "SMALLINT")
+            .put(short.class, "SMALLINT")
+            .put(Integer.class, "INTEGER")
+            .put(int.class, "INTEGER")
+            .put(Long.class, "BIGINT")
+            .put(long.class, "BIGINT")
+            .put(Float.class, "REAL")
+            .put(float.class, "REAL")
+            .put(Double.class, "DOUBLE PRECISION")
+            .put(double.class, "DOUBLE PRECISION")
+            .put(BigDecimal.class, "NUMERIC")
+            .put(BigInteger.class, "NUMERIC")
+            .put(Date.class, "TIMESTAMP")
+            .build();
+
+    public static JdbcSqlDialect h2() {
+        return H2SqlDialect.instance;
+    }
+
+    public static JdbcSqlDialect postgreSql() {
+        return PostgreSqlDialect.instance;
+    }
+
+    protected abstract String stringType();
+    protected abstract String binaryType();
+
+    // Strings, enums and classes are stored by name. Values of other types without column type of their own
+    // (e.g. collections) are stored as JSON text (see JdbcJsonCodec)
+    public String columnType(TypeToken<?> type) {
+        Class<?> cls = type.getRawType();
+        if (cls == byte[].class) {
+            return binaryType();
+        }
+        return Optional.ofNullable(columnTypes.get(cls)).orElseGet(this::stringType);
+    }
+
+    static boolean hasColumnType(TypeToken<?> type) {
+        Class<?> cls = type.getRawType();
+        return cls == String.class || cls == Class.class || cls == byte[].class || cls.isEnum() || columnTypes.containsKey(cls);
+    }
+
+    @Override
+    public String selectAll() {
+        return "*";
+    }
+
+    @Override
+    public String identifier(String name) {
+        return "\"" + name + "\"";
+    }
+
+    @Override
+    public String limitClause(long limit) {
+        return "limit " + limit;
+    }
+
+    @Override
+    public String skipClause(long skip) {
+        return "offset " + skip;
+    }
+
+    @Override
+    public String insert(String tableName, List<Map.Entry<String, String>> columnValues) {
+        return concat("insert", "into", tableName, columnList(columnValues), "values", valueList(columnValues));
+    }
+
+    @Override
+    public String update(String tableName, List<Map.Entry<String, String>> columnValues, Supplier<String> keyCondition) {
+        return concat("update", tableName, "set", SqlDialect.toAssignments(columnValues), "where", keyCondition.get());
+    }
+
+    @Override
+    public String dropTable(String tableName) {
+        return concat("drop", "table", "if", "exists", tableName);
+    }
+
+    static String columnList(List<Map.Entry<String, String>> columnValues) {
+        return columnValues.stream().map(Map.Entry::getKey).collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    static String valueList(List<Map.Entry<String, String>> columnValues) {
+        return columnValues.stream().map(Map.Entry::getValue).collect(Collectors.joining(", ", "(", ")"));
+    }
+}
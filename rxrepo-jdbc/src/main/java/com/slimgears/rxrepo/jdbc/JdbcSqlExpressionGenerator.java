@@ -0,0 +1,42 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.slimgears.rxrepo.expressions.Expression;
+import com.slimgears.rxrepo.expressions.ObjectExpression;
+import com.slimgears.rxrepo.sql.DefaultSqlExpressionGenerator;
+import com.slimgears.rxrepo.util.ExpressionTextGenerator;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public class JdbcSqlExpressionGenerator extends DefaultSqlExpressionGenerator {
+    private final JdbcSqlDialect dialect;
+
+    public JdbcSqlExpressionGenerator(JdbcSqlDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    @Override
+    protected ExpressionTextGenerator.Builder createBuilder() {
+        return super.createBuilder()
+                .add(Expression.Type.Contains, "(%s like '%%' || %s || '%%')")
+                .add(Expression.Type.StartsWith, "(%s like %s || '%%')")
+                .add(Expression.Type.EndsWith, "(%s like '%%' || %s)")
+                .add(Expression.Type.Matches, "REGEXP_LIKE(%s, %s)")
+                .add(Expression.Type.Length, "LENGTH(%s)")
+                .add(Expression.Type.Concat, "(%s || %s)")
+                .add(Expression.Type.AsString, "CAST(%s AS VARCHAR)")
+                .add(Expression.Type.Average, "AVG(CAST(%s AS DOUBLE PRECISION))")
+                .add(Expression.Type.Count, (exp, parts) -> "COUNT(" + (parts.length == 0 || parts[0].isEmpty() ? "*" : parts[0]) + ")")
+                .add(Expression.OperationType.Property, this::reduceColumn);
+    }
+
+    // Nested properties are mapped to flattened dotted columns
+    private String reduceColumn(ObjectExpression<?, ?> expression, String... parts) {
+        return dialect.identifier(Arrays.stream(parts)
+                .filter(Objects::nonNull)
+                .filter(part -> !part.isEmpty())
+                .map(part -> part.replace("\"", ""))
+                .collect(Collectors.joining(".")));
+    }
+}
@@ -1,52 +1,355 @@
 package com.slimgears.rxrepo.jdbc;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.slimgears.rxrepo.query.Notification;
 import com.slimgears.rxrepo.sql.SqlStatement;
 import com.slimgears.rxrepo.sql.SqlStatementExecutor;
 import com.slimgears.rxrepo.util.PropertyResolver;
 import io.reactivex.Completable;
 import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-public class JdbcSqlStatementExecutor implements SqlStatementExecutor {
-    private final Connection connection;
+public class JdbcSqlStatementExecutor implements SqlStatementExecutor, AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(JdbcSqlStatementExecutor.class);
+    private final static int defaultFetchSize = 256;
+    private final static Pattern fromClausePattern = Pattern.compile("\\bfrom\\s+(\"[^\"]+\"|[\\w.]+)", Pattern.CASE_INSENSITIVE);
+    private final JdbcConnectionPool connectionPool;
+    private final Scheduler scheduler;
+    private final ExecutorService ownedExecutor;
+    private final ExecutorService transactionExecutor;
+    private final int fetchSize;
+    private final JdbcChangeTailer changeTailer;
+    private final Connection transactionConnection;
 
-    public JdbcSqlStatementExecutor(Connection connection) {
-        this.connection = connection;
+    private interface ResultSetSupplier {
+        ResultSet get(PreparedStatement preparedStatement) throws SQLException;
+    }
+
+    private interface ConnectionAction {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    private JdbcSqlStatementExecutor(JdbcConnectionPool connectionPool, Scheduler scheduler, ExecutorService ownedExecutor, int fetchSize, JdbcChangeCapture changeCapture) {
+        this(connectionPool,
+                scheduler,
+                ownedExecutor,
+                Executors.newCachedThreadPool(threadFactory("rxrepo-jdbc-tx-")),
+                fetchSize,
+                changeCapture != null ? new JdbcChangeTailer(connectionPool, changeCapture, scheduler) : null,
+                null);
+    }
+
+    private JdbcSqlStatementExecutor(JdbcConnectionPool connectionPool, Scheduler scheduler, ExecutorService ownedExecutor, ExecutorService transactionExecutor, int fetchSize, JdbcChangeTailer changeTailer, Connection transactionConnection) {
+        this.connectionPool = connectionPool;
+        this.scheduler = scheduler;
+        this.ownedExecutor = ownedExecutor;
+        this.transactionExecutor = transactionExecutor;
+        this.fetchSize = fetchSize;
+        this.changeTailer = changeTailer;
+        this.transactionConnection = transactionConnection;
+    }
+
+    public static JdbcSqlStatementExecutor create(JdbcConnectionPool connectionPool) {
+        return create(connectionPool, defaultFetchSize);
+    }
+
+    public static JdbcSqlStatementExecutor create(JdbcConnectionPool connectionPool, int fetchSize) {
+        return create(connectionPool, fetchSize, null);
+    }
+
+    // Blocking JDBC calls are performed on a dedicated pool of the same size as the connection pool.
+    // Connections held by open transactions are not available to this pool, so its threads may wait for them,
+    // while transactions are executed (and completed) on their own threads, and thus always make progress
+    public static JdbcSqlStatementExecutor create(JdbcConnectionPool connectionPool, int fetchSize, JdbcChangeCapture changeCapture) {
+        ExecutorService executor = Executors.newFixedThreadPool(connectionPool.maxConnections(), threadFactory("rxrepo-jdbc-"));
+        return new JdbcSqlStatementExecutor(connectionPool, Schedulers.from(executor), executor, fetchSize, changeCapture);
+    }
+
+    public static JdbcSqlStatementExecutor create(JdbcConnectionPool connectionPool, Scheduler scheduler, int fetchSize) {
+        return create(connectionPool, scheduler, fetchSize, null);
+    }
+
+    public static JdbcSqlStatementExecutor create(JdbcConnectionPool connectionPool, Scheduler scheduler, int fetchSize, JdbcChangeCapture changeCapture) {
+        return new JdbcSqlStatementExecutor(connectionPool, scheduler, null, fetchSize, changeCapture);
     }
 
     @Override
     public Observable<PropertyResolver> executeQuery(SqlStatement statement) {
-        return Observable.create(emitter -> {
-            PreparedStatement preparedStatement = JdbcHelper.prepareStatement(connection, statement);
-            JdbcHelper.toStream(preparedStatement.executeQuery());
+        return toObservable("Querying", statement, preparedStatement -> {
+            preparedStatement.setFetchSize(fetchSize);
+            return preparedStatement.executeQuery();
         });
     }
 
     @Override
     public Observable<PropertyResolver> executeCommandReturnEntries(SqlStatement statement) {
-        return notImplemented();
+        return toObservable("Executing command", statement, preparedStatement -> preparedStatement.execute()
+                ? preparedStatement.getResultSet()
+                : null);
     }
 
     @Override
     public Single<Integer> executeCommandReturnCount(SqlStatement statement) {
-        return notImplemented();
+        return Single.fromCallable(() -> {
+            log.trace("Executing command: {}", statement.statement());
+            return withConnection(connection -> connectionPool
+                    .prepareStatement(connection, statement)
+                    .executeUpdate());
+        }).subscribeOn(scheduler);
     }
 
     @Override
     public Completable executeCommand(SqlStatement statement) {
-        return notImplemented();
+        return executeCommandReturnCount(statement).ignoreElement();
     }
 
+    // Consecutive statements with the same SQL text are sent as JDBC batches within a single transaction.
+    // Only consecutive runs are batched, so statements are applied in the order given (e.g. two upserts of
+    // the same key, which may differ in SQL text). Within an active transaction batch is committed together
+    // with the transaction
+    @Override
+    public Completable executeBatch(List<SqlStatement> statements) {
+        return Completable.fromAction(() -> {
+            List<List<SqlStatement>> runs = toRuns(statements);
+            log.trace("Executing batch of {} statements ({} runs)", statements.size(), runs.size());
+            if (transactionConnection != null) {
+                executeBatch(transactionConnection, runs);
+                return;
+            }
+            connectionPool.withConnection(connection -> {
+                connection.setAutoCommit(false);
+                try {
+                    executeBatch(connection, runs);
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+                return null;
+            });
+        }).subscribeOn(scheduler);
+    }
+
+    private static List<List<SqlStatement>> toRuns(List<SqlStatement> statements) {
+        List<List<SqlStatement>> runs = new ArrayList<>();
+        List<SqlStatement> run = null;
+        for (SqlStatement statement : statements) {
+            if (run == null || !run.get(0).statement().equals(statement.statement())) {
+                run = new ArrayList<>();
+                runs.add(run);
+            }
+            run.add(statement);
+        }
+        return runs;
+    }
+
+    // Prepared statements are shared through connection's statement cache, so batch is always cleared
+    // (also on failure), and left over entries are never executed with the next batch of the same statement
+    private void executeBatch(Connection connection, List<List<SqlStatement>> runs) throws SQLException {
+        for (List<SqlStatement> run : runs) {
+            PreparedStatement preparedStatement = null;
+            try {
+                for (SqlStatement statement : run) {
+                    preparedStatement = connectionPool.prepareStatement(connection, statement);
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+            } finally {
+                if (preparedStatement != null) {
+                    clearBatchQuietly(preparedStatement);
+                }
+            }
+        }
+    }
+
+    private static void clearBatchQuietly(PreparedStatement preparedStatement) {
+        try {
+            preparedStatement.clearBatch();
+        } catch (SQLException e) {
+            log.debug("Could not clear batch", e);
+        }
+    }
+
+    // Transaction holds a pooled connection until commit or rollback. Statements of transaction are executed
+    // sequentially, since connection (and its cached statements) cannot be shared by concurrent operations.
+    // Connection is acquired, and transaction is executed, on transaction threads (and not on the bounded JDBC
+    // pool), so that statements waiting for connections never block transactions which hold them
+    @Override
+    public Single<Transaction> beginTransaction() {
+        if (transactionConnection != null) {
+            return SqlStatementExecutor.super.beginTransaction();
+        }
+        return Single.fromCallable(() -> {
+            Connection connection = connectionPool.acquire();
+            try {
+                connection.setAutoCommit(false);
+            } catch (SQLException e) {
+                connectionPool.release(connection);
+                throw e;
+            }
+            log.trace("Transaction started");
+            JdbcSqlStatementExecutor executor = new JdbcSqlStatementExecutor(
+                    connectionPool,
+                    Schedulers.from(MoreExecutors.newSequentialExecutor(transactionExecutor)),
+                    null,
+                    transactionExecutor,
+                    fetchSize,
+                    changeTailer,
+                    connection);
+            AtomicBoolean completed = new AtomicBoolean();
+            return Transaction.create(
+                    executor,
+                    executor.completeTransaction(completed, Connection::commit),
+                    executor.completeTransaction(completed, Connection::rollback));
+        }).subscribeOn(Schedulers.from(transactionExecutor));
+    }
+
+    private Completable completeTransaction(AtomicBoolean completed, ConnectionAction completion) {
+        return Completable.fromAction(() -> {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                completion.apply(transactionConnection);
+                log.trace("Transaction completed");
+            } finally {
+                connectionPool.release(transactionConnection);
+            }
+        }).subscribeOn(scheduler);
+    }
+
+    // Live query notifications are table level: filtering and mapping are applied on top of them by the query provider
     @Override
     public Observable<Notification<PropertyResolver>> executeLiveQuery(SqlStatement statement) {
-        return notImplemented();
+        if (changeTailer == null) {
+            return Observable.error(new UnsupportedOperationException("Live queries require change capture to be configured"));
+        }
+        Matcher matcher = fromClausePattern.matcher(statement.statement());
+        if (!matcher.find()) {
+            return Observable.error(new IllegalArgumentException("Could not resolve table of live query: " + statement.statement()));
+        }
+        log.trace("Live querying: {}", statement.statement());
+        return changeTailer.changesOf(matcher.group(1));
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            scheduler.shutdown();
+            ownedExecutor.shutdown();
+        }
+        if (transactionConnection == null) {
+            transactionExecutor.shutdown();
+        }
+    }
+
+    // Rows are read on JDBC scheduler and emitted on a separate one: connection and JDBC thread are released
+    // as soon as result set is read, regardless of downstream, so that queries issued while consuming rows
+    // (e.g. resolving references) never wait for a thread or connection held by the query being consumed.
+    // Results are not streamed: rows not yet consumed are queued in memory without bound, so that a slow
+    // consumer of a large result holds all of its rows (fetch size only sets driver round trip size)
+    private Observable<PropertyResolver> toObservable(String title, SqlStatement statement, ResultSetSupplier resultSetSupplier) {
+        return Observable.<PropertyResolver>create(emitter -> {
+            log.trace("{}: {}", title, statement.statement());
+            AtomicBoolean running = new AtomicBoolean(true);
+            Connection connection = acquire();
+            try {
+                PreparedStatement preparedStatement = connectionPool.prepareStatement(connection, statement);
+                emitter.setCancellable(() -> {
+                    synchronized (running) {
+                        if (running.get()) {
+                            cancelQuietly(preparedStatement);
+                        }
+                    }
+                });
+                ResultSet resultSet = resultSetSupplier.get(preparedStatement);
+                if (resultSet != null) {
+                    try {
+                        emitRows(resultSet, emitter);
+                    } finally {
+                        resultSet.close();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!emitter.isDisposed()) {
+                    throw e;
+                }
+                log.trace("Query was cancelled: {}", statement.statement(), e);
+            } finally {
+                synchronized (running) {
+                    running.set(false);
+                }
+                release(connection);
+            }
+            emitter.onComplete();
+        })
+                .subscribeOn(scheduler)
+                .observeOn(Schedulers.io());
+    }
+
+    private Connection acquire() throws SQLException {
+        return transactionConnection != null ? transactionConnection : connectionPool.acquire();
+    }
+
+    private void release(Connection connection) {
+        if (connection != transactionConnection) {
+            connectionPool.release(connection);
+        }
+    }
+
+    private <T> T withConnection(JdbcConnectionPool.ConnectionFunction<T> function) throws SQLException {
+        Connection connection = acquire();
+        try {
+            return function.apply(connection);
+        } finally {
+            release(connection);
+        }
+    }
+
+    private static void emitRows(ResultSet resultSet, ObservableEmitter<PropertyResolver> emitter) throws SQLException {
+        ResultSetPropertyResolver.RowReader rowReader = ResultSetPropertyResolver.rowReader(resultSet.getMetaData());
+        while (!emitter.isDisposed() && resultSet.next()) {
+            emitter.onNext(rowReader.read(resultSet));
+        }
+    }
+
+    private static void cancelQuietly(PreparedStatement preparedStatement) {
+        try {
+            if (!preparedStatement.isClosed()) {
+                preparedStatement.cancel();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not cancel statement", e);
+        }
     }
 
-    private static <T> T notImplemented() {
-        throw new UnsupportedOperationException("Not implemented yet");
+    private static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 }
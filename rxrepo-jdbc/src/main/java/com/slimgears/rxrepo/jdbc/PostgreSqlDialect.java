@@ -0,0 +1,56 @@
+package com.slimgears.rxrepo.jdbc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.slimgears.rxrepo.sql.StatementUtils.concat;
+
+class PostgreSqlDialect extends JdbcSqlDialect {
+    static final PostgreSqlDialect instance = new PostgreSqlDialect();
+
+    private PostgreSqlDialect() {
+    }
+
+    // Embedded keys are flattened into several columns (e.g. "key.id", "key.areaId"), all of which make up conflict target
+    @Override
+    public String upsert(String tableName, String keyColumn, List<Map.Entry<String, String>> columnValues, Supplier<String> keyCondition) {
+        String keyColumns = columnValues
+                .stream()
+                .map(Map.Entry::getKey)
+                .filter(column -> isKeyColumn(column, keyColumn))
+                .collect(Collectors.joining(", ", "(", ")"));
+        String updates = columnValues
+                .stream()
+                .map(Map.Entry::getKey)
+                .filter(column -> !isKeyColumn(column, keyColumn))
+                .map(column -> concat(column, "=", "excluded." + column))
+                .collect(Collectors.joining(", "));
+        return concat(
+                insert(tableName, columnValues),
+                "on", "conflict", keyColumns,
+                updates.isEmpty() ? "do nothing" : concat("do", "update", "set", updates));
+    }
+
+    @Override
+    public String dropDatabase(String databaseName) {
+        return concat("drop", "owned", "by", "current_user");
+    }
+
+    @Override
+    protected String stringType() {
+        return "TEXT";
+    }
+
+    @Override
+    protected String binaryType() {
+        return "BYTEA";
+    }
+
+    private static boolean isKeyColumn(String column, String keyColumn) {
+        String columnName = column.replace("\"", "");
+        String keyName = keyColumn.replace("\"", "");
+        return columnName.equals(keyName) || columnName.startsWith(keyName + ".");
+    }
+}
@@ -0,0 +1,146 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.slimgears.rxrepo.util.PropertyResolver;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Row values are kept in a flat array. Column layout (labels containing dots are mapped to nested resolvers)
+// and column getters are resolved once per result set and shared by all rows.
+class ResultSetPropertyResolver implements PropertyResolver {
+    private final Layout layout;
+    private final Object[] row;
+
+    private ResultSetPropertyResolver(Layout layout, Object[] row) {
+        this.layout = layout;
+        this.row = row;
+    }
+
+    interface RowReader {
+        PropertyResolver read(ResultSet resultSet) throws SQLException;
+    }
+
+    static RowReader rowReader(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        JdbcHelper.ColumnGetter<?>[] getters = new JdbcHelper.ColumnGetter<?>[columnCount];
+        List<String> labels = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; ++i) {
+            getters[i] = JdbcHelper.columnGetter(metaData.getColumnType(i + 1));
+            labels.add(metaData.getColumnLabel(i + 1));
+        }
+        Layout layout = Layout.of(labels);
+        return resultSet -> {
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; ++i) {
+                row[i] = getters[i].getValue(resultSet, i + 1);
+            }
+            return new ResultSetPropertyResolver(layout, row);
+        };
+    }
+
+    static PropertyResolver fromColumns(Map<String, Object> columns) {
+        return new ResultSetPropertyResolver(Layout.of(new ArrayList<>(columns.keySet())), columns.values().toArray());
+    }
+
+    @Override
+    public Iterable<String> propertyNames() {
+        List<String> names = new ArrayList<>(layout.slots.size());
+        layout.slots.forEach((name, slot) -> {
+            if (slot.hasValue(row)) {
+                names.add(name);
+            }
+        });
+        return names;
+    }
+
+    @Override
+    public Object getProperty(String name, Class type) {
+        Slot slot = layout.slots.get(name);
+        if (slot == null || !slot.hasValue(row)) {
+            return null;
+        }
+        return slot.nested != null
+                ? new ResultSetPropertyResolver(slot.nested, row)
+                : JdbcHelper.toPropertyValue(row[slot.column], type);
+    }
+
+    // JSON text columns are decoded according to declared property type, which is not known by name only
+    @Override
+    public <V> V getProperty(PropertyMeta<?, V> propertyMeta) {
+        Slot slot = layout.slots.get(propertyMeta.name());
+        if (slot != null && slot.nested == null && row[slot.column] instanceof String && JdbcJsonCodec.isEncoded(propertyMeta.type())) {
+            return JdbcJsonCodec.decode(propertyMeta.type(), (String)row[slot.column]);
+        }
+        return PropertyResolver.super.getProperty(propertyMeta);
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        propertyNames().forEach(name -> values.put(name, getProperty(name, Object.class)));
+        return values.toString();
+    }
+
+    private static class Slot {
+        private final int column;
+        private final Layout nested;
+
+        private Slot(int column, Layout nested) {
+            this.column = column;
+            this.nested = nested;
+        }
+
+        private boolean hasValue(Object[] row) {
+            if (nested == null) {
+                return row[column] != null;
+            }
+            for (Slot slot : nested.slots.values()) {
+                if (slot.hasValue(row)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Layout {
+        private final Map<String, Slot> slots;
+
+        private Layout(Map<String, Slot> slots) {
+            this.slots = slots;
+        }
+
+        private static Layout of(List<String> labels) {
+            Map<String, Object> tree = new LinkedHashMap<>();
+            for (int i = 0; i < labels.size(); ++i) {
+                put(tree, labels.get(i).split("\\."), 0, i);
+            }
+            return toLayout(tree);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static void put(Map<String, Object> tree, String[] path, int index, int column) {
+            if (index == path.length - 1) {
+                tree.put(path[index], column);
+                return;
+            }
+            Map<String, Object> nested = (Map<String, Object>)tree.computeIfAbsent(path[index], n -> new LinkedHashMap<>());
+            put(nested, path, index + 1, column);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Layout toLayout(Map<String, Object> tree) {
+            Map<String, Slot> slots = new LinkedHashMap<>();
+            tree.forEach((name, value) -> slots.put(name, value instanceof Map
+                    ? new Slot(-1, toLayout((Map<String, Object>)value))
+                    : new Slot((Integer)value, null)));
+            return new Layout(slots);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.slimgears.rxrepo.jdbc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class JdbcChangeLogCursorTest {
+    private static final long gracePeriodMillis = 1000;
+
+    @Test
+    public void testWatermarkStaysBelowMissingSequence() {
+        JdbcChangeLogCursor cursor = JdbcChangeLogCursor.create(10, gracePeriodMillis);
+        Assert.assertTrue(cursor.accept(11));
+        Assert.assertTrue(cursor.accept(13));
+        cursor.advance(0);
+        Assert.assertEquals(11, cursor.watermark());
+
+        // Row 13 is read again while waiting for 12, but is not accepted twice
+        Assert.assertFalse(cursor.accept(13));
+        Assert.assertTrue(cursor.accept(12));
+        cursor.advance(1);
+        Assert.assertEquals(13, cursor.watermark());
+        Assert.assertFalse(cursor.accept(12));
+    }
+
+    @Test
+    public void testMissingSequenceIsSkippedAfterGracePeriod() {
+        JdbcChangeLogCursor cursor = JdbcChangeLogCursor.create(0, gracePeriodMillis);
+        Assert.assertTrue(cursor.accept(1));
+        Assert.assertTrue(cursor.accept(3));
+        cursor.advance(0);
+        Assert.assertEquals(1, cursor.watermark());
+
+        cursor.advance(TimeUnit.MILLISECONDS.toNanos(gracePeriodMillis) - 1);
+        Assert.assertEquals(1, cursor.watermark());
+
+        cursor.advance(TimeUnit.MILLISECONDS.toNanos(gracePeriodMillis));
+        Assert.assertEquals(3, cursor.watermark());
+    }
+}
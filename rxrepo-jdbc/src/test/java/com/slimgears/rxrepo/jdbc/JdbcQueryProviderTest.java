@@ -0,0 +1,47 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import com.slimgears.rxrepo.query.Repository;
+import com.slimgears.rxrepo.query.decorator.SchedulingQueryProviderDecorator;
+import com.slimgears.rxrepo.test.AbstractRepositoryTest;
+import com.slimgears.rxrepo.test.Product;
+import com.slimgears.rxrepo.test.Products;
+import com.slimgears.rxrepo.test.UniqueId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs shared repository tests against in-memory H2 database
+public class JdbcQueryProviderTest extends AbstractRepositoryTest {
+    private final static AtomicInteger dbCounter = new AtomicInteger();
+    private Repository repository;
+
+    @Override
+    protected Repository createRepository() {
+        repository = JdbcRepository.builder()
+                .url("jdbc:h2:mem:repository" + dbCounter.incrementAndGet() + ";DB_CLOSE_DELAY=-1")
+                .debounceTimeoutMillis(1000)
+                .decorate(SchedulingQueryProviderDecorator.createDefault())
+                .build();
+        return repository;
+    }
+
+    @Test
+    public void testCollectionsAreStoredAndRead() {
+        Product product = Products.createOne()
+                .toBuilder()
+                .aliases(ImmutableList.of("First alias", "Second\talias"))
+                .relatedIds(ImmutableList.of(UniqueId.productId(100), UniqueId.vendorId(200)))
+                .build();
+        repository.entities(Product.metaClass).update(product).ignoreElement().blockingAwait();
+
+        Product stored = repository.entities(Product.metaClass)
+                .query()
+                .where(Product.$.key.eq(product.key()))
+                .retrieve()
+                .blockingFirst();
+        Assert.assertEquals(product.aliases(), stored.aliases());
+        Assert.assertEquals(product.relatedIds(), stored.relatedIds());
+    }
+}
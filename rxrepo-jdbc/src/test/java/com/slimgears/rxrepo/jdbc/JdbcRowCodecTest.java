@@ -0,0 +1,42 @@
+package com.slimgears.rxrepo.jdbc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class JdbcRowCodecTest {
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("ID", 1);
+        columns.put("COUNT", 10000000000L);
+        columns.put("NAME", "Tab\there\nnew line \\ backslash");
+        columns.put("DESCRIPTION", null);
+        columns.put("PRICE", 1.5);
+        columns.put("AMOUNT", new BigDecimal("12345.6789"));
+        columns.put("ACTIVE", true);
+        columns.put("CREATED", Timestamp.valueOf("2020-01-02 03:04:05.123456789"));
+        columns.put("DATA", new byte[] {0, 1, 2, (byte)255});
+        columns.put("WEIRD\tNAME", "");
+
+        Map<String, Object> decoded = JdbcRowCodec.decode(JdbcRowCodec.encode(columns));
+
+        Assert.assertEquals(columns.keySet(), decoded.keySet());
+        columns.forEach((name, value) -> {
+            if (value instanceof byte[]) {
+                Assert.assertArrayEquals((byte[])value, (byte[])decoded.get(name));
+            } else {
+                Assert.assertEquals(value, decoded.get(name));
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownValueTypeIsRejected() {
+        JdbcRowCodec.decode("ID\tQ\tjava.lang.Runtime\n");
+    }
+}
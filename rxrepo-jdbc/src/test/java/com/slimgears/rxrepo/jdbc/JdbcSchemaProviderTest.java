@@ -0,0 +1,148 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.slimgears.rxrepo.query.provider.QueryInfo;
+import com.slimgears.rxrepo.sql.DefaultSqlStatementProvider;
+import com.slimgears.rxrepo.sql.SqlExpressionGenerator;
+import com.slimgears.rxrepo.sql.SqlStatement;
+import com.slimgears.rxrepo.sql.SqlStatementProvider;
+import com.slimgears.rxrepo.test.Inventory;
+import com.slimgears.rxrepo.test.Product;
+import com.slimgears.rxrepo.test.UniqueId;
+import com.slimgears.rxrepo.util.PropertyResolver;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JdbcSchemaProviderTest {
+    private final static AtomicInteger dbCounter = new AtomicInteger();
+    private JdbcConnectionPool connectionPool;
+    private JdbcSqlStatementExecutor executor;
+    private JdbcSchemaProvider schemaProvider;
+    private SqlStatementProvider statementProvider;
+
+    @Before
+    public void setUp() {
+        connectionPool = JdbcConnectionPool.create("jdbc:h2:mem:schema" + dbCounter.incrementAndGet() + ";DB_CLOSE_DELAY=-1", 4);
+        executor = JdbcSqlStatementExecutor.create(connectionPool);
+        schemaProvider = new JdbcSchemaProvider(connectionPool, JdbcSqlDialect.h2());
+        SqlExpressionGenerator expressionGenerator = new JdbcSqlExpressionGenerator(JdbcSqlDialect.h2());
+        statementProvider = new DefaultSqlStatementProvider(
+                expressionGenerator,
+                new JdbcAssignmentGenerator(expressionGenerator, JdbcSqlDialect.h2()),
+                schemaProvider,
+                JdbcSqlDialect.h2());
+    }
+
+    @After
+    public void tearDown() {
+        executor.close();
+        connectionPool.close();
+    }
+
+    @Test
+    public void testTableIsCreatedWithKeyAndReferenceIndexes() {
+        schemaProvider.createOrUpdate(Product.metaClass).blockingAwait();
+        schemaProvider.createOrUpdate(Product.metaClass).blockingAwait();
+
+        List<String> indexedColumns = executor
+                .executeQuery(SqlStatement.of("SELECT INDEX_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'Product'"))
+                .map(pr -> pr.getProperty("COLUMN_NAME", String.class).toString())
+                .toList()
+                .blockingGet();
+        Assert.assertTrue(indexedColumns.containsAll(Arrays.asList("key.id", "key.areaId", "inventory.id.id", "vendor.id.id")));
+
+        String plan = executor
+                .executeQuery(SqlStatement.of("EXPLAIN SELECT * FROM \"Product\" WHERE \"inventory.id.id\" = 1"))
+                .map(pr -> pr.getProperty("PLAN", String.class).toString())
+                .blockingFirst();
+        Assert.assertTrue(plan, plan.contains("Product.inventoryIndex"));
+    }
+
+    @Test
+    public void testCompositeIndexIsCreated() {
+        schemaProvider.createOrUpdate(Product.metaClass).blockingAwait();
+
+        List<String> indexedColumns = executor
+                .executeQuery(SqlStatement.of("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'Product' AND INDEX_NAME = 'Product.vendor_priceIndex' ORDER BY ORDINAL_POSITION"))
+                .map(pr -> pr.getProperty("COLUMN_NAME", String.class).toString())
+                .toList()
+                .blockingGet();
+        // Reference contributes all columns of referenced key, followed by the range property
+        Assert.assertTrue(indexedColumns.toString(), indexedColumns.size() > 2);
+        Assert.assertEquals("vendor.id.id", indexedColumns.get(0));
+        Assert.assertEquals("price", indexedColumns.get(indexedColumns.size() - 1));
+    }
+
+    @Test
+    public void testUpsertAndPaginationStatements() {
+        Inventory inventory = Inventory.builder().id(UniqueId.inventoryId(1)).name("Inventory 1").build();
+        SqlStatement upsert = statementProvider.forInsertOrUpdate(Inventory.metaClass, PropertyResolver.fromObject(Inventory.metaClass, inventory), null);
+        Assert.assertEquals(
+                "merge into \"Inventory\" (\"id.id\", \"id.areaId\", \"id.type\", \"name\") values (?, ?, ?, ?)",
+                upsert.statement());
+
+        SqlStatement query = statementProvider.forQuery(QueryInfo.<UniqueId, Inventory, Inventory>builder()
+                .metaClass(Inventory.metaClass)
+                .predicate(Inventory.$.name.contains("Inventory"))
+                .limit(10L)
+                .skip(20L)
+                .build());
+        Assert.assertEquals(
+                "select * from \"Inventory\" where (\"name\" like '%' || ? || '%') limit 10 offset 20",
+                query.statement());
+
+        schemaProvider.createOrUpdate(Inventory.metaClass).blockingAwait();
+        executor.executeCommand(upsert).blockingAwait();
+        executor.executeCommand(upsert).blockingAwait();
+        Assert.assertEquals(Long.valueOf(1), executor
+                .executeQuery(SqlStatement.of("SELECT * FROM \"Inventory\""))
+                .count()
+                .blockingGet());
+    }
+
+    @Test
+    public void testLimitOffsetQueryReturnsPage() {
+        schemaProvider.createOrUpdate(Inventory.metaClass).blockingAwait();
+        for (int i = 0; i < 25; ++i) {
+            Inventory inventory = Inventory.builder()
+                    .id(UniqueId.inventoryId(i))
+                    .name(String.format("Inventory %02d", i))
+                    .build();
+            executor.executeCommand(statementProvider.forInsertOrUpdate(Inventory.metaClass, PropertyResolver.fromObject(Inventory.metaClass, inventory), null))
+                    .blockingAwait();
+        }
+
+        SqlStatement query = statementProvider.forQuery(QueryInfo.<UniqueId, Inventory, Inventory>builder()
+                .metaClass(Inventory.metaClass)
+                .predicate(Inventory.$.name.contains("Inventory"))
+                .sortAscending(Inventory.$.name)
+                .limit(3L)
+                .skip(20L)
+                .build());
+        List<String> names = executor.executeQuery(query)
+                .map(pr -> pr.getProperty("name", String.class).toString())
+                .toList()
+                .blockingGet();
+        Assert.assertEquals(Arrays.asList("Inventory 20", "Inventory 21", "Inventory 22"), names);
+    }
+
+    @Test
+    public void testChangeCaptureIsInstalledWithTable() {
+        JdbcSchemaProvider capturingSchemaProvider = new JdbcSchemaProvider(connectionPool, JdbcSqlDialect.h2(), JdbcChangeCapture.h2());
+        capturingSchemaProvider.createOrUpdate(Inventory.metaClass).blockingAwait();
+
+        Inventory inventory = Inventory.builder().id(UniqueId.inventoryId(1)).name("Inventory 1").build();
+        executor.executeCommand(statementProvider.forInsertOrUpdate(Inventory.metaClass, PropertyResolver.fromObject(Inventory.metaClass, inventory), null))
+                .blockingAwait();
+
+        Assert.assertEquals(Long.valueOf(1), executor
+                .executeQuery(SqlStatement.of("SELECT * FROM " + JdbcChangeCapture.changeLogTable))
+                .count()
+                .blockingGet());
+    }
+}
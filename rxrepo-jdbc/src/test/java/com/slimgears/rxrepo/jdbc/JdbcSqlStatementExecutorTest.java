@@ -0,0 +1,293 @@
+package com.slimgears.rxrepo.jdbc;
+
+import com.slimgears.rxrepo.query.Notification;
+import com.slimgears.rxrepo.sql.SqlStatement;
+import com.slimgears.rxrepo.sql.SqlStatementExecutor;
+import com.slimgears.rxrepo.util.PropertyResolver;
+import com.google.common.collect.Iterables;
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class JdbcSqlStatementExecutorTest {
+    private final static AtomicInteger dbCounter = new AtomicInteger();
+    private JdbcConnectionPool connectionPool;
+    private JdbcSqlStatementExecutor executor;
+
+    @Before
+    public void setUp() {
+        connectionPool = JdbcConnectionPool.create("jdbc:h2:mem:test" + dbCounter.incrementAndGet() + ";DB_CLOSE_DELAY=-1", 4);
+        executor = JdbcSqlStatementExecutor.create(connectionPool, 16);
+        executor.executeCommand(SqlStatement.of("CREATE TABLE Product (id INT PRIMARY KEY, name VARCHAR(64), price INT, inventoryId INT)"))
+                .blockingAwait();
+    }
+
+    @After
+    public void tearDown() {
+        executor.close();
+        connectionPool.close();
+    }
+
+    @Test
+    public void testInsertAndQuery() {
+        insertProducts(100);
+
+        List<PropertyResolver> rows = executor
+                .executeQuery(SqlStatement.create("SELECT id, name, price FROM Product WHERE price > ? ORDER BY id", 150))
+                .toList()
+                .blockingGet();
+
+        Assert.assertEquals(49, rows.size());
+        Assert.assertEquals(51, rows.get(0).getProperty("ID", Integer.class));
+        Assert.assertEquals("Product 51", rows.get(0).getProperty("NAME", String.class));
+    }
+
+    @Test
+    public void testNestedColumnsAndNulls() {
+        executor.executeCommand(SqlStatement.create("INSERT INTO Product (id, name, price, inventoryId) VALUES (?, ?, ?, ?)", 1, "Product 1", 10, 5))
+                .blockingAwait();
+        executor.executeCommand(SqlStatement.create("INSERT INTO Product (id, price) VALUES (?, ?)", 2, 20))
+                .blockingAwait();
+
+        List<PropertyResolver> rows = executor
+                .executeQuery(SqlStatement.of("SELECT id AS \"id\", name AS \"name\", inventoryId AS \"inventory.id\" FROM Product ORDER BY id"))
+                .toList()
+                .blockingGet();
+
+        PropertyResolver inventory = (PropertyResolver)rows.get(0).getProperty("inventory", Object.class);
+        Assert.assertEquals(5, inventory.getProperty("id", Integer.class));
+        Assert.assertNull(rows.get(1).getProperty("name", String.class));
+        Assert.assertNull(rows.get(1).getProperty("inventory", Object.class));
+    }
+
+    @Test
+    public void testCommandReturnsCount() {
+        insertProducts(10);
+        int count = executor
+                .executeCommandReturnCount(SqlStatement.create("UPDATE Product SET price = ? WHERE id < ?", 0, 5))
+                .blockingGet();
+        Assert.assertEquals(5, count);
+    }
+
+    @Test
+    public void testDisposeReleasesConnection() {
+        insertProducts(100);
+        for (int i = 0; i < connectionPool.maxConnections() * 2; ++i) {
+            List<PropertyResolver> rows = executor
+                    .executeQuery(SqlStatement.of("SELECT * FROM Product"))
+                    .take(3)
+                    .toList()
+                    .blockingGet();
+            Assert.assertEquals(3, rows.size());
+        }
+        Assert.assertEquals(Long.valueOf(100), executor
+                .executeQuery(SqlStatement.of("SELECT * FROM Product"))
+                .count()
+                .blockingGet());
+    }
+
+    @Test
+    public void testQueryNestedInStreamDoesNotDeadlock() {
+        insertProducts(100);
+        int queryCount = connectionPool.maxConnections() * 2;
+        Observable.range(0, queryCount)
+                .flatMap(i -> executor
+                        .executeQuery(SqlStatement.of("SELECT id FROM Product"))
+                        .map(row -> executor
+                                .executeQuery(SqlStatement.create("SELECT * FROM Product WHERE id = ?", row.getProperty("ID", Integer.class)))
+                                .blockingFirst()))
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertNoErrors()
+                .assertComplete()
+                .assertValueCount(100 * queryCount);
+    }
+
+    @Test
+    public void testPreparedStatementsAreReused() {
+        long misses = connectionPool.statementCacheMisses();
+        insertProducts(50);
+        for (int i = 0; i < 50; ++i) {
+            executor.executeQuery(SqlStatement.create("SELECT * FROM Product WHERE id = ?", i))
+                    .blockingFirst();
+        }
+        Assert.assertTrue(connectionPool.statementCacheMisses() - misses <= 2 * connectionPool.maxConnections());
+        Assert.assertTrue(connectionPool.statementCacheHits() >= 100 - 2 * connectionPool.maxConnections());
+    }
+
+    @Test
+    public void testBatchExecution() {
+        List<SqlStatement> statements = IntStream.range(0, 1000)
+                .mapToObj(i -> i % 2 == 0
+                        ? SqlStatement.create("INSERT INTO Product (id, name, price) VALUES (?, ?, ?)", i, "Product " + i, i)
+                        : SqlStatement.create("INSERT INTO Product (id, price) VALUES (?, ?)", i, i))
+                .collect(Collectors.toList());
+        long misses = connectionPool.statementCacheMisses();
+        executor.executeBatch(statements).blockingAwait();
+
+        Assert.assertEquals(2, connectionPool.statementCacheMisses() - misses);
+        Assert.assertEquals(Long.valueOf(1000), executor
+                .executeQuery(SqlStatement.of("SELECT * FROM Product"))
+                .count()
+                .blockingGet());
+    }
+
+    @Test
+    public void testInterleavedBatchStatementsAreAppliedInOrder() {
+        List<SqlStatement> statements = Arrays.asList(
+                SqlStatement.create("INSERT INTO Product (id, name, price) VALUES (?, ?, ?)", 1, "Product 1", 1),
+                SqlStatement.create("UPDATE Product SET price = ? WHERE id = ?", 2, 1),
+                SqlStatement.create("UPDATE Product SET name = ?, price = ? WHERE id = ?", "Product 1 - updated", 3, 1),
+                SqlStatement.create("UPDATE Product SET price = ? WHERE id = ?", 4, 1));
+        executor.executeBatch(statements).blockingAwait();
+
+        PropertyResolver row = executor
+                .executeQuery(SqlStatement.create("SELECT * FROM Product WHERE id = ?", 1))
+                .blockingFirst();
+        Assert.assertEquals("Product 1 - updated", row.getProperty("NAME", String.class));
+        Assert.assertEquals(4, row.getProperty("PRICE", Integer.class));
+    }
+
+    @Test
+    public void testFailedBatchIsRolledBack() {
+        List<SqlStatement> statements = Arrays.asList(
+                SqlStatement.create("INSERT INTO Product (id, price) VALUES (?, ?)", 1, 1),
+                SqlStatement.create("INSERT INTO Product (id, price) VALUES (?, ?)", 1, 2));
+        executor.executeBatch(statements).test().awaitDone(5, TimeUnit.SECONDS).assertError(SQLException.class);
+
+        Assert.assertEquals(Long.valueOf(0), executor
+                .executeQuery(SqlStatement.of("SELECT * FROM Product"))
+                .count()
+                .blockingGet());
+
+        // Cached statement of the failed batch is reused: entries of the failed batch should not be executed again
+        executor.executeBatch(Arrays.asList(
+                SqlStatement.create("INSERT INTO Product (id, price) VALUES (?, ?)", 2, 1),
+                SqlStatement.create("INSERT INTO Product (id, price) VALUES (?, ?)", 3, 2)))
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertComplete();
+
+        Assert.assertEquals(Long.valueOf(2), executor
+                .executeQuery(SqlStatement.of("SELECT * FROM Product"))
+                .count()
+                .blockingGet());
+    }
+
+    @Test
+    public void testTransactionsHoldingAllConnectionsDoNotBlockOtherQueries() {
+        insertProducts(10);
+        List<SqlStatementExecutor.Transaction> transactions = IntStream.range(0, connectionPool.maxConnections())
+                .mapToObj(i -> executor.beginTransaction().blockingGet())
+                .collect(Collectors.toList());
+
+        // All connections are held by transactions: these queries occupy every JDBC thread while waiting for connection
+        List<TestObserver<Long>> queries = IntStream.range(0, connectionPool.maxConnections() * 2)
+                .mapToObj(i -> executor.executeQuery(SqlStatement.of("SELECT * FROM Product")).count().test())
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < transactions.size(); ++i) {
+            SqlStatementExecutor.Transaction transaction = transactions.get(i);
+            transaction.executor()
+                    .executeCommand(SqlStatement.create("INSERT INTO Product (id, name, price) VALUES (?, ?, ?)", 100 + i, "Product " + (100 + i), i))
+                    .andThen(transaction.commit())
+                    .test()
+                    .awaitDone(5, TimeUnit.SECONDS)
+                    .assertComplete();
+        }
+
+        queries.forEach(query -> query.awaitDone(5, TimeUnit.SECONDS).assertComplete());
+        Assert.assertEquals(Long.valueOf(10 + transactions.size()), executor
+                .executeQuery(SqlStatement.of("SELECT * FROM Product"))
+                .count()
+                .blockingGet());
+    }
+
+    @Test
+    public void testNullParametersAreBoundAsSqlNull() {
+        executor.executeCommand(SqlStatement.create("INSERT INTO Product (id, name, price) VALUES (?, ?, ?)", 1, null, 10)).blockingAwait();
+        executor.executeCommand(SqlStatement.create("INSERT INTO Product (id, name, price) VALUES (?, ?, ?)", 2, "Product 2", null)).blockingAwait();
+
+        Assert.assertEquals(Long.valueOf(1), executor
+                .executeQuery(SqlStatement.of("SELECT * FROM Product WHERE name IS NULL"))
+                .count()
+                .blockingGet());
+        PropertyResolver row = executor
+                .executeQuery(SqlStatement.create("SELECT * FROM Product WHERE id = ?", 2))
+                .blockingFirst();
+        Assert.assertNull(row.getProperty("PRICE", Integer.class));
+        Assert.assertFalse(Iterables.contains(row.propertyNames(), "PRICE"));
+    }
+
+    @Test
+    public void testValuesAreConvertedToPropertyTypes() {
+        executor.executeCommand(SqlStatement.create("INSERT INTO Product (id, name, price) VALUES (?, ?, ?)", 1, TimeUnit.SECONDS, 10)).blockingAwait();
+
+        PropertyResolver row = executor
+                .executeQuery(SqlStatement.of("SELECT * FROM Product"))
+                .blockingFirst();
+        Assert.assertEquals(TimeUnit.SECONDS, row.getProperty("NAME", TimeUnit.class));
+        Assert.assertEquals(10L, row.getProperty("PRICE", long.class));
+    }
+
+    @Test
+    public void testLiveQueryReceivesChanges() {
+        try (JdbcSqlStatementExecutor liveExecutor = JdbcSqlStatementExecutor.create(connectionPool, 16, JdbcChangeCapture.h2())) {
+            TestObserver<Notification<PropertyResolver>> testObserver = liveExecutor
+                    .executeLiveQuery(SqlStatement.of("SELECT * FROM Product"))
+                    .test();
+
+            insertProducts(2);
+            executor.executeCommand(SqlStatement.create("UPDATE Product SET price = ? WHERE id = ?", 5, 1)).blockingAwait();
+            executor.executeCommand(SqlStatement.create("DELETE FROM Product WHERE id = ?", 0)).blockingAwait();
+
+            testObserver.awaitCount(4).assertValueCount(4);
+            List<Notification<PropertyResolver>> notifications = testObserver.values();
+            Assert.assertTrue(notifications.get(0).isCreate());
+            Assert.assertEquals(1, notifications.get(1).newValue().getProperty("ID", Integer.class));
+            Assert.assertEquals(101, notifications.get(2).oldValue().getProperty("PRICE", Integer.class));
+            Assert.assertEquals(5, notifications.get(2).newValue().getProperty("PRICE", Integer.class));
+            Assert.assertTrue(notifications.get(3).isDelete());
+            Assert.assertEquals(0, notifications.get(3).oldValue().getProperty("ID", Integer.class));
+            testObserver.dispose();
+        }
+    }
+
+    @Test
+    public void testUndecodableChangeLogRowIsSkipped() {
+        try (JdbcSqlStatementExecutor liveExecutor = JdbcSqlStatementExecutor.create(connectionPool, 16, JdbcChangeCapture.h2())) {
+            TestObserver<Notification<PropertyResolver>> testObserver = liveExecutor
+                    .executeLiveQuery(SqlStatement.of("SELECT * FROM Product"))
+                    .test();
+
+            insertProducts(1);
+            testObserver.awaitCount(1).assertValueCount(1);
+            executor.executeCommand(SqlStatement.create(
+                    "INSERT INTO " + JdbcChangeCapture.changeLogTable + " (table_name, new_row) VALUES (?, ?)",
+                    "PRODUCT", "ID\tQ\tjava.lang.Runtime\n")).blockingAwait();
+            executor.executeCommand(SqlStatement.create("UPDATE Product SET price = ? WHERE id = ?", 5, 0)).blockingAwait();
+
+            testObserver.awaitCount(2).assertValueCount(2);
+            Assert.assertEquals(5, testObserver.values().get(1).newValue().getProperty("PRICE", Integer.class));
+            testObserver.dispose();
+        }
+    }
+
+    private void insertProducts(int count) {
+        for (int i = 0; i < count; ++i) {
+            executor.executeCommand(SqlStatement.create("INSERT INTO Product (id, name, price) VALUES (?, ?, ?)", i, "Product " + i, 100 + i))
+                    .blockingAwait();
+        }
+    }
+}
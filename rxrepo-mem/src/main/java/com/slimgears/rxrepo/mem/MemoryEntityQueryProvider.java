@@ -1,10 +1,12 @@
 package com.slimgears.rxrepo.mem;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.TypeToken;
 import com.slimgears.rxrepo.encoding.MetaObjectResolver;
 import com.slimgears.rxrepo.expressions.*;
 import com.slimgears.rxrepo.query.Notification;
 import com.slimgears.rxrepo.query.provider.*;
+import com.slimgears.rxrepo.util.Accumulators;
 import com.slimgears.rxrepo.util.Expressions;
 import com.slimgears.rxrepo.util.PropertyExpressions;
 import com.slimgears.rxrepo.util.PropertyMetas;
@@ -34,26 +36,32 @@ public class MemoryEntityQueryProvider<K, S> implements EntityQueryProvider<K, S
     private final static Logger log = LoggerFactory.getLogger(MemoryEntityQueryProvider.class);
     private final MetaClassWithKey<K, S> metaClass;
     private final MetaObjectResolver objectResolver;
+    private final Object commitLock;
     private final Map<K, AtomicReference<S>> objects = new ConcurrentHashMap<>();
     private final Subject<Notification<S>> notificationSubject = PublishSubject.create();
     private final Lazy<List<PropertyMeta<S, ?>>> referenceProperties;
+    private final List<MemoryIndex<K, S>> indexes;
     private final Lazy<ExecutorService> notificationExecutor = Lazy.of(Executors::newSingleThreadExecutor);
     private final Lazy<Scheduler> notificationScheduler = Lazy.of(() -> Schedulers.from(notificationExecutor.get()));
 
     private MemoryEntityQueryProvider(MetaClassWithKey<K, S> metaClass,
-                                      MetaObjectResolver objectResolver) {
+                                      MetaObjectResolver objectResolver,
+                                      Object commitLock) {
         this.metaClass = metaClass;
         this.objectResolver = objectResolver;
+        this.commitLock = commitLock;
         this.referenceProperties = Lazy.of(() -> Streams
                 .fromIterable(metaClass.properties())
                 .filter(PropertyMetas::isReference)
                 .collect(ImmutableList.toImmutableList()));
+        this.indexes = MemoryIndex.forMetaClass(metaClass);
     }
 
     static <K, S> MemoryEntityQueryProvider<K, S> create(
             MetaClassWithKey<K, S> metaClass,
-            MetaObjectResolver objectResolver) {
-        return new MemoryEntityQueryProvider<>(metaClass, objectResolver);
+            MetaObjectResolver objectResolver,
+            Object commitLock) {
+        return new MemoryEntityQueryProvider<>(metaClass, objectResolver, commitLock);
     }
 
     @Override
@@ -68,7 +76,7 @@ public class MemoryEntityQueryProvider<K, S> implements EntityQueryProvider<K, S
             AtomicReference<S> oldValue = new AtomicReference<>(referenceResolver.get().get());
             return entityUpdater
                     .apply(Optional.ofNullable(referenceResolver.get().get()).map(Maybe::just).orElseGet(Maybe::empty))
-                    .flatMap(e -> referenceResolver.get().compareAndSet(oldValue.get(), e)
+                    .flatMap(e -> swapCommitted(key, referenceResolver.get(), oldValue.get(), e)
                             ? (e != null ? Maybe.just(e): Maybe.empty())
                             : Maybe.error(new ConcurrentModificationException("Concurrent modification of " + metaClass.simpleName() + " detected")))
                     .doOnSuccess(e -> {
@@ -83,10 +91,14 @@ public class MemoryEntityQueryProvider<K, S> implements EntityQueryProvider<K, S
 
     @Override
     public <T> Observable<T> query(QueryInfo<K, S, T> query) {
+        return query(query, Observable.defer(() -> Observable.fromIterable(candidates(query.predicate())))
+                .flatMapMaybe(val -> Maybe.fromCallable(val::get)));
+    }
+
+    private <T> Observable<T> query(QueryInfo<K, S, T> query, Observable<S> values) {
         Predicate<S> predicate = Expressions.compileRxPredicate(query.predicate());
         Function<S, T> mapper = Expressions.compileRx(query.mapping());
-        return Observable.fromIterable(objects.values())
-                .flatMapMaybe(val -> Maybe.fromCallable(val::get))
+        return values
                 .filter(predicate)
                 .compose(ob -> Optional.ofNullable(query.sorting()).map(SortingInfos::toComparator).map(ob::sorted).orElse(ob))
                 .compose(ob -> Optional.ofNullable(query.skip()).map(ob::skip).orElse(ob))
@@ -105,6 +117,64 @@ public class MemoryEntityQueryProvider<K, S> implements EntityQueryProvider<K, S
                         .orElse(ob));
     }
 
+    // First index which can serve the predicate narrows down candidates, predicate is still applied to each of them
+    private Iterable<AtomicReference<S>> candidates(Expression predicate) {
+        for (MemoryIndex<K, S> index : indexes) {
+            Optional<Set<K>> keys = index.lookup(predicate);
+            if (keys.isPresent()) {
+                return keys.get()
+                        .stream()
+                        .map(objects::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+            }
+        }
+        return objects.values();
+    }
+
+    // Writes outside of transaction take the commit lock as well, so that no write interleaves with transaction commit
+    private boolean swapCommitted(K key, AtomicReference<S> reference, S expected, S value) {
+        synchronized (commitLock) {
+            return swap(key, reference, expected, value);
+        }
+    }
+
+    // Indexes are updated under the lock of entity reference together with value swap, so that concurrent
+    // writes of the same key update indexes in the same order as they replace the value
+    private boolean swap(K key, AtomicReference<S> reference, S expected, S value) {
+        if (indexes.isEmpty()) {
+            return reference.compareAndSet(expected, value);
+        }
+        synchronized (reference) {
+            if (!reference.compareAndSet(expected, value)) {
+                return false;
+            }
+            updateIndexes(key, expected, value);
+            return true;
+        }
+    }
+
+    private S remove(K key) {
+        AtomicReference<S> reference = objects.get(key);
+        if (reference == null) {
+            return null;
+        }
+        synchronized (commitLock) {
+            synchronized (reference) {
+                if (!objects.remove(key, reference)) {
+                    return null;
+                }
+                S value = reference.get();
+                updateIndexes(key, value, null);
+                return value;
+            }
+        }
+    }
+
+    private void updateIndexes(K key, S oldValue, S newValue) {
+        indexes.forEach(index -> index.update(key, oldValue, newValue));
+    }
+
     private <T> java.util.function.Function<T, T> maskProperties(ImmutableList<PropertyExpression<T, ?, ?>> properties) {
         if (properties.isEmpty()) {
             return java.util.function.Function.identity();
@@ -168,15 +238,18 @@ public class MemoryEntityQueryProvider<K, S> implements EntityQueryProvider<K, S
 
     @Override
     public <T, R> Maybe<R> aggregate(QueryInfo<K, S, T> query, Aggregator<T, T, R> aggregator) {
-        return query(query).toList()
-                .toMaybe()
-                .filter(list -> !list.isEmpty())
-                .map(list -> {
-                    CollectionExpression<T, T, Collection<T>> collection = ConstantExpression.of(list);
-                    UnaryOperationExpression<T, Collection<T>, R> aggregated = aggregator.apply(collection);
-                    java.util.function.Function<T, R> aggFunc = Expressions.compile(aggregated);
-                    return aggFunc.apply(null);
-                });
+        return aggregate(query, aggregator, query(query));
+    }
+
+    private <T, R> Maybe<R> aggregate(QueryInfo<K, S, T> query, Aggregator<T, T, R> aggregator, Observable<T> items) {
+        TypeToken<T> elementType = HasMapping.objectType(query);
+        return items
+                .reduceWith(() -> Accumulators.forAggregator(aggregator, elementType), (accumulator, item) -> {
+                    accumulator.add(item);
+                    return accumulator;
+                })
+                .filter(accumulator -> accumulator.count() > 0)
+                .flatMap(accumulator -> Maybe.fromCallable(accumulator::result));
     }
 
     @Override
@@ -194,8 +267,7 @@ public class MemoryEntityQueryProvider<K, S> implements EntityQueryProvider<K, S
                 .compose(ob -> Optional.ofNullable(delete.limit()).map(ob::take).orElse(ob))
                 .map(metaClass::keyOf)
                 .filter(key -> Optional
-                        .ofNullable(objects.remove(key))
-                        .map(AtomicReference::get)
+                        .ofNullable(remove(key))
                         .map(e -> {
                             notificationSubject.onNext(Notification.ofDeleted(e));
                             return true;
@@ -208,7 +280,12 @@ public class MemoryEntityQueryProvider<K, S> implements EntityQueryProvider<K, S
 
     @Override
     public Completable drop() {
-        return Completable.fromAction(objects::clear);
+        return Completable.fromAction(() -> {
+            synchronized (commitLock) {
+                objects.clear();
+                indexes.forEach(MemoryIndex::clear);
+            }
+        });
     }
 
     @SuppressWarnings("unchecked")
@@ -244,6 +321,122 @@ public class MemoryEntityQueryProvider<K, S> implements EntityQueryProvider<K, S
         return Maybe.fromCallable(() -> objects.get(key)).map(AtomicReference::get);
     }
 
+    // Called by transaction commit, under commit lock
+    boolean compareAndSet(K key, S expected, S value) {
+        AtomicReference<S> reference = objects.computeIfAbsent(key, k -> new AtomicReference<>());
+        synchronized (reference) {
+            if (!swap(key, reference, expected, value)) {
+                return false;
+            }
+            if (value == null) {
+                objects.remove(key, reference);
+            }
+            return true;
+        }
+    }
+
+    void publish(S oldValue, S newValue) {
+        Notification<S> notification = Notification.ofModified(oldValue, newValue);
+        notificationSubject.onNext(notification);
+        log.debug("Published notification: {}", notification);
+    }
+
+    EntityQueryProvider<K, S> inTransaction(MemoryTransaction transaction) {
+        return new TransactionEntityQueryProvider(transaction);
+    }
+
+    S committedValue(K key) {
+        return Optional.ofNullable(objects.get(key)).map(AtomicReference::get).orElse(null);
+    }
+
+    // Writes are buffered by transaction. Queries and aggregations within transaction observe committed state
+    // with pending writes of the transaction applied on top of it (as OrientDB and JDBC transactions read their
+    // own writes). Live query notifications are published once transaction is committed
+    private class TransactionEntityQueryProvider implements EntityQueryProvider<K, S> {
+        private final MemoryTransaction transaction;
+
+        private TransactionEntityQueryProvider(MemoryTransaction transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public MetaClassWithKey<K, S> metaClass() {
+            return metaClass;
+        }
+
+        @Override
+        public Maybe<S> insertOrUpdate(K key, Function<Maybe<S>, Maybe<S>> entityUpdater) {
+            return Maybe.defer(() -> {
+                MemoryTransaction.PendingWrite<K, S> pendingWrite = transaction.pending(MemoryEntityQueryProvider.this, key);
+                S expected = pendingWrite != null ? pendingWrite.expected() : committedValue(key);
+                S current = pendingWrite != null ? pendingWrite.value() : expected;
+                return entityUpdater
+                        .apply(Optional.ofNullable(current).map(Maybe::just).orElseGet(Maybe::empty))
+                        .doOnSuccess(e -> transaction.write(MemoryEntityQueryProvider.this, key, expected, e));
+            });
+        }
+
+        @Override
+        public <T> Observable<T> query(QueryInfo<K, S, T> query) {
+            return Observable.defer(() -> transaction.pendingKeys(MemoryEntityQueryProvider.this).isEmpty()
+                    ? MemoryEntityQueryProvider.this.query(query)
+                    : MemoryEntityQueryProvider.this.query(query, values()));
+        }
+
+        @Override
+        public <T> Observable<Notification<T>> liveQuery(QueryInfo<K, S, T> query) {
+            return MemoryEntityQueryProvider.this.liveQuery(query);
+        }
+
+        @Override
+        public <T, R> Maybe<R> aggregate(QueryInfo<K, S, T> query, Aggregator<T, T, R> aggregator) {
+            return MemoryEntityQueryProvider.this.aggregate(query, aggregator, query(query));
+        }
+
+        @Override
+        public Single<Integer> update(UpdateInfo<K, S> update) {
+            return MemoryEntityQueryProvider.this.update(update);
+        }
+
+        @Override
+        public Single<Integer> delete(DeleteInfo<K, S> delete) {
+            Predicate<S> predicate = Expressions.compileRxPredicate(delete.predicate());
+            return values()
+                    .filter(predicate)
+                    .compose(ob -> Optional.ofNullable(delete.limit()).map(ob::take).orElse(ob))
+                    .doOnNext(this::deleteEntity)
+                    .count()
+                    .map(Long::intValue);
+        }
+
+        // Drop is buffered as deletion of all entities visible to transaction, and applied on commit
+        @Override
+        public Completable drop() {
+            return values()
+                    .doOnNext(this::deleteEntity)
+                    .ignoreElements();
+        }
+
+        private void deleteEntity(S entity) {
+            K key = metaClass.keyOf(entity);
+            MemoryTransaction.PendingWrite<K, S> pendingWrite = transaction.pending(MemoryEntityQueryProvider.this, key);
+            transaction.write(MemoryEntityQueryProvider.this, key, pendingWrite != null ? pendingWrite.expected() : entity, null);
+        }
+
+        private Observable<S> values() {
+            return Observable
+                    .defer(() -> {
+                        Set<K> keys = new LinkedHashSet<>(objects.keySet());
+                        keys.addAll(transaction.pendingKeys(MemoryEntityQueryProvider.this));
+                        return Observable.fromIterable(keys);
+                    })
+                    .flatMapMaybe(key -> Maybe.fromCallable(() -> {
+                        MemoryTransaction.PendingWrite<K, S> pendingWrite = transaction.pending(MemoryEntityQueryProvider.this, key);
+                        return pendingWrite != null ? pendingWrite.value() : committedValue(key);
+                    }));
+        }
+    }
+
     @Override
     public void close() {
         notificationExecutor.ifExists(ExecutorService::shutdown);
@@ -0,0 +1,126 @@
+package com.slimgears.rxrepo.mem;
+
+import com.google.common.collect.ImmutableList;
+import com.slimgears.rxrepo.expressions.ArgumentExpression;
+import com.slimgears.rxrepo.expressions.BinaryOperationExpression;
+import com.slimgears.rxrepo.expressions.ConstantExpression;
+import com.slimgears.rxrepo.expressions.Expression;
+import com.slimgears.rxrepo.expressions.PropertyExpression;
+import com.slimgears.rxrepo.util.CompositeIndexes;
+import com.slimgears.rxrepo.util.PropertyMetas;
+import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
+import com.slimgears.util.autovalue.annotations.MetaClasses;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Hash index over values of several properties, updated on every committed write. Predicate which constrains
+// all indexed properties by equality ('property == constant' conjunction) is served by single lookup.
+// References are indexed by key, so that both 'vendor == v' and 'vendor.id == id' can be looked up
+class MemoryIndex<K, S> {
+    private final List<PropertyMeta<S, ?>> properties;
+    private final Map<List<Object>, Set<K>> entries = new ConcurrentHashMap<>();
+
+    private MemoryIndex(List<PropertyMeta<S, ?>> properties) {
+        this.properties = properties;
+    }
+
+    static <K, S> List<MemoryIndex<K, S>> forMetaClass(MetaClassWithKey<K, S> metaClass) {
+        return CompositeIndexes.of(metaClass)
+                .stream()
+                .map(index -> new MemoryIndex<K, S>(CompositeIndexes.propertiesOf(metaClass, index)))
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    void update(K key, S oldValue, S newValue) {
+        List<Object> oldEntry = oldValue != null ? entryOf(oldValue) : null;
+        List<Object> newEntry = newValue != null ? entryOf(newValue) : null;
+        if (Objects.equals(oldEntry, newEntry)) {
+            return;
+        }
+        if (newEntry != null) {
+            entries.compute(newEntry, (entry, keys) -> {
+                Set<K> updatedKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                updatedKeys.add(key);
+                return updatedKeys;
+            });
+        }
+        if (oldEntry != null) {
+            entries.computeIfPresent(oldEntry, (entry, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    Optional<Set<K>> lookup(Expression predicate) {
+        if (predicate == null) {
+            return Optional.empty();
+        }
+        Map<PropertyMeta<?, ?>, Object> values = new HashMap<>();
+        collectEqualities(predicate, values);
+        if (!values.keySet().containsAll(properties)) {
+            return Optional.empty();
+        }
+        List<Object> entry = properties.stream().map(values::get).collect(Collectors.toList());
+        return Optional.of(entries.getOrDefault(entry, Collections.emptySet()));
+    }
+
+    private List<Object> entryOf(S entity) {
+        return properties.stream()
+                .map(p -> valueOf(p, entity))
+                .collect(Collectors.toList());
+    }
+
+    private static <S, V> Object valueOf(PropertyMeta<S, V> property, S entity) {
+        return indexValue(property, property.getValue(entity));
+    }
+
+    private static <V> Object indexValue(PropertyMeta<?, V> property, V value) {
+        if (value == null || !PropertyMetas.isReference(property)) {
+            return value;
+        }
+        MetaClassWithKey<?, V> metaClass = MetaClasses.forTokenWithKeyUnchecked(property.type());
+        return metaClass.keyOf(value);
+    }
+
+    private static void collectEqualities(Expression expression, Map<PropertyMeta<?, ?>, Object> values) {
+        if (expression.type() == Expression.Type.And) {
+            BinaryOperationExpression<?, ?, ?, ?> and = (BinaryOperationExpression<?, ?, ?, ?>)expression;
+            collectEqualities(and.left(), values);
+            collectEqualities(and.right(), values);
+        } else if (expression.type() == Expression.Type.Equals) {
+            BinaryOperationExpression<?, ?, ?, ?> equals = (BinaryOperationExpression<?, ?, ?, ?>)expression;
+            if (equals.left() instanceof PropertyExpression && equals.right() instanceof ConstantExpression) {
+                collectEquality((PropertyExpression<?, ?, ?>)equals.left(), ((ConstantExpression<?, ?>)equals.right()).value(), values);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectEquality(PropertyExpression<?, ?, ?> property, Object value, Map<PropertyMeta<?, ?>, Object> values) {
+        if (value == null) {
+            return;
+        }
+        if (property.target() instanceof ArgumentExpression) {
+            values.put(property.property(), indexValue((PropertyMeta<?, Object>)property.property(), value));
+        } else if (property.target() instanceof PropertyExpression && PropertyMetas.isKey(property.property())) {
+            PropertyExpression<?, ?, ?> reference = (PropertyExpression<?, ?, ?>)property.target();
+            if (reference.target() instanceof ArgumentExpression && PropertyMetas.isReference(reference.property())) {
+                values.put(reference.property(), value);
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
 import com.slimgears.util.stream.Safe;
 import io.reactivex.Completable;
 import io.reactivex.Maybe;
+import io.reactivex.Single;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -14,10 +15,11 @@ import java.util.List;
 
 public class MemoryQueryProvider extends AbstractEntityQueryProviderAdapter implements MetaObjectResolver {
     private final List<AutoCloseable> closeableList = Collections.synchronizedList(new ArrayList<>());
+    private final Object commitLock = new Object();
 
     @Override
     protected <K, S> EntityQueryProvider<K, S> createProvider(MetaClassWithKey<K, S> metaClass) {
-        MemoryEntityQueryProvider<K, S> provider = MemoryEntityQueryProvider.create(metaClass, this);
+        MemoryEntityQueryProvider<K, S> provider = MemoryEntityQueryProvider.create(metaClass, this, commitLock);
         closeableList.add(provider);
         return provider;
     }
@@ -32,10 +34,36 @@ public class MemoryQueryProvider extends AbstractEntityQueryProviderAdapter impl
         return ((MemoryEntityQueryProvider<K, S>)entities(metaClass)).find(key);
     }
 
+    @Override
+    public Single<Transaction> beginTransaction() {
+        return Single.fromCallable(() -> {
+            MemoryTransaction transaction = new MemoryTransaction(commitLock);
+            return Transaction.create(new TransactionQueryProvider(transaction), transaction.commit(), transaction.rollback());
+        });
+    }
+
     @Override
     public void close() {
         closeableList.stream()
                 .map(Safe::ofClosable)
                 .forEach(Safe.Closeable::close);
     }
+
+    private class TransactionQueryProvider extends AbstractEntityQueryProviderAdapter {
+        private final MemoryTransaction transaction;
+
+        private TransactionQueryProvider(MemoryTransaction transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        protected <K, S> EntityQueryProvider<K, S> createProvider(MetaClassWithKey<K, S> metaClass) {
+            return ((MemoryEntityQueryProvider<K, S>)MemoryQueryProvider.this.entities(metaClass)).inTransaction(transaction);
+        }
+
+        @Override
+        protected Completable dropAllProviders() {
+            return MemoryQueryProvider.this.dropAllProviders();
+        }
+    }
 }
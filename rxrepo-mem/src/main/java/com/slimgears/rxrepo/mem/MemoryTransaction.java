@@ -0,0 +1,114 @@
+package com.slimgears.rxrepo.mem;
+
+import com.google.common.collect.Maps;
+import io.reactivex.Completable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Writes are buffered together with entity values they were based on. On commit, under the lock taken by all
+// writes of the repository, every write is validated before any is applied: if any of the entities was modified
+// concurrently, nothing is applied and the whole transaction fails with ConcurrentModificationException
+class MemoryTransaction {
+    private final static Logger log = LoggerFactory.getLogger(MemoryTransaction.class);
+    private final Object commitLock;
+    private final Map<Map.Entry<Object, Object>, PendingWrite<?, ?>> writes = new LinkedHashMap<>();
+
+    MemoryTransaction(Object commitLock) {
+        this.commitLock = commitLock;
+    }
+
+    static class PendingWrite<K, S> {
+        private final MemoryEntityQueryProvider<K, S> provider;
+        private final K key;
+        private final S expected;
+        private S value;
+
+        private PendingWrite(MemoryEntityQueryProvider<K, S> provider, K key, S expected, S value) {
+            this.provider = provider;
+            this.key = key;
+            this.expected = expected;
+            this.value = value;
+        }
+
+        S expected() {
+            return expected;
+        }
+
+        S value() {
+            return value;
+        }
+
+        private boolean isValid() {
+            return provider.committedValue(key) == expected;
+        }
+
+        private void apply() {
+            if (!provider.compareAndSet(key, expected, value)) {
+                throw new IllegalStateException("Validated write of " + provider.metaClass().simpleName() + " could not be applied");
+            }
+        }
+
+        private void publish() {
+            if (!Objects.equals(expected, value)) {
+                provider.publish(expected, value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized <K, S> PendingWrite<K, S> pending(MemoryEntityQueryProvider<K, S> provider, K key) {
+        return (PendingWrite<K, S>)writes.get(Maps.immutableEntry(provider, key));
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized <K> List<K> pendingKeys(MemoryEntityQueryProvider<K, ?> provider) {
+        return writes.values()
+                .stream()
+                .filter(w -> w.provider == provider)
+                .map(w -> (K)w.key)
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized <K, S> void write(MemoryEntityQueryProvider<K, S> provider, K key, S expected, S value) {
+        PendingWrite<K, S> pendingWrite = (PendingWrite<K, S>)writes
+                .computeIfAbsent(Maps.<Object, Object>immutableEntry(provider, key), k -> new PendingWrite<>(provider, key, expected, value));
+        pendingWrite.value = value;
+    }
+
+    Completable commit() {
+        return Completable.fromAction(() -> {
+            List<PendingWrite<?, ?>> applied;
+            synchronized (this) {
+                synchronized (commitLock) {
+                    for (PendingWrite<?, ?> write : writes.values()) {
+                        if (!write.isValid()) {
+                            throw new ConcurrentModificationException("Concurrent modification of " + write.provider.metaClass().simpleName() + " detected");
+                        }
+                    }
+                    applied = new ArrayList<>(writes.values());
+                    applied.forEach(PendingWrite::apply);
+                }
+                writes.clear();
+            }
+            log.debug("Committed {} writes", applied.size());
+            applied.forEach(PendingWrite::publish);
+        });
+    }
+
+    Completable rollback() {
+        return Completable.fromAction(() -> {
+            synchronized (this) {
+                writes.clear();
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.slimgears.rxrepo.mem;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.slimgears.rxrepo.expressions.ObjectExpression;
+import com.slimgears.rxrepo.test.Product;
+import com.slimgears.rxrepo.test.ProductPrototype;
+import com.slimgears.rxrepo.test.Products;
+import com.slimgears.rxrepo.test.UniqueId;
+import com.slimgears.rxrepo.util.Expressions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionsBenchmark {
+    private final static Map<String, ObjectExpression<Product, Boolean>> predicates = ImmutableMap.<String, ObjectExpression<Product, Boolean>>builder()
+            .put("nameContains", Product.$.name.contains("21"))
+            .put("typeIn", Product.$.type.in(ProductPrototype.Type.ComputerSoftware, ProductPrototype.Type.ComputeHardware))
+            .put("keyIdBetween", Product.$.key.id.betweenExclusive(100, 150))
+            .put("priceGreaterThan", Product.$.price.greaterThan(100))
+            .put("inventoryIdEq", Product.$.inventory.id.eq(UniqueId.inventoryId(0)))
+            .put("combined", Product.$.name.startsWith("Product").and(Product.$.price.lessThan(110)).or(Product.$.vendor.id.eq(UniqueId.vendorId(1))))
+            .build();
+
+    @Param({"nameContains", "typeIn", "keyIdBetween", "priceGreaterThan", "inventoryIdEq", "combined"})
+    public String predicate;
+
+    private List<Product> products;
+    private Function<Product, Boolean> interpreted;
+    private Function<Product, Boolean> specialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        products = ImmutableList.copyOf(Products.createMany(1000));
+        interpreted = Expressions.compileInterpreted(predicates.get(predicate));
+        specialized = Expressions.compileSpecialized(predicates.get(predicate));
+    }
+
+    @Benchmark
+    public void interpreted(Blackhole blackhole) {
+        evaluate(interpreted, blackhole);
+    }
+
+    @Benchmark
+    public void specialized(Blackhole blackhole) {
+        evaluate(specialized, blackhole);
+    }
+
+    private void evaluate(Function<Product, Boolean> function, Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(function.apply(product));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExpressionsBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
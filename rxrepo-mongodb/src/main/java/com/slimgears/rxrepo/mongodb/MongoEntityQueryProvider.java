@@ -6,22 +6,30 @@ import com.mongodb.ErrorCategory;
 import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoWriteException;
 import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.changestream.ChangeStreamDocument;
 import com.mongodb.client.model.changestream.OperationType;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 import com.mongodb.reactivestreams.client.AggregatePublisher;
+import com.mongodb.reactivestreams.client.ClientSession;
 import com.mongodb.reactivestreams.client.MongoCollection;
 import com.mongodb.reactivestreams.client.MongoDatabase;
 import com.slimgears.rxrepo.encoding.MetaClassFieldMapper;
 import com.slimgears.rxrepo.encoding.MetaDocument;
 import com.slimgears.rxrepo.expressions.Aggregator;
+import com.slimgears.rxrepo.expressions.PropertyExpression;
 import com.slimgears.rxrepo.query.Notification;
+import com.slimgears.rxrepo.query.Notifications;
 import com.slimgears.rxrepo.query.provider.DeleteInfo;
 import com.slimgears.rxrepo.query.provider.EntityQueryProvider;
 import com.slimgears.rxrepo.query.provider.QueryInfo;
 import com.slimgears.rxrepo.query.provider.UpdateInfo;
+import com.slimgears.rxrepo.util.CompositeIndexes;
 import com.slimgears.rxrepo.util.Expressions;
+import com.slimgears.rxrepo.util.PropertyExpressions;
 import com.slimgears.rxrepo.util.PropertyMetas;
 import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
 import com.slimgears.util.reflect.TypeTokens;
@@ -42,8 +50,11 @@ import org.bson.codecs.configuration.CodecRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
@@ -59,9 +70,19 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
     private final Lazy<Codec<Document>> docCodec;
     private final CodecRegistry codecRegistry;
     private final MetaClassFieldMapper fieldMapper;
+    private final ClientSession session;
+    private final Completable indexes;
 
-    MongoEntityQueryProvider(MetaClassWithKey<K, S> metaClass, MongoDatabase database, MetaClassFieldMapper fieldMapper) {
+    MongoEntityQueryProvider(MetaClassWithKey<K, S> metaClass, MongoDatabase database, MetaClassFieldMapper fieldMapper, Completable indexes) {
+        this(metaClass, database, fieldMapper, indexes, null);
+    }
+
+    // When session is provided, all reads and writes (including update notifications) are performed within session's transaction.
+    // Change streams are not bound to session
+    MongoEntityQueryProvider(MetaClassWithKey<K, S> metaClass, MongoDatabase database, MetaClassFieldMapper fieldMapper, Completable indexes, ClientSession session) {
         this.metaClass = metaClass;
+        this.session = session;
+        this.indexes = indexes;
         this.codecRegistry = database.getCodecRegistry();
         this.codec = Lazy.of(() -> codecRegistry.get(metaClass.asClass()));
         this.docCodec = Lazy.of(() -> codecRegistry.get(Document.class));
@@ -70,13 +91,39 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
         this.notificationCollection = Lazy.of(() -> database.getCollection(metaClass.simpleName() + ".updates"));
     }
 
+    // Index creation is idempotent and is not bound to session. Failure to create non-unique index does not fail
+    // writes, while failure to create unique index does, as the constraint would not be enforced otherwise
+    static <K, S> Completable createIndexes(MetaClassWithKey<K, S> metaClass, MongoDatabase database, MetaClassFieldMapper fieldMapper) {
+        Map<Boolean, List<IndexModel>> indexModels = CompositeIndexes.of(metaClass)
+                .stream()
+                .map(index -> new IndexModel(
+                        Indexes.ascending(CompositeIndexes.propertiesOf(metaClass, index)
+                                .stream()
+                                .map(p -> PropertyMetas.isReference(p) ? fieldMapper.toReferenceFieldName(p) : fieldMapper.toFieldName(p))
+                                .collect(Collectors.toList())),
+                        new IndexOptions().unique(index.unique())))
+                .collect(Collectors.partitioningBy(model -> model.getOptions().isUnique()));
+        return createIndexes(metaClass, database, indexModels.get(true))
+                .andThen(createIndexes(metaClass, database, indexModels.get(false))
+                        .doOnError(e -> log.warn("{}: Could not create composite indexes", metaClass.simpleName(), e))
+                        .onErrorComplete());
+    }
+
+    private static Completable createIndexes(MetaClassWithKey<?, ?> metaClass, MongoDatabase database, List<IndexModel> indexModels) {
+        if (indexModels.isEmpty()) {
+            return Completable.complete();
+        }
+        return Completable
+                .fromPublisher(database.getCollection(metaClass.simpleName()).createIndexes(indexModels))
+                .doOnComplete(() -> log.debug("{}: Created {} composite indexes", metaClass.simpleName(), indexModels.size()));
+    }
+
     private Maybe<Document> findDocument(K key) {
-        return Observable.fromPublisher(objectCollection.get()
-                .aggregate(MongoPipeline.builder()
+        return Observable.fromPublisher(aggregate(objectCollection.get(), MongoPipeline.builder()
                         .lookupAndUnwindReferences(metaClass)
                         .match(MongoPipeline.filterForKey(key))
                         .limit(1L)
-                        .build()))
+                        .build(), Document.class))
                 .firstElement();
     }
 
@@ -87,8 +134,10 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
                 .map(e -> objectToDocument(e, 0))
                 .collect(Collectors.toList());
 
-        return Completable
-                .fromPublisher(objectCollection.get().insertMany(documents))
+        return indexes
+                .andThen(Completable.fromPublisher(session != null
+                        ? objectCollection.get().insertMany(session, documents)
+                        : objectCollection.get().insertMany(documents)))
                 .doOnSubscribe(d -> log.debug("Inserting {} documents", documents.size()))
                 .doOnComplete(() -> log.debug("Insert of {} documents complete", documents.size()))
                 .onErrorResumeNext(e -> Completable.error(convertError(e)));
@@ -106,7 +155,8 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
         AtomicReference<S> newObject = new AtomicReference<>();
         AtomicReference<Document> oldDoc = new AtomicReference<>();
         AtomicReference<Document> newDoc = new AtomicReference<>();
-        return findDocument(key)
+        return indexes
+                .andThen(findDocument(key))
                 .doOnSuccess(oldDoc::set)
                 .doOnSuccess(doc -> version.set(doc.getLong(fieldMapper.versionField())))
                 .map(this::objectFromDocument)
@@ -121,10 +171,9 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
                         .doOnSuccess(newDoc::set)
                         .doOnSuccess(doc -> log.trace("Updating object: {}", doc))
                         .flatMap(doc -> Single
-                            .fromPublisher(objectCollection.get()
-                                    .replaceOne(
-                                            MongoPipeline.filterForKeyAndVersion(key, version.get()),
-                                            doc))
+                            .fromPublisher(session != null
+                                    ? objectCollection.get().replaceOne(session, MongoPipeline.filterForKeyAndVersion(key, version.get()), doc)
+                                    : objectCollection.get().replaceOne(MongoPipeline.filterForKeyAndVersion(key, version.get()), doc))
                             .doOnSuccess(res -> log.trace("Update result: {}", res))
                             .map(UpdateResult::getMatchedCount)
                             .flatMapMaybe(c -> c == 1
@@ -140,8 +189,9 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
                         .doOnSuccess(newObject::set)
                         .doOnSuccess(doc -> log.trace("Creating new object: {}", doc))
                         .map(obj -> objectToDocument(obj, version.get()))
-                        .flatMap(doc -> Single.fromPublisher(objectCollection.get()
-                                .insertOne(doc))
+                        .flatMap(doc -> Single.fromPublisher(session != null
+                                ? objectCollection.get().insertOne(session, doc)
+                                : objectCollection.get().insertOne(doc))
                                 .doOnSuccess(res -> log.trace("Insert result: {}", res))
                                 .toMaybe()
                                 .map(res -> newObject.get())
@@ -159,8 +209,10 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
 
     @Override
     public <T, R> Maybe<R> aggregate(QueryInfo<K, S, T> query, Aggregator<T, T, R> aggregator) {
-        AggregatePublisher<MetaDocument> publisher = objectCollection.get()
-                .aggregate(MongoPipeline.aggregationPipeline(query, aggregator), MetaDocument.class);
+        AggregatePublisher<MetaDocument> publisher = aggregate(
+                objectCollection.get(),
+                MongoPipeline.aggregationPipeline(query, aggregator),
+                MetaDocument.class);
 
         TypeToken<R> resultType = aggregator.objectType(query.objectType());
         return Observable.fromPublisher(publisher)
@@ -171,17 +223,28 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
 
     private Observable<Document> queryDocuments(QueryInfo<K, S, ?> query) {
         return Observable
-                .fromPublisher(objectCollection.get()
-                .aggregate(MongoPipeline.aggregationPipeline(query)));
+                .fromPublisher(aggregate(objectCollection.get(), MongoPipeline.aggregationPipeline(query), Document.class));
+    }
+
+    private <T> AggregatePublisher<T> aggregate(MongoCollection<Document> collection, List<Document> pipeline, Class<T> resultClass) {
+        return session != null
+                ? collection.aggregate(session, pipeline, resultClass)
+                : collection.aggregate(pipeline, resultClass);
     }
 
     @Override
     public <T> Observable<Notification<T>> liveQuery(QueryInfo<K, S, T> query) {
         java.util.function.Function<S, T> mapper = Expressions.compile(query.mapping());
 
+        List<List<String>> watchedFields = Notifications.watchedProperties(query)
+                .stream()
+                .map(this::toFieldPath)
+                .collect(Collectors.toList());
+
         Observable<Notification<S>> modifications = Observable.fromPublisher(notificationCollection.get().watch())
                 .map(ChangeStreamDocument::getFullDocument)
                 .doOnNext(d -> log.trace("New update: {}", d.toJson()))
+                .filter(d -> fieldsChanged(d, watchedFields))
                 .map(this::notificationFromDocument)
                 .filter(n -> !Objects.equals(n.oldValue(), n.newValue()));
 
@@ -196,9 +259,49 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
                 .map(n -> n.map(mapper));
     }
 
+    private List<String> toFieldPath(PropertyExpression<S, ?, ?> property) {
+        List<PropertyExpression<S, ?, ?>> properties = PropertyExpressions.parentProperties(property).collect(Collectors.toList());
+        Collections.reverse(properties);
+        properties.add(property);
+
+        List<String> path = new ArrayList<>();
+        for (PropertyExpression<S, ?, ?> p : properties) {
+            if (PropertyMetas.isReference(p.property())) {
+                path.add(fieldMapper.toReferenceFieldName(p.property()));
+                break;
+            }
+            path.add(fieldMapper.toFieldName(p.property()));
+        }
+        return path;
+    }
+
+    private static boolean fieldsChanged(Document notificationDocument, List<List<String>> watchedFields) {
+        Object oldValue = notificationDocument.get("oldValue");
+        Object newValue = notificationDocument.get("newValue");
+        if (watchedFields.isEmpty() || !(oldValue instanceof Document) || !(newValue instanceof Document)) {
+            return true;
+        }
+
+        return watchedFields
+                .stream()
+                .anyMatch(path -> !Objects.equals(
+                        fieldValue((Document)oldValue, path),
+                        fieldValue((Document)newValue, path)));
+    }
+
+    private static Object fieldValue(Document document, List<String> path) {
+        Object value = document;
+        for (String field : path) {
+            if (!(value instanceof Document)) {
+                return value;
+            }
+            value = ((Document)value).get(field);
+        }
+        return value;
+    }
+
     private Completable publish(Document oldDoc, Document newDoc) {
-        return Completable.fromPublisher(notificationCollection.get()
-                .insertOne(createNotification(oldDoc, newDoc)));
+        return publishNotification(createNotification(oldDoc, newDoc));
     }
 
     private Document createNotification(Document oldDoc, Document newDoc) {
@@ -215,8 +318,9 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
 
     private Completable publishNotification(Document notificationDocument) {
         return Completable
-                .fromPublisher(notificationCollection.get()
-                .insertOne(notificationDocument));
+                .fromPublisher(session != null
+                        ? notificationCollection.get().insertOne(session, notificationDocument)
+                        : notificationCollection.get().insertOne(notificationDocument));
     }
 
     @Override
@@ -242,8 +346,9 @@ class MongoEntityQueryProvider<K, S> implements EntityQueryProvider<K, S> {
                 .build())
                 .map(doc -> createNotification(doc, doc))
                 .flatMapCompletable(this::publishNotification)
-                .andThen(Observable.fromPublisher(objectCollection.get()
-                        .deleteMany(MongoPipeline.expr(deleteInfo.predicate())))
+                .andThen(Observable.fromPublisher(session != null
+                        ? objectCollection.get().deleteMany(session, MongoPipeline.expr(deleteInfo.predicate()))
+                        : objectCollection.get().deleteMany(MongoPipeline.expr(deleteInfo.predicate())))
                         .map(DeleteResult::getDeletedCount)
                         .firstElement()
                         .map(Long::intValue)
@@ -2,6 +2,7 @@ package com.slimgears.rxrepo.mongodb;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.ClientSession;
 import com.mongodb.reactivestreams.client.MongoClient;
 import com.mongodb.reactivestreams.client.MongoClients;
 import com.mongodb.reactivestreams.client.MongoDatabase;
@@ -17,13 +18,17 @@ import com.slimgears.rxrepo.query.provider.QueryInfo;
 import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
 import io.reactivex.Completable;
 import io.reactivex.Maybe;
+import io.reactivex.Single;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MongoQueryProvider extends AbstractEntityQueryProviderAdapter {
     private final MongoClient client;
     private final MongoDatabase database;
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    private final Map<Class<?>, Completable> indexes = new ConcurrentHashMap<>();
 
     MongoQueryProvider(String connectionString, String dbName, int maxConnections) {
         MetaObjectResolver objectResolver = new ObjectResolver();
@@ -38,6 +43,19 @@ public class MongoQueryProvider extends AbstractEntityQueryProviderAdapter {
         this.database = client.getDatabase(dbName);
     }
 
+    // Multi-document transactions require replica set deployment
+    @Override
+    public Single<Transaction> beginTransaction() {
+        return Single.fromPublisher(client.startSession())
+                .map(session -> {
+                    session.startTransaction();
+                    return Transaction.create(
+                            new SessionQueryProvider(session),
+                            Completable.fromPublisher(session.commitTransaction()).doFinally(session::close),
+                            Completable.fromPublisher(session.abortTransaction()).doFinally(session::close));
+                });
+    }
+
     @Override
     public void close() {
         isClosed.set(true);
@@ -46,12 +64,46 @@ public class MongoQueryProvider extends AbstractEntityQueryProviderAdapter {
 
     @Override
     protected <K, S> EntityQueryProvider<K, S> createProvider(MetaClassWithKey<K, S> metaClass) {
-        return new MongoEntityQueryProvider<>(metaClass, database, MongoFieldMapper.instance);
+        return new MongoEntityQueryProvider<>(metaClass, database, MongoFieldMapper.instance, indexes(metaClass));
+    }
+
+    @Override
+    public <K, S> Completable drop(MetaClassWithKey<K, S> metaClass) {
+        return super.drop(metaClass)
+                .doOnComplete(() -> indexes.remove(metaClass.asClass()));
     }
 
     @Override
     protected Completable dropAllProviders() {
-        return Completable.fromPublisher(database.drop());
+        return Completable.fromPublisher(database.drop())
+                .doOnComplete(indexes::clear);
+    }
+
+    // Indexes are created once per collection, including when first write is performed within transaction.
+    // Failed creation is not cached, so that it is retried by the next write
+    private <K, S> Completable indexes(MetaClassWithKey<K, S> metaClass) {
+        return Completable.defer(() -> indexes.computeIfAbsent(metaClass.asClass(), c -> MongoEntityQueryProvider
+                .createIndexes(metaClass, database, MongoFieldMapper.instance)
+                .doOnError(e -> indexes.remove(c))
+                .cache()));
+    }
+
+    private class SessionQueryProvider extends AbstractEntityQueryProviderAdapter {
+        private final ClientSession session;
+
+        private SessionQueryProvider(ClientSession session) {
+            this.session = session;
+        }
+
+        @Override
+        protected <K, S> EntityQueryProvider<K, S> createProvider(MetaClassWithKey<K, S> metaClass) {
+            return new MongoEntityQueryProvider<>(metaClass, database, MongoFieldMapper.instance, indexes(metaClass), session);
+        }
+
+        @Override
+        protected Completable dropAllProviders() {
+            return MongoQueryProvider.this.dropAllProviders();
+        }
     }
 
     private class ObjectResolver implements MetaObjectResolver {
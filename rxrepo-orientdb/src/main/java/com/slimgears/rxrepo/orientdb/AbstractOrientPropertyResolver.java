@@ -3,11 +3,10 @@ package com.slimgears.rxrepo.orientdb;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.record.OTrackedList;
 import com.orientechnologies.orient.core.db.record.OTrackedMap;
 import com.orientechnologies.orient.core.db.record.OTrackedSet;
-import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.record.OElement;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
@@ -20,10 +19,10 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 public abstract class AbstractOrientPropertyResolver implements PropertyResolver {
-    final OrientDbSessionProvider dbSessionProvider;
+    final OrientDbLinkLoader linkLoader;
 
-    AbstractOrientPropertyResolver(OrientDbSessionProvider dbSessionProvider) {
-        this.dbSessionProvider = dbSessionProvider;
+    AbstractOrientPropertyResolver(OrientDbLinkLoader linkLoader) {
+        this.linkLoader = linkLoader;
     }
 
     @Override
@@ -33,26 +32,26 @@ public abstract class AbstractOrientPropertyResolver implements PropertyResolver
     }
 
     private Object toValue(Object obj, Class expectedType) {
-        return toValue(dbSessionProvider, obj, expectedType);
+        return toValue(linkLoader, obj, expectedType);
     }
 
     @SuppressWarnings("unchecked")
-    private static Object toValue(OrientDbSessionProvider dbSessionProvider, Object obj, Class expectedType) {
+    private static Object toValue(OrientDbLinkLoader linkLoader, Object obj, Class expectedType) {
         if (obj instanceof OElement) {
-            return OElementPropertyResolver.create(dbSessionProvider, (OElement)obj);
+            return OElementPropertyResolver.create(linkLoader, (OElement)obj);
         } else if (expectedType.isEnum() && obj != null) {
             return Enum.valueOf(expectedType, obj.toString());
-        } else if (obj instanceof ORecordId) {
-            return toValue(dbSessionProvider, dbSessionProvider.withSession((ODatabaseDocument s) -> s.load((ORecordId)obj)), expectedType);
+        } else if (obj instanceof ORID) {
+            return toValue(linkLoader, linkLoader.load((ORID)obj), expectedType);
         } else if (obj instanceof OTrackedList) {
             return ((OTrackedList<?>)obj)
                     .stream()
-                    .map(v -> toValue(dbSessionProvider, v, expectedType))
+                    .map(v -> toValue(linkLoader, v, expectedType))
                     .collect(ImmutableList.toImmutableList());
         } else if (obj instanceof OTrackedSet) {
             return ((OTrackedSet<?>)obj)
                     .stream()
-                    .map(v -> toValue(dbSessionProvider, v, expectedType))
+                    .map(v -> toValue(linkLoader, v, expectedType))
                     .collect(ImmutableSet.toImmutableSet());
         } else if (obj instanceof OTrackedMap) {
             return ((OTrackedMap<?>)obj)
@@ -60,17 +59,17 @@ public abstract class AbstractOrientPropertyResolver implements PropertyResolver
                     .stream()
                     .collect(ImmutableMap.toImmutableMap(
                             Map.Entry::getKey,
-                            e -> toValue(dbSessionProvider, e.getValue(), expectedType)));
+                            e -> toValue(linkLoader, e.getValue(), expectedType)));
         } else if (obj instanceof OResult) {
-            return OResultPropertyResolver.create(dbSessionProvider, (OResult)obj);
+            return OResultPropertyResolver.create(linkLoader, (OResult)obj);
         } else if (obj instanceof OResultSet) {
             return ((OResultSet)obj)
                     .stream()
-                    .map(r -> toValue(dbSessionProvider, r, expectedType))
+                    .map(r -> toValue(linkLoader, r, expectedType))
                     .collect(ImmutableList.toImmutableList());
         } else if (obj instanceof Iterable) {
             Stream<?> stream = Streams.fromIterable((Iterable<?>)obj)
-                    .map(o -> toValue(dbSessionProvider, o, expectedType));
+                    .map(o -> toValue(linkLoader, o, expectedType));
             if (obj instanceof List) {
                 return stream.collect(ImmutableList.toImmutableList());
             } else if (obj instanceof Set) {
@@ -79,8 +78,8 @@ public abstract class AbstractOrientPropertyResolver implements PropertyResolver
         } else if (obj instanceof Map) {
             return ((Map<?, ?>)obj).entrySet().stream()
                     .collect(ImmutableMap.toImmutableMap(
-                            e -> toValue(dbSessionProvider, e.getKey(), expectedType),
-                            e -> toValue(dbSessionProvider, e.getValue(), expectedType)));
+                            e -> toValue(linkLoader, e.getKey(), expectedType),
+                            e -> toValue(linkLoader, e.getValue(), expectedType)));
         }
         return obj;
     }
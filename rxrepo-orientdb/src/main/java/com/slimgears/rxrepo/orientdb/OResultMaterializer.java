@@ -0,0 +1,67 @@
+package com.slimgears.rxrepo.orientdb;
+
+import com.slimgears.rxrepo.util.PropertyResolver;
+import com.slimgears.util.autovalue.annotations.BuilderPrototype;
+import com.slimgears.util.autovalue.annotations.HasMetaClass;
+import com.slimgears.util.autovalue.annotations.MetaClass;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+import com.slimgears.util.stream.Streams;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Builds entity directly from result row: property setters and converters are resolved once per meta class,
+// values which already have the property type (primitives, strings, enums) are set without any conversion
+class OResultMaterializer<T> {
+    private final static Map<MetaClass<?>, OResultMaterializer<?>> materializers = new ConcurrentHashMap<>();
+    private final MetaClass<T> metaClass;
+    private final PropertySetter<T, ?>[] setters;
+
+    @SuppressWarnings("unchecked")
+    private OResultMaterializer(MetaClass<T> metaClass) {
+        this.metaClass = metaClass;
+        this.setters = Streams.fromIterable(metaClass.properties())
+                .map(PropertySetter::new)
+                .toArray(PropertySetter[]::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> OResultMaterializer<T> forMetaClass(MetaClass<T> metaClass) {
+        return (OResultMaterializer<T>)materializers.computeIfAbsent(metaClass, OResultMaterializer::new);
+    }
+
+    T materialize(PropertyResolver resolver) {
+        BuilderPrototype<T, ?> builder = metaClass.createBuilder();
+        for (PropertySetter<T, ?> setter : setters) {
+            setter.set(resolver, builder);
+        }
+        return builder.build();
+    }
+
+    private static class PropertySetter<T, V> {
+        private final PropertyMeta<T, V> property;
+        private final Class<? super V> rawType;
+        private final boolean isDirect;
+
+        private PropertySetter(PropertyMeta<T, V> property) {
+            this.property = property;
+            this.rawType = property.type().getRawType();
+            this.isDirect = !HasMetaClass.class.isAssignableFrom(rawType)
+                    && !Iterable.class.isAssignableFrom(rawType)
+                    && !Map.class.isAssignableFrom(rawType);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void set(PropertyResolver resolver, BuilderPrototype<T, ?> builder) {
+            Object value = resolver.getProperty(property.name(), rawType);
+            if (value == null) {
+                return;
+            }
+            if (isDirect && rawType.isInstance(value)) {
+                property.setValue(builder, (V)value);
+            } else {
+                property.setValue(builder, PropertyResolver.toValue(property.type(), value));
+            }
+        }
+    }
+}
@@ -1,107 +1,159 @@
 package com.slimgears.rxrepo.orientdb;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.slimgears.rxrepo.util.PropertyResolver;
-import com.slimgears.util.stream.Lazy;
+import com.slimgears.util.autovalue.annotations.MetaClass;
 
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Collectors.*;
+import java.util.Set;
 
+// Column layout (canonic names, nested properties for dotted names) depends only on property names of a result,
+// so it is built once per distinct set of names and shared by all rows having the same names
 class OResultPropertyResolver extends AbstractOrientPropertyResolver {
+    private final static Set<String> elementProperties = Collections.singleton("@version");
+    private final static Cache<Set<String>, Layout> layouts = CacheBuilder.newBuilder()
+            .maximumSize(1024)
+            .build();
+
     private final OResult oResult;
-    private final String prefix;
-    private final int index;
-    private final Lazy<Iterable<String>> propertyNames;
-    private final Map<String, Lazy<PropertyResolver>> resolvers = new HashMap<>();
-    private final BiMap<String, String> propertyToCanonicNameMap = HashBiMap.create();
-    private final BiMap<String, String> propertyFromCanonicNameMap = propertyToCanonicNameMap.inverse();
-
-    private OResultPropertyResolver(OrientDbSessionProvider dbSessionProvider, OResult oResult) {
-        this(dbSessionProvider, oResult, "");
-    }
+    private final Layout layout;
 
-    private OResultPropertyResolver(OrientDbSessionProvider dbSessionProvider, OResult oResult, String prefix) {
-        super(dbSessionProvider);
+    private OResultPropertyResolver(OrientDbLinkLoader linkLoader, OResult oResult, Layout layout) {
+        super(linkLoader);
         this.oResult = oResult;
-        this.prefix = prefix;
-        this.index = (int)Arrays.stream(split(prefix)).filter(p -> !p.isEmpty()).count();
-        this.propertyNames = Lazy.of(this::retrievePropertyNames);
+        this.layout = layout;
     }
 
     @Override
     public Iterable<String> propertyNames() {
-        return propertyNames.get();
+        List<String> names = new ArrayList<>(layout.slots.size());
+        layout.slots.forEach((name, slot) -> {
+            if (slot.hasValue(oResult)) {
+                names.add(name);
+            }
+        });
+        return names;
+    }
+
+    @Override
+    public <T> T toObject(MetaClass<T> metaClass) {
+        return OResultMaterializer.forMetaClass(metaClass).materialize(this);
     }
 
     @Override
     protected Object getPropertyInternal(String name, Class type) {
-        propertyNames.get();
-        return Optional
-                .ofNullable(resolvers.get(fromCanonic(name)))
-                .map(Lazy::get)
-                .map(Object.class::cast)
-                .orElseGet(() -> {
-                    Object obj = oResult.getProperty(prefix + fromCanonic(name));
-                    if (obj instanceof OResult) {
-                        PropertyResolver resolver = OResultPropertyResolver.create(dbSessionProvider, (OResult)obj);
-                        resolvers.put(prefix + fromCanonic(name), Lazy.of(() -> resolver));
-                        obj = resolver;
-                    }
-                    return obj;
-                });
+        Slot slot = layout.slots.get(name);
+        if (slot == null) {
+            return oResult.getProperty(layout.prefix + name);
+        }
+        if (slot.nested != null) {
+            return new OResultPropertyResolver(linkLoader, oResult, slot.nested);
+        }
+        Object obj = oResult.getProperty(slot.path);
+        return obj instanceof OResult
+                ? OResultPropertyResolver.create(linkLoader, (OResult)obj)
+                : obj;
     }
 
     static PropertyResolver create(OrientDbSessionProvider dbSessionProvider, OResult oResult) {
+        return create(OrientDbLinkLoader.create(dbSessionProvider), oResult);
+    }
+
+    static PropertyResolver create(OrientDbLinkLoader linkLoader, OResult oResult) {
         return Optional.ofNullable(oResult)
-                .map(or -> new OResultPropertyResolver(dbSessionProvider, or).cache())
+                .map(or -> new OResultPropertyResolver(linkLoader, or, layoutOf(or)).cache())
                 .orElse(null);
     }
 
-    private Collection<String> getResultPropertyNames() {
-        return oResult.isElement()
-                ? Sets.union(oResult.getPropertyNames(), Collections.singleton("@version"))
+    private static Layout layoutOf(OResult oResult) {
+        Set<String> names = oResult.isElement()
+                ? Sets.union(oResult.getPropertyNames(), elementProperties)
                 : oResult.getPropertyNames();
+        Layout layout = layouts.getIfPresent(names);
+        if (layout == null) {
+            Set<String> key = ImmutableSet.copyOf(names);
+            layout = Layout.of(key);
+            layouts.put(key, layout);
+        }
+        return layout;
     }
 
-    private Iterable<String> retrievePropertyNames() {
-        Map<String, List<String>> map = getResultPropertyNames()
-                .stream()
-                .filter(n -> n.startsWith(prefix))
-                .filter(n -> oResult.getProperty(n) != null)
-                .peek(this::toCanonic)
-                .collect(groupingBy(
-                        name -> split(name)[index],
-                        mapping(name -> name.substring(prefix.length()), toList())));
-
-        map.entrySet()
-                .stream()
-                .filter(e -> !e.getValue().isEmpty() && e.getValue().get(0).length() > e.getKey().length())
-                .forEach(e -> resolvers.put(e.getKey(), Lazy.of(() -> new OResultPropertyResolver(dbSessionProvider, oResult, prefix + e.getKey() + "."))));
-
-        return map.keySet().stream().map(this::toCanonic).collect(Collectors.toSet());
-    }
-
-    private String toCanonic(String name) {
-        return propertyToCanonicNameMap.computeIfAbsent(name, n -> n.replace("`", ""));
-    }
-
-    private String fromCanonic(String name) {
-        return propertyFromCanonicNameMap.getOrDefault(name, name);
+    private static class Slot {
+        private final String path;
+        private final Layout nested;
+
+        private Slot(String path, Layout nested) {
+            this.path = path;
+            this.nested = nested;
+        }
+
+        private boolean hasValue(OResult oResult) {
+            if (nested == null) {
+                return oResult.getProperty(path) != null;
+            }
+            for (Slot slot : nested.slots.values()) {
+                if (slot.hasValue(oResult)) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 
-    private String[] split(String name) {
-        String[] parts = name.split("\\.");
-        return parts.length > 0 ? parts : new String[] {name};
+    private static class Layout {
+        private final String prefix;
+        private final Map<String, Slot> slots;
+
+        private Layout(String prefix, Map<String, Slot> slots) {
+            this.prefix = prefix;
+            this.slots = slots;
+        }
+
+        private static Layout of(Set<String> names) {
+            Map<String, Object> tree = new LinkedHashMap<>();
+            names.forEach(name -> put(tree, name, 0));
+            return toLayout("", tree);
+        }
+
+        // Leaf entries hold full property name, nested entries hold a subtree keyed by raw name segments
+        @SuppressWarnings("unchecked")
+        private static void put(Map<String, Object> tree, String name, int start) {
+            int end = name.indexOf('.', start);
+            if (end < 0) {
+                tree.putIfAbsent(name.substring(start), name);
+                return;
+            }
+            String segment = name.substring(start, end);
+            Object existing = tree.get(segment);
+            Map<String, Object> nested = existing instanceof Map
+                    ? (Map<String, Object>)existing
+                    : new LinkedHashMap<>();
+            tree.put(segment, nested);
+            put(nested, name, end + 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Layout toLayout(String prefix, Map<String, Object> tree) {
+            Map<String, Slot> slots = new LinkedHashMap<>();
+            tree.forEach((segment, value) -> slots.put(
+                    toCanonic(segment),
+                    value instanceof Map
+                            ? new Slot(null, toLayout(prefix + segment + ".", (Map<String, Object>)value))
+                            : new Slot((String)value, null)));
+            return new Layout(prefix, slots);
+        }
+
+        private static String toCanonic(String name) {
+            return name.replace("`", "");
+        }
     }
 }
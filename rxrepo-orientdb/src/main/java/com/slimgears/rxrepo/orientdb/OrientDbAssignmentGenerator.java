@@ -1,5 +1,6 @@
 package com.slimgears.rxrepo.orientdb;
 
+import com.google.common.collect.Maps;
 import com.slimgears.rxrepo.sql.DefaultSqlAssignmentGenerator;
 import com.slimgears.rxrepo.sql.ReferenceResolver;
 import com.slimgears.rxrepo.sql.SqlExpressionGenerator;
@@ -8,11 +9,10 @@ import com.slimgears.rxrepo.util.PropertyResolver;
 import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
 import com.slimgears.util.autovalue.annotations.PropertyMeta;
 
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
-import static com.slimgears.rxrepo.sql.StatementUtils.concat;
-
 class OrientDbAssignmentGenerator extends DefaultSqlAssignmentGenerator {
     private final SqlExpressionGenerator sqlExpressionGenerator;
 
@@ -22,24 +22,23 @@ class OrientDbAssignmentGenerator extends DefaultSqlAssignmentGenerator {
     }
 
     @Override
-    public <K, T> Function<String, Stream<String>> toAssignment(
+    public <K, T> Function<String, Stream<Map.Entry<String, String>>> toColumnValues(
             MetaClassWithKey<K, T> metaClass,
             PropertyResolver propertyResolver,
             ReferenceResolver referenceResolver) {
-        Function<String, Stream<String>> inherited = super.toAssignment(metaClass, propertyResolver, referenceResolver);
+        Function<String, Stream<Map.Entry<String, String>>> inherited = super.toColumnValues(metaClass, propertyResolver, referenceResolver);
         return prop -> Stream.concat(
                 inherited.apply(prop),
                 enhanceAssignmentForAsStringIndex(metaClass, propertyResolver, prop));
     }
 
-    private <K, T> Stream<String> enhanceAssignmentForAsStringIndex(MetaClassWithKey<K, T> metaClass, PropertyResolver propertyResolver, String propertyName) {
+    private <K, T> Stream<Map.Entry<String, String>> enhanceAssignmentForAsStringIndex(MetaClassWithKey<K, T> metaClass, PropertyResolver propertyResolver, String propertyName) {
         PropertyMeta<T, ?> propertyMeta = metaClass.getProperty(propertyName);
         if (propertyMeta != null && PropertyMetas.isEmbedded(propertyMeta)) {
             Object val = propertyResolver.getProperty(propertyMeta);
             return val != null
-                    ? Stream.of(concat(
+                    ? Stream.of(Maps.immutableEntry(
                             (sqlExpressionGenerator.fromProperty(propertyMeta) + "`AsString`").replace("``", ""),
-                            "=",
                             sqlExpressionGenerator.fromConstant(val.toString())))
                     : Stream.empty();
         }
@@ -0,0 +1,83 @@
+package com.slimgears.rxrepo.orientdb;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Identity map of linked records, shared by all results of a query: records referenced by a page of results
+// are loaded with a single 'select from [rid1, rid2, ...]' query. Only records linked from the latest page
+// are kept (records shared with previous page are not reloaded), so that map does not grow with streamed results
+class OrientDbLinkLoader {
+    private final static Logger log = LoggerFactory.getLogger(OrientDbLinkLoader.class);
+    private final OrientDbSessionProvider sessionProvider;
+    private final Map<ORID, Object> records = new ConcurrentHashMap<>();
+
+    private OrientDbLinkLoader(OrientDbSessionProvider sessionProvider) {
+        this.sessionProvider = sessionProvider;
+    }
+
+    static OrientDbLinkLoader create(OrientDbSessionProvider sessionProvider) {
+        return new OrientDbLinkLoader(sessionProvider);
+    }
+
+    Object load(ORID rid) {
+        Object record = records.get(rid);
+        if (record != null) {
+            return record;
+        }
+        record = sessionProvider.withSession((ODatabaseDocument session) -> session.load(rid));
+        if (record != null) {
+            records.put(rid, record);
+        }
+        return record;
+    }
+
+    boolean hasLinksToLoad(OResult result) {
+        Set<ORID> rids = new LinkedHashSet<>();
+        collectLinks(result, rids);
+        return !records.keySet().containsAll(rids);
+    }
+
+    void prefetch(Collection<OResult> results) {
+        Set<ORID> rids = new LinkedHashSet<>();
+        results.forEach(result -> collectLinks(result, rids));
+        records.keySet().retainAll(rids);
+        rids.removeAll(records.keySet());
+        if (rids.isEmpty()) {
+            return;
+        }
+
+        String query = rids.stream()
+                .map(ORID::toString)
+                .collect(Collectors.joining(", ", "select from [", "]"));
+        sessionProvider.withSession(session -> {
+            try (OResultSet resultSet = session.query(query)) {
+                resultSet.stream().forEach(res -> res.getElement().ifPresent(element -> records.put(element.getIdentity(), element)));
+            }
+        });
+        log.trace("Prefetched {} linked records", rids.size());
+    }
+
+    private static void collectLinks(Object value, Set<ORID> rids) {
+        if (value instanceof ORID) {
+            rids.add((ORID)value);
+        } else if (value instanceof OResult) {
+            OResult result = (OResult)value;
+            result.getPropertyNames().forEach(name -> collectLinks(result.getProperty(name), rids));
+        } else if (value instanceof Iterable) {
+            ((Iterable<?>)value).forEach(v -> collectLinks(v, rids));
+        } else if (value instanceof Map) {
+            ((Map<?, ?>)value).values().forEach(v -> collectLinks(v, rids));
+        }
+    }
+}
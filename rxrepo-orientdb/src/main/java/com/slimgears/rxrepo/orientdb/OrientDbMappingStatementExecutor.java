@@ -8,6 +8,9 @@ import io.reactivex.Completable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static com.slimgears.rxrepo.orientdb.OrientDbObjectConverter.toOrientDb;
 
 public class OrientDbMappingStatementExecutor implements SqlStatementExecutor {
@@ -41,6 +44,21 @@ public class OrientDbMappingStatementExecutor implements SqlStatementExecutor {
         return underlyingExecutor.executeCommand(toOrientDb(statement));
     }
 
+    @Override
+    public Completable executeBatch(List<SqlStatement> statements) {
+        return underlyingExecutor.executeBatch(statements
+                .stream()
+                .map(OrientDbObjectConverter::toOrientDb)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Single<Transaction> beginTransaction() {
+        return underlyingExecutor
+                .beginTransaction()
+                .map(tx -> Transaction.create(decorate(tx.executor()), tx.commit(), tx.rollback()));
+    }
+
     @Override
     public Observable<Notification<PropertyResolver>> executeLiveQuery(SqlStatement statement) {
         return underlyingExecutor.executeLiveQuery(toOrientDb(statement));
@@ -1,5 +1,7 @@
 package com.slimgears.rxrepo.orientdb;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.orientechnologies.orient.core.record.OElement;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.slimgears.rxrepo.sql.SqlStatement;
@@ -7,60 +9,151 @@ import com.slimgears.util.autovalue.annotations.HasMetaClass;
 import com.slimgears.util.autovalue.annotations.HasMetaClassWithKey;
 import com.slimgears.util.autovalue.annotations.MetaClass;
 import com.slimgears.util.autovalue.annotations.PropertyMeta;
+import com.slimgears.util.stream.Streams;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
+// Property writers are resolved once per meta class. Arguments, collection elements and property values
+// which need no conversion (primitives, strings, enums) are passed as is, and statements or collections
+// with nothing to convert are returned without copying
 class OrientDbObjectConverter {
+    private final static Map<MetaClass<?>, ObjectWriter<?>> writers = new ConcurrentHashMap<>();
+
     static SqlStatement toOrientDb(SqlStatement statement) {
-        return statement.mapArgs(OrientDbObjectConverter::toOrientDbObject);
+        Object[] args = statement.args();
+        Object[] newArgs = toOrientDbObjects(args);
+        return newArgs != args
+                ? statement.withArgs(newArgs)
+                : statement;
     }
 
     static Object[] toOrientDbObjects(Object[] objects) {
-        Object[] newArgs = new Object[objects.length];
+        Object[] newArgs = null;
         for (int i = 0; i < objects.length; ++i) {
-            newArgs[i] = toOrientDbObject(objects[i]);
+            Object obj = toOrientDbObject(objects[i]);
+            if (newArgs == null && obj != objects[i]) {
+                newArgs = Arrays.copyOf(objects, objects.length);
+            }
+            if (newArgs != null) {
+                newArgs[i] = obj;
+            }
         }
-        return newArgs;
+        return newArgs != null ? newArgs : objects;
     }
 
     @SuppressWarnings("unchecked")
     private static Object toOrientDbObject(Object obj) {
-        if (obj instanceof Collection) {
-            return convertCollection((Collection<?>)obj);
+        if (obj == null || isPlain(obj.getClass())) {
+            return obj;
+        } else if (obj instanceof HasMetaClass) {
+            return writerFor(((HasMetaClass)obj).metaClass()).toElement(obj);
+        } else if (obj instanceof List) {
+            return convertList((List<?>)obj);
+        } else if (obj instanceof Set) {
+            return convertSet((Set<?>)obj);
         } else if (obj instanceof Map) {
             return convertMap((Map<?, ?>)obj);
-        } else if (!(obj instanceof HasMetaClass)) {
-            return obj;
         }
+        return obj;
+    }
+
+    private static boolean isPlain(Class<?> cls) {
+        return cls == String.class
+                || cls.isPrimitive()
+                || cls.isEnum()
+                || Number.class.isAssignableFrom(cls)
+                || cls == Boolean.class
+                || cls == Character.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectWriter<T> writerFor(MetaClass<T> metaClass) {
+        return (ObjectWriter<T>)writers.computeIfAbsent(metaClass, ObjectWriter::new);
+    }
 
-        HasMetaClass<?> hasMetaClass = (HasMetaClass)obj;
-        MetaClass<?> metaClass = hasMetaClass.metaClass();
-        OElement oElement = new ODocument();
-        metaClass.properties().forEach(p -> {
-            oElement.setProperty(p.name(), toOrientDbObject(((PropertyMeta)p).getValue(obj)));
-            if (p.type().isSubtypeOf(HasMetaClass.class) && !p.type().isSubtypeOf(HasMetaClassWithKey.class)) {
-                Optional.ofNullable(((PropertyMeta)p).getValue(obj))
-                        .map(Object::toString)
-                        .ifPresent(str -> oElement.setProperty(p.name() + "AsString", str));
+    private static List<?> convertList(List<?> list) {
+        List<Object> converted = null;
+        int i = 0;
+        for (Object item : list) {
+            Object obj = toOrientDbObject(item);
+            if (converted == null && obj != item) {
+                converted = new ArrayList<>(list.size());
+                converted.addAll(list.subList(0, i));
             }
-        });
+            if (converted != null) {
+                converted.add(obj);
+            }
+            ++i;
+        }
+        return converted != null ? converted : list;
+    }
 
-        return oElement;
+    private static Set<?> convertSet(Set<?> set) {
+        Set<Object> converted = null;
+        for (Object item : set) {
+            Object obj = toOrientDbObject(item);
+            if (converted == null && obj != item) {
+                converted = Sets.newLinkedHashSetWithExpectedSize(set.size());
+                for (Object prev : set) {
+                    if (prev == item) {
+                        break;
+                    }
+                    converted.add(prev);
+                }
+            }
+            if (converted != null) {
+                converted.add(obj);
+            }
+        }
+        return converted != null ? converted : set;
     }
 
     private static Map<?, ?> convertMap(Map<?, ?> map) {
-        return map.entrySet()
-                .stream()
-                .collect(Collectors.toMap(e -> toOrientDbObject(e.getKey()), e -> toOrientDbObject(e.getValue())));
+        Map<Object, Object> converted = Maps.newHashMapWithExpectedSize(map.size());
+        map.forEach((key, value) -> converted.put(toOrientDbObject(key), toOrientDbObject(value)));
+        return converted;
+    }
+
+    private static class ObjectWriter<T> {
+        private final PropertyWriter<T, ?>[] properties;
+
+        @SuppressWarnings("unchecked")
+        private ObjectWriter(MetaClass<T> metaClass) {
+            this.properties = Streams.fromIterable(metaClass.properties())
+                    .map(PropertyWriter::new)
+                    .toArray(PropertyWriter[]::new);
+        }
+
+        @SuppressWarnings("unchecked")
+        private OElement toElement(Object obj) {
+            OElement oElement = new ODocument();
+            for (PropertyWriter<T, ?> property : properties) {
+                property.write((T)obj, oElement);
+            }
+            return oElement;
+        }
     }
 
-    private static Collection<?> convertCollection(Collection<?> collection) {
-        if (collection instanceof List) {
-            return collection.stream().map(OrientDbObjectConverter::toOrientDbObject).collect(Collectors.toList());
-        } else if (collection instanceof Set) {
-            return collection.stream().map(OrientDbObjectConverter::toOrientDbObject).collect(Collectors.toSet());
+    private static class PropertyWriter<T, V> {
+        private final PropertyMeta<T, V> property;
+        private final String asStringName;
+        private final boolean isPlain;
+
+        private PropertyWriter(PropertyMeta<T, V> property) {
+            this.property = property;
+            this.asStringName = property.type().isSubtypeOf(HasMetaClass.class) && !property.type().isSubtypeOf(HasMetaClassWithKey.class)
+                    ? property.name() + "AsString"
+                    : null;
+            this.isPlain = isPlain(property.type().getRawType());
+        }
+
+        private void write(T obj, OElement oElement) {
+            V value = property.getValue(obj);
+            oElement.setProperty(property.name(), isPlain ? value : toOrientDbObject(value));
+            if (asStringName != null && value != null) {
+                oElement.setProperty(asStringName, value.toString());
+            }
         }
-        return collection;
     }
 }
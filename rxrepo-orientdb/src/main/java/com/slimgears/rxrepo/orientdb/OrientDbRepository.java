@@ -51,6 +51,13 @@ public class OrientDbRepository {
         private ODatabaseType dbType = ODatabaseType.MEMORY;
         private String user = "admin";
         private String password = "admin";
+        private int batchSize = 1000;
+        private int sessionPoolMinSize;
+        private int sessionPoolMaxSize;
+        private int sessionPoolAcquireTimeoutMillis;
+        private int workerThreadCount;
+        private Consumer<SessionPoolMetrics> sessionPoolMetricsConsumer = metrics -> {};
+        private boolean streamQueries;
         private QueryProvider.Decorator decorator = QueryProvider.Decorator.identity();
         private RepositoryConfig.Builder configBuilder = RepositoryConfig
                 .builder()
@@ -82,6 +89,40 @@ public class OrientDbRepository {
             return this;
         }
 
+        public final Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        // When set, sessions are taken from bounded pool instead of being opened for each thread
+        public final Builder sessionPool(int minSize, int maxSize, int acquireTimeoutMillis) {
+            this.sessionPoolMinSize = minSize;
+            this.sessionPoolMaxSize = maxSize;
+            this.sessionPoolAcquireTimeoutMillis = acquireTimeoutMillis;
+            return this;
+        }
+
+        // Given consumer receives metrics of session pool once the pool is created
+        public final Builder sessionPoolMetrics(@Nonnull Consumer<SessionPoolMetrics> metricsConsumer) {
+            this.sessionPoolMetricsConsumer = metricsConsumer;
+            return this;
+        }
+
+        // When set, all database work is executed on given number of worker threads, each using its own session
+        // (streamed queries included). Worker keeps its session for its lifetime, while each open transaction takes
+        // a session of its own, so bounded session pool max size should be at least number of workers plus number
+        // of concurrent transactions
+        public final Builder workerThreads(int workerThreadCount) {
+            this.workerThreadCount = workerThreadCount;
+            return this;
+        }
+
+        // When set, query results are pulled from open result set as they are consumed, instead of being pushed at once
+        public final Builder streamQueries(boolean streamQueries) {
+            this.streamQueries = streamQueries;
+            return this;
+        }
+
         public final Builder decorate(@Nonnull QueryProvider.Decorator... decorators) {
             this.decorator = this.decorator.andThen(QueryProvider.Decorator.of(decorators));
             return this;
@@ -93,20 +134,56 @@ public class OrientDbRepository {
             Objects.requireNonNull(dbType);
             Objects.requireNonNull(user);
             Objects.requireNonNull(password);
+            if (sessionPoolMaxSize > 0 && (sessionPoolMinSize < 0 || sessionPoolMinSize > sessionPoolMaxSize)) {
+                throw new IllegalArgumentException(String.format(
+                        "Session pool min size (%d) should be between 0 and max size (%d)",
+                        sessionPoolMinSize, sessionPoolMaxSize));
+            }
+            if (sessionPoolMaxSize > 0 && sessionPoolAcquireTimeoutMillis <= 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Session pool acquire timeout (%d ms) should be positive",
+                        sessionPoolAcquireTimeoutMillis));
+            }
+            if (workerThreadCount > 0 && sessionPoolMaxSize > 0 && sessionPoolMaxSize <= workerThreadCount) {
+                throw new IllegalArgumentException(String.format(
+                        "Session pool max size (%d) should be greater than number of worker threads (%d), so that transactions can take sessions",
+                        sessionPoolMaxSize, workerThreadCount));
+            }
 
             Lazy<OrientDB> dbClient = Lazy.of(() -> createClient(url, dbName, dbType));
+            Consumer<SessionPoolMetrics> metricsConsumer = sessionPoolMetricsConsumer;
+            Lazy<OrientDbSessionPool> sessionPool = Lazy.of(() -> {
+                OrientDbSessionPool pool = OrientDbSessionPool.create(
+                        dbClient.get(), dbName, user, password, sessionPoolMinSize, sessionPoolMaxSize, sessionPoolAcquireTimeoutMillis);
+                metricsConsumer.accept(pool);
+                return pool;
+            });
+            boolean pooled = sessionPoolMaxSize > 0;
             Map<ODatabaseDocument, CompletableSubject> sessions = new ConcurrentHashMap<>();
             CompletableSubject shutdownSubject = CompletableSubject.create();
 
-            return serviceFactoryBuilder(
+            OrientDbSessionProvider dbSessionProvider = OrientDbSessionProvider.create(
                     () -> {
-                        ODatabaseDocument session = createSession(dbClient, dbName, user, password);
+                        ODatabaseDocument session = pooled
+                                ? sessionPool.get().acquire()
+                                : createSession(dbClient, dbName, user, password);
                         sessions.put(session, CompletableSubject.create());
                         return session;
                     },
-                    session -> Optional.ofNullable(sessions.remove(session))
-                            .ifPresent(CompletableSubject::onComplete))
+                    session -> {
+                        CompletableSubject closed = sessions.remove(session);
+                        if (pooled) {
+                            sessionPool.get().release(session);
+                        } else {
+                            session.close();
+                        }
+                        Optional.ofNullable(closed).ifPresent(CompletableSubject::onComplete);
+                    },
+                    workerThreadCount);
+
+            return serviceFactoryBuilder(dbSessionProvider, streamQueries)
                     .shutdownSignal(shutdownSubject)
+                    .batchSize(batchSize)
                     .decorate(
                             LiveQueryProviderDecorator.create(),
                             UpdateReferencesFirstQueryProviderDecorator.create(),
@@ -115,6 +192,7 @@ public class OrientDbRepository {
                     .buildRepository(configBuilder.build())
                     .onClose(repo -> {
                         shutdownSubject.onComplete();
+                        dbSessionProvider.close();
                         if (!Observable.fromIterable(sessions.values())
                                 .flatMapCompletable(Functions.identity())
                                 .blockingAwait(4, TimeUnit.SECONDS)) {
@@ -123,6 +201,9 @@ public class OrientDbRepository {
                                 dbSession.close();
                             });
                         }
+                        if (pooled) {
+                            sessionPool.close();
+                        }
                         dbClient.close();
                     });
         }
@@ -160,17 +241,25 @@ public class OrientDbRepository {
         }
     }
 
-    private static SqlServiceFactory.Builder serviceFactoryBuilder(Supplier<ODatabaseDocument> sessionProvider, Consumer<ODatabaseDocument> sessionCloser) {
-        OrientDbSessionProvider dbSessionProvider = OrientDbSessionProvider.create(sessionProvider, sessionCloser);
+    private static SqlServiceFactory.Builder serviceFactoryBuilder(OrientDbSessionProvider dbSessionProvider, boolean streamQueries) {
         return SqlServiceFactory.builder()
                 .schemaProvider(svc -> new OrientDbSchemaProvider(dbSessionProvider))
-                .statementExecutor(svc -> OrientDbMappingStatementExecutor.decorate(new OrientDbStatementExecutor(dbSessionProvider, svc.shutdownSignal())))
+                .statementExecutor(svc -> OrientDbMappingStatementExecutor.decorate(new OrientDbStatementExecutor(dbSessionProvider, svc.shutdownSignal(), streamQueries)))
                 .expressionGenerator(OrientDbSqlExpressionGenerator::new)
                 .assignmentGenerator(svc -> new OrientDbAssignmentGenerator(svc.expressionGenerator()))
                 .statementProvider(svc -> new DefaultSqlStatementProvider(svc.expressionGenerator(), svc.assignmentGenerator(), svc.schemaProvider()))
                 .referenceResolver(svc -> new OrientDbReferenceResolver(svc.statementProvider()));
     }
 
+    public interface SessionPoolMetrics {
+        long acquireCount();
+        long acquireTimeoutCount();
+        int activeCount();
+        int waitingCount();
+        long averageAcquireNanos();
+        long maxAcquireNanos();
+    }
+
     @SuppressWarnings("WeakerAccess")
     public static class Properties {
         public static final String disableLucene = "rxrepo.orientdb.doNotUseLuceneIndex";
@@ -1,17 +1,22 @@
 package com.slimgears.rxrepo.orientdb;
 
+import com.google.common.hash.Hashing;
 import com.google.common.reflect.TypeToken;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.index.OIndex;
 import com.orientechnologies.orient.core.index.OIndexException;
 import com.orientechnologies.orient.core.index.ORuntimeKeyIndexDefinition;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OProperty;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.slimgears.rxrepo.annotations.CompositeIndex;
 import com.slimgears.rxrepo.annotations.Indexable;
 import com.slimgears.rxrepo.annotations.Searchable;
 import com.slimgears.rxrepo.sql.SchemaProvider;
+import com.slimgears.rxrepo.util.CompositeIndexes;
 import com.slimgears.rxrepo.util.PropertyMetas;
 import com.slimgears.util.autovalue.annotations.*;
 import com.slimgears.util.stream.Streams;
@@ -19,12 +24,18 @@ import io.reactivex.Completable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 class OrientDbSchemaProvider implements SchemaProvider {
     private final static Logger log = LoggerFactory.getLogger(OrientDbSchemaProvider.class);
+    private final static String schemaClassName = "RxRepoSchema";
+    private final static int schemaVersion = 1;
     private final OrientDbSessionProvider dbSessionProvider;
+    private final Map<String, Object> classLocks = new ConcurrentHashMap<>();
 
     OrientDbSchemaProvider(OrientDbSessionProvider sessionProvider) {
         this.dbSessionProvider = sessionProvider;
@@ -35,10 +46,24 @@ class OrientDbSchemaProvider implements SchemaProvider {
         return dbSessionProvider.withSession(ODatabaseDocument::getName);
     }
 
+    // Fingerprint of class schema is persisted once class is fully created, so that on restart
+    // introspection of unchanged classes is skipped and only changed classes are migrated
     @Override
     public <T> Completable createOrUpdate(MetaClass<T> metaClass) {
         return Completable
-                .fromAction(() -> dbSessionProvider.withSession(dbSession -> (OClass)createClass(dbSession, metaClass)));
+                .fromAction(() -> dbSessionProvider.withSession(dbSession -> {
+                    String className = toClassName(metaClass);
+                    String fingerprint = fingerprint(metaClass);
+                    if (dbSession.getClass(className) != null && fingerprint.equals(storedFingerprint(dbSession, className))) {
+                        log.debug("Class {} schema is up to date", className);
+                        return;
+                    }
+
+                    OClass oClass = createClass(dbSession, metaClass);
+                    if (hasResolvedLinks(oClass, metaClass)) {
+                        storeFingerprint(dbSession, className, fingerprint);
+                    }
+                }));
     }
 
     @Override
@@ -51,8 +76,15 @@ class OrientDbSchemaProvider implements SchemaProvider {
                 .orElseGet(() -> createClass(dbSession, metaClass));
     }
 
-    private synchronized OClass createClass(ODatabaseDocument dbSession, MetaClass<?> metaClass) {
+    // Only creation of the same class is serialized, so that independent classes can be created in parallel
+    private OClass createClass(ODatabaseDocument dbSession, MetaClass<?> metaClass) {
         String className = toClassName(metaClass);
+        synchronized (classLocks.computeIfAbsent(className, cn -> new Object())) {
+            return createClass(dbSession, metaClass, className);
+        }
+    }
+
+    private OClass createClass(ODatabaseDocument dbSession, MetaClass<?> metaClass, String className) {
         log.debug("Creating class: {}", className);
         OClass oClass = dbSession.createClassIfNotExist(className);
 
@@ -82,14 +114,17 @@ class OrientDbSchemaProvider implements SchemaProvider {
                         null);
             } else {
                 log.trace("{}: Adding simple key index", className);
-                addIndex(oClass, metaClassWithKey.keyProperty(), true);
+                addIndex(oClass, OClass.INDEX_TYPE.UNIQUE_HASH_INDEX, toIndexedName(metaClassWithKey.keyProperty()));
             }
         }
 
         log.trace("{}: Adding indexes for properties", className);
         Streams.fromIterable(metaClass.properties())
                 .filter(p -> p.hasAnnotation(Indexable.class) && !p.hasAnnotation(Key.class))
-                .forEach(p -> addIndex(oClass, p, p.getAnnotation(Indexable.class).unique()));
+                .forEach(p -> addIndex(oClass, p, p.getAnnotation(Indexable.class)));
+
+        log.trace("{}: Adding composite indexes", className);
+        CompositeIndexes.of(metaClass).forEach(index -> addIndex(oClass, metaClass, index));
 
         String[] textFields = Streams
                 .fromIterable(metaClass.properties())
@@ -114,22 +149,106 @@ class OrientDbSchemaProvider implements SchemaProvider {
         return oClass;
     }
 
-    private static void addIndex(OClass oClass, PropertyMeta<?, ?> propertyMeta, boolean unique) {
-        log.trace(">> {}: Adding property {} index", oClass.getName(), propertyMeta.name());
-        OClass.INDEX_TYPE indexType = unique ? OClass.INDEX_TYPE.UNIQUE_HASH_INDEX : OClass.INDEX_TYPE.NOTUNIQUE_HASH_INDEX;
-        String propertyName = PropertyMetas.isEmbedded(propertyMeta)
+    private String storedFingerprint(ODatabaseDocument dbSession, String className) {
+        if (dbSession.getClass(schemaClassName) == null) {
+            return null;
+        }
+        try (OResultSet resultSet = dbSession.query("select fingerprint from " + schemaClassName + " where className = ?", className)) {
+            return resultSet.hasNext() ? resultSet.next().getProperty("fingerprint") : null;
+        }
+    }
+
+    private void storeFingerprint(ODatabaseDocument dbSession, String className, String fingerprint) {
+        synchronized (classLocks.computeIfAbsent(schemaClassName, cn -> new Object())) {
+            if (dbSession.getClass(schemaClassName) == null) {
+                OClass oClass = dbSession.createClassIfNotExist(schemaClassName);
+                oClass.createProperty("className", OType.STRING);
+                oClass.createProperty("fingerprint", OType.STRING);
+                addIndex(oClass, OClass.INDEX_TYPE.UNIQUE_HASH_INDEX, "className");
+            }
+        }
+        dbSession
+                .command("update " + schemaClassName + " set className = ?, fingerprint = ? upsert where className = ?", className, fingerprint, className)
+                .close();
+        log.debug("Class {} schema fingerprint stored: {}", className, fingerprint);
+    }
+
+    // Links to classes which did not exist yet (e.g. reference cycles) are fixed on next createOrUpdate,
+    // so fingerprint is not stored until all links are resolved
+    private static boolean hasResolvedLinks(OClass oClass, MetaClass<?> metaClass) {
+        return Streams.fromIterable(metaClass.properties())
+                .filter(p -> toOType(p.type()).isLink())
+                .allMatch(p -> oClass.getProperty(p.name()).getLinkedClass() != null);
+    }
+
+    private static String fingerprint(MetaClass<?> metaClass) {
+        StringBuilder builder = new StringBuilder()
+                .append(schemaVersion).append(';')
+                .append(toClassName(metaClass)).append(';')
+                .append(OrientDbRepository.Properties.isLuceneEnabled()).append(';');
+        if (metaClass instanceof MetaClassWithKey) {
+            builder.append("key=").append(((MetaClassWithKey<?, ?>)metaClass).keyProperty().name()).append(';');
+        }
+        metaClass.properties().forEach(p -> builder
+                .append(p.name()).append(':')
+                .append(p.type()).append(':')
+                .append(PropertyMetas.isEmbedded(p)).append(':')
+                .append(Optional.ofNullable(p.getAnnotation(Indexable.class)).map(OrientDbSchemaProvider::fingerprint).orElse("")).append(':')
+                .append(p.hasAnnotation(Searchable.class)).append(';'));
+        CompositeIndexes.of(metaClass).forEach(index -> builder
+                .append("index=").append(String.join(",", index.value())).append(':')
+                .append(index.unique()).append(';'));
+        return Hashing.sha256().hashString(builder, StandardCharsets.UTF_8).toString();
+    }
+
+    private static String fingerprint(Indexable indexable) {
+        return (indexable.unique() ? "unique" : "indexed") + "/" + indexable.kind();
+    }
+
+    // Hash indexes only serve equality lookups, so range predicates and 'order by' need SB-tree index,
+    // which can be used only if indexed property is comparable
+    private static void addIndex(OClass oClass, PropertyMeta<?, ?> propertyMeta, Indexable indexable) {
+        boolean ordered = indexable.kind() == Indexable.Kind.Ordered ||
+                (indexable.kind() == Indexable.Kind.Auto && PropertyMetas.isComparable(propertyMeta));
+        addIndex(oClass, toIndexType(indexable.unique(), ordered), toIndexedName(propertyMeta));
+    }
+
+    // Composite index is always SB-tree, so that its prefix serves equality predicates,
+    // while the last property serves range predicate or sorting
+    private static <T> void addIndex(OClass oClass, MetaClass<T> metaClass, CompositeIndex index) {
+        addIndex(oClass, toIndexType(index.unique(), true), CompositeIndexes.propertiesOf(metaClass, index).stream()
+                .map(OrientDbSchemaProvider::toIndexedName)
+                .toArray(String[]::new));
+    }
+
+    private static OClass.INDEX_TYPE toIndexType(boolean unique, boolean ordered) {
+        if (ordered) {
+            return unique ? OClass.INDEX_TYPE.UNIQUE : OClass.INDEX_TYPE.NOTUNIQUE;
+        }
+        return unique ? OClass.INDEX_TYPE.UNIQUE_HASH_INDEX : OClass.INDEX_TYPE.NOTUNIQUE_HASH_INDEX;
+    }
+
+    private static String toIndexedName(PropertyMeta<?, ?> propertyMeta) {
+        return PropertyMetas.isEmbedded(propertyMeta)
                 ? propertyMeta.name() + "AsString"
                 : propertyMeta.name();
-        addIndex(oClass, propertyName, indexType);
-        log.trace("<< {}: Adding property {} index", oClass.getName(), propertyMeta.name());
     }
 
-    private static void addIndex(OClass oClass, String propertyName, OClass.INDEX_TYPE indexType) {
-        log.trace(">> {}: Adding property {} index of type {}", oClass.getName(), propertyName, indexType);
-        if (!oClass.areIndexed(propertyName)) {
-            oClass.createIndex(oClass.getName() + "." + propertyName + "Index", indexType, propertyName);
+    // Existing index of another type (e.g. after @Indexable kind was changed) is dropped and rebuilt,
+    // which may take long for large classes
+    private static void addIndex(OClass oClass, OClass.INDEX_TYPE indexType, String... propertyNames) {
+        String indexName = oClass.getName() + "." + String.join("_", propertyNames) + "Index";
+        log.trace(">> {}: Adding index {} of type {}", oClass.getName(), indexName, indexType);
+        OIndex<?> index = oClass.getClassIndex(indexName);
+        if (index != null && !indexType.name().equals(index.getType())) {
+            log.warn("{}: Rebuilding index {} of type {} as {} ({} records)", oClass.getName(), indexName, index.getType(), indexType, oClass.count());
+            index.delete();
+            index = null;
+        }
+        if (index == null) {
+            oClass.createIndex(indexName, indexType, propertyNames);
         }
-        log.trace("<< {}: Adding property {} index of type {}", oClass.getName(), propertyName, indexType);
+        log.trace("<< {}: Adding index {} of type {}", oClass.getName(), indexName, indexType);
     }
 
     private static <T extends HasMetaClass<T>> MetaClass<T> toMetaClass(TypeToken typeToken) {
@@ -0,0 +1,127 @@
+package com.slimgears.rxrepo.orientdb;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabasePool;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounds number of open sessions regardless of number of threads using repository. Waiting threads are served
+// in FIFO order (fair semaphore), and sessions are reused, so that session setup cost is paid once per pooled session.
+// Permit is released only after session is returned to the underlying pool, so that next waiter always finds it there
+class OrientDbSessionPool implements OrientDbRepository.SessionPoolMetrics, AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(OrientDbSessionPool.class);
+    private final ODatabasePool pool;
+    private final Semaphore permits;
+    private final int maxSize;
+    private final int acquireTimeoutMillis;
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong acquireTimeoutCount = new AtomicLong();
+    private final AtomicLong totalAcquireNanos = new AtomicLong();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+
+    private OrientDbSessionPool(ODatabasePool pool, int maxSize, int acquireTimeoutMillis) {
+        this.pool = pool;
+        this.permits = new Semaphore(maxSize, true);
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    static OrientDbSessionPool create(OrientDB client, String dbName, String user, String password, int minSize, int maxSize, int acquireTimeoutMillis) {
+        OrientDBConfig config = OrientDBConfig.builder()
+                .addConfig(OGlobalConfiguration.DB_POOL_MIN, minSize)
+                .addConfig(OGlobalConfiguration.DB_POOL_MAX, maxSize)
+                .addConfig(OGlobalConfiguration.DB_POOL_ACQUIRE_TIMEOUT, acquireTimeoutMillis)
+                .build();
+        return new OrientDbSessionPool(new ODatabasePool(client, dbName, user, password, config), maxSize, acquireTimeoutMillis);
+    }
+
+    ODatabaseDocument acquire() {
+        long started = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                acquireTimeoutCount.incrementAndGet();
+                log.warn("Could not acquire session within {}ms ({})", acquireTimeoutMillis, this);
+                throw new IllegalStateException("Timed out waiting for database session");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+
+        try {
+            ODatabaseDocument session = pool.acquire();
+            long elapsed = System.nanoTime() - started;
+            acquireCount.incrementAndGet();
+            totalAcquireNanos.addAndGet(elapsed);
+            maxAcquireNanos.accumulateAndGet(elapsed, Math::max);
+            return session;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release(ODatabaseDocument session) {
+        try {
+            session.activateOnCurrentThread();
+            session.close();
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public long acquireCount() {
+        return acquireCount.get();
+    }
+
+    @Override
+    public long acquireTimeoutCount() {
+        return acquireTimeoutCount.get();
+    }
+
+    @Override
+    public int activeCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    @Override
+    public int waitingCount() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public long averageAcquireNanos() {
+        long count = acquireCount.get();
+        return count > 0 ? totalAcquireNanos.get() / count : 0;
+    }
+
+    @Override
+    public long maxAcquireNanos() {
+        return maxAcquireNanos.get();
+    }
+
+    @Override
+    public void close() {
+        log.debug("Closing session pool ({})", this);
+        pool.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("acquired: %d, timed out: %d, active: %d, waiting: %d, avg acquire: %dus, max acquire: %dus",
+                acquireCount(),
+                acquireTimeoutCount(),
+                activeCount(),
+                waitingCount(),
+                TimeUnit.NANOSECONDS.toMicros(averageAcquireNanos()),
+                TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos()));
+    }
+}
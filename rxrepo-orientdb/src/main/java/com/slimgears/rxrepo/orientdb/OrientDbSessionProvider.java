@@ -1,17 +1,36 @@
 package com.slimgears.rxrepo.orientdb;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.slimgears.util.generic.RecurrentThreadLocal;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
 
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-class OrientDbSessionProvider {
+class OrientDbSessionProvider implements AutoCloseable {
+    private final Supplier<ODatabaseDocument> sessionSupplier;
+    private final Consumer<ODatabaseDocument> onRelease;
     private final RecurrentThreadLocal<ODatabaseDocument> databaseSessionProvider;
+    private final OrientDbWorkerPool workerPool;
+    private final Scheduler sequentialScheduler;
 
     private OrientDbSessionProvider(Supplier<ODatabaseDocument> databaseSessionProvider,
                                     Consumer<ODatabaseDocument> onRelease) {
+        this(databaseSessionProvider, onRelease, null, null);
+    }
+
+    private OrientDbSessionProvider(Supplier<ODatabaseDocument> databaseSessionProvider,
+                                    Consumer<ODatabaseDocument> onRelease,
+                                    OrientDbWorkerPool workerPool,
+                                    Scheduler sequentialScheduler) {
+        this.sessionSupplier = databaseSessionProvider;
+        this.onRelease = onRelease;
+        this.workerPool = workerPool;
+        this.sequentialScheduler = sequentialScheduler;
         this.databaseSessionProvider = RecurrentThreadLocal
                 .of(databaseSessionProvider)
                 .onRelease(onRelease);
@@ -28,11 +47,77 @@ class OrientDbSessionProvider {
         });
     }
 
+    // Released sessions are closed by given releaser (e.g. returned to session pool). When worker thread count is set,
+    // sessions are bound to dedicated worker threads: all work is executed on workers, using worker's own session
+    static OrientDbSessionProvider create(Supplier<ODatabaseDocument> dbSessionSupplier, Consumer<ODatabaseDocument> releaser, int workerThreadCount) {
+        return new OrientDbSessionProvider(
+                dbSessionSupplier,
+                releaser,
+                workerThreadCount > 0 ? OrientDbWorkerPool.create(workerThreadCount, dbSessionSupplier, releaser) : null,
+                null);
+    }
+
     static OrientDbSessionProvider create(ODatabaseDocument dbSessionSupplier) {
         return new OrientDbSessionProvider(() -> dbSessionSupplier, db -> {});
     }
 
+    // Session of a transaction is not thread safe, while statements of the transaction may be subscribed from
+    // different threads. Statements are queued to run one at a time, and direct calls wait until session is free
+    static OrientDbSessionProvider forTransaction(ODatabaseDocument session) {
+        return new OrientDbSessionProvider(
+                () -> session,
+                db -> {},
+                null,
+                Schedulers.from(MoreExecutors.newSequentialExecutor(Schedulers.io()::scheduleDirect)));
+    }
+
+    // Session which is not bound to current thread, so that it can be used by transaction spanning several operations
+    ODatabaseDocument openSession() {
+        return sessionSupplier.get();
+    }
+
+    void closeSession(ODatabaseDocument session) {
+        session.activateOnCurrentThread();
+        onRelease.accept(session);
+    }
+
+    // Session of current thread (worker's own session, when workers are used), which stays acquired until
+    // released on the same thread. Calls of withSession() on the thread meanwhile use the same session
+    ODatabaseDocument acquireSession() {
+        if (workerPool != null) {
+            return workerPool.workerSession();
+        }
+        ODatabaseDocument session = databaseSessionProvider.acquire();
+        session.activateOnCurrentThread();
+        return session;
+    }
+
+    void releaseSession() {
+        if (workerPool == null) {
+            databaseSessionProvider.release();
+        }
+    }
+
+    Optional<Scheduler> scheduler() {
+        return Optional.ofNullable(workerPool)
+                .map(OrientDbWorkerPool::scheduler)
+                .map(Optional::of)
+                .orElseGet(() -> Optional.ofNullable(sequentialScheduler));
+    }
+
     <T> T withSession(Function<ODatabaseDocument, T> func) {
+        if (workerPool != null) {
+            return workerPool.withSession(func);
+        }
+        if (sequentialScheduler != null) {
+            synchronized (this) {
+                return withThreadSession(func);
+            }
+        }
+        return withThreadSession(func);
+    }
+
+    private <T> T withThreadSession(Function<ODatabaseDocument, T> func) {
         try {
             ODatabaseDocument dbSession = databaseSessionProvider.acquire();
             dbSession.activateOnCurrentThread();
@@ -48,4 +133,11 @@ class OrientDbSessionProvider {
             return null;
         });
     }
+
+    @Override
+    public void close() {
+        if (workerPool != null) {
+            workerPool.close();
+        }
+    }
 }
@@ -12,14 +12,20 @@ import com.slimgears.rxrepo.sql.SqlStatementExecutor;
 import com.slimgears.rxrepo.util.PropertyResolver;
 import com.slimgears.util.generic.MoreStrings;
 import io.reactivex.Completable;
+import io.reactivex.Emitter;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -29,21 +35,72 @@ import static com.slimgears.util.generic.LazyString.lazy;
 class OrientDbStatementExecutor implements SqlStatementExecutor {
     private final static AtomicLong operationCounter = new AtomicLong();
     private final static Logger log = LoggerFactory.getLogger(OrientDbStatementExecutor.class);
+    private final static int linkPageSize = 100;
+    private final static int commitRetryCount = 10;
     private final OrientDbSessionProvider sessionProvider;
     private final Completable shutdown;
+    private final boolean inTransaction;
+    private final boolean streamQueries;
 
     OrientDbStatementExecutor(OrientDbSessionProvider sessionProvider, Completable shutdown) {
+        this(sessionProvider, shutdown, false);
+    }
+
+    OrientDbStatementExecutor(OrientDbSessionProvider sessionProvider, Completable shutdown, boolean streamQueries) {
+        this(sessionProvider, shutdown, false, streamQueries);
+    }
+
+    private OrientDbStatementExecutor(OrientDbSessionProvider sessionProvider, Completable shutdown, boolean inTransaction, boolean streamQueries) {
         this.shutdown = shutdown;
         this.sessionProvider = sessionProvider;
+        this.inTransaction = inTransaction;
+        this.streamQueries = streamQueries;
+    }
+
+    // Transaction owns a dedicated session: all statements are executed within session's transaction,
+    // which is committed (or rolled back) once, after which session is released. Statements (and completion)
+    // are serialized on the session, and queries are not streamed, so that no cursor stays open on it
+    @Override
+    public Single<Transaction> beginTransaction() {
+        if (inTransaction) {
+            return SqlStatementExecutor.super.beginTransaction();
+        }
+        return Single.fromCallable(() -> {
+            ODatabaseDocument session = sessionProvider.openSession();
+            session.activateOnCurrentThread();
+            session.begin();
+            log.trace("Transaction started");
+            OrientDbSessionProvider transactionSessionProvider = OrientDbSessionProvider.forTransaction(session);
+            OrientDbStatementExecutor transactionExecutor = new OrientDbStatementExecutor(transactionSessionProvider, shutdown, true, false);
+            return Transaction.create(
+                    transactionExecutor,
+                    transactionExecutor.completeTransaction(ODatabaseDocument::commit, sessionProvider),
+                    transactionExecutor.completeTransaction(ODatabaseDocument::rollback, sessionProvider));
+        });
+    }
+
+    private Completable completeTransaction(Consumer<ODatabaseDocument> completion, OrientDbSessionProvider owner) {
+        return onWorker(Completable.fromAction(() -> sessionProvider.withSession(s -> {
+            try {
+                completion.accept(s);
+                log.trace("Transaction completed");
+            } catch (OConcurrentModificationException | ORecordDuplicatedException e) {
+                throw new ConcurrentModificationException(e.getMessage(), e);
+            } finally {
+                owner.closeSession(s);
+            }
+        })));
     }
 
     @Override
     public Observable<PropertyResolver> executeQuery(SqlStatement statement) {
-        return toObservable(
-                session -> {
-                    logStatement("Querying", statement);
-                    return session.query(statement.statement(), statement.args());
-                });
+        Function<ODatabaseDocument, OResultSet> resultSetSupplier = session -> {
+            logStatement("Querying", statement);
+            return session.query(statement.statement(), statement.args());
+        };
+        return streamQueries
+                ? toStreamingObservable(resultSetSupplier)
+                : toObservable(resultSetSupplier);
     }
 
     @Override
@@ -78,9 +135,27 @@ class OrientDbStatementExecutor implements SqlStatementExecutor {
                 .ignoreElements();
     }
 
+    @Override
+    public Completable executeBatch(List<SqlStatement> statements) {
+        if (statements.isEmpty()) {
+            return Completable.complete();
+        }
+        return onWorker(Completable.fromAction(() -> {
+            SqlStatement script = toScript(statements, !inTransaction);
+            sessionProvider.withSession(session -> {
+                try {
+                    logStatement("Executing batch", script);
+                    session.execute("sql", script.statement(), script.args()).close();
+                } catch (OConcurrentModificationException | ORecordDuplicatedException e) {
+                    throw new ConcurrentModificationException(e.getMessage(), e);
+                }
+            });
+        }));
+    }
+
     @Override
     public Observable<Notification<PropertyResolver>> executeLiveQuery(SqlStatement statement) {
-        return Observable.<OrientDbLiveQueryListener.LiveQueryNotification>create(
+        return onWorker(Observable.<OrientDbLiveQueryListener.LiveQueryNotification>create(
                 emitter -> {
                     logStatement("Live querying", statement);
                     sessionProvider.withSession(dbSession -> {
@@ -90,7 +165,7 @@ class OrientDbStatementExecutor implements SqlStatementExecutor {
                                 statement.args());
                         emitter.setCancellable(monitor::unSubscribe);
                     });
-                })
+                }))
                 .map(res -> Notification.ofModified(
                         Optional.ofNullable(res.oldResult())
                                 .map(or -> OResultPropertyResolver.create(OrientDbSessionProvider.create(res.database()), or))
@@ -102,7 +177,7 @@ class OrientDbStatementExecutor implements SqlStatementExecutor {
     }
 
     private Observable<PropertyResolver> toObservable(Function<ODatabaseDocument, OResultSet> resultSetSupplier) {
-        return Observable.<OResult>create(
+        return onWorker(Observable.<OResult>create(
                 emitter -> sessionProvider.withSession(dbSession -> {
                     long id = operationCounter.incrementAndGet();
                     OResultSet resultSet = resultSetSupplier.apply(dbSession);
@@ -111,8 +186,135 @@ class OrientDbStatementExecutor implements SqlStatementExecutor {
                             .forEach(emitter::onNext);
                     resultSet.close();
                     emitter.onComplete();
-                }))
-                .map(res -> OResultPropertyResolver.create(sessionProvider, res));
+                })))
+                .compose(this::toPropertyResolvers);
+    }
+
+    // Rows are read from open result set one at a time, and each row is passed downstream before the next one
+    // is read, so that cancellation (e.g. by first() or take(n)) stops reading right away. Result set stays open
+    // on the session of generating thread (worker's own session, when workers are used), so that links of streamed
+    // rows are loaded using the same session, and no session beyond the thread's one is taken. Result set is closed
+    // (with session released) on completion or disposal, on the generating thread. Rows are not read ahead of
+    // downstream, but asynchronous downstream operators may still queue them
+    private Observable<PropertyResolver> toStreamingObservable(Function<ODatabaseDocument, OResultSet> resultSetSupplier) {
+        return onWorker(Observable.<OResult, QueryCursor>generate(
+                () -> QueryCursor.open(sessionProvider, resultSetSupplier),
+                QueryCursor::next,
+                QueryCursor::close))
+                .compose(this::toPropertyResolvers);
+    }
+
+    // Results are resolved in pages sharing the same link loader, so that records linked from a page
+    // are loaded together, and records referenced from several results of a page are loaded once
+    private Observable<PropertyResolver> toPropertyResolvers(Observable<OResult> results) {
+        return Observable.defer(() -> {
+            LinkPage page = new LinkPage(OrientDbLinkLoader.create(sessionProvider));
+            return results
+                    .concatMapIterable(page::add)
+                    .concatWith(Observable.defer(() -> Observable.fromIterable(page.flush())));
+        });
+    }
+
+    // Rows without links to records which are not loaded yet are emitted right away. Other rows are held until
+    // the page is full, and then their links are loaded at once. Page size starts with a single row and doubles
+    // up to linkPageSize, so that first rows are not delayed until a full page is read
+    private static class LinkPage {
+        private final OrientDbLinkLoader linkLoader;
+        private final List<OResult> rows = new ArrayList<>();
+        private int size = 1;
+
+        private LinkPage(OrientDbLinkLoader linkLoader) {
+            this.linkLoader = linkLoader;
+        }
+
+        List<PropertyResolver> add(OResult row) {
+            if (rows.isEmpty() && !linkLoader.hasLinksToLoad(row)) {
+                return Collections.singletonList(OResultPropertyResolver.create(linkLoader, row));
+            }
+            rows.add(row);
+            if (rows.size() < size) {
+                return Collections.emptyList();
+            }
+            size = Math.min(size * 2, linkPageSize);
+            return flush();
+        }
+
+        List<PropertyResolver> flush() {
+            linkLoader.prefetch(rows);
+            List<PropertyResolver> resolvers = rows.stream()
+                    .map(res -> OResultPropertyResolver.create(linkLoader, res))
+                    .collect(Collectors.toList());
+            rows.clear();
+            return resolvers;
+        }
+    }
+
+    private static class QueryCursor {
+        private final long id = operationCounter.incrementAndGet();
+        private final OrientDbSessionProvider sessionProvider;
+        private final ODatabaseDocument session;
+        private final OResultSet resultSet;
+
+        private QueryCursor(OrientDbSessionProvider sessionProvider, ODatabaseDocument session, OResultSet resultSet) {
+            this.sessionProvider = sessionProvider;
+            this.session = session;
+            this.resultSet = resultSet;
+        }
+
+        static QueryCursor open(OrientDbSessionProvider sessionProvider, Function<ODatabaseDocument, OResultSet> resultSetSupplier) {
+            ODatabaseDocument session = sessionProvider.acquireSession();
+            try {
+                return new QueryCursor(sessionProvider, session, resultSetSupplier.apply(session));
+            } catch (RuntimeException e) {
+                sessionProvider.releaseSession();
+                throw e;
+            }
+        }
+
+        void next(Emitter<OResult> emitter) {
+            session.activateOnCurrentThread();
+            if (resultSet.hasNext()) {
+                OResult res = resultSet.next();
+                log.trace("[{}] Received: {}", id, res);
+                emitter.onNext(res);
+            } else {
+                emitter.onComplete();
+            }
+        }
+
+        void close() {
+            session.activateOnCurrentThread();
+            resultSet.close();
+            sessionProvider.releaseSession();
+        }
+    }
+
+    // With dedicated worker threads, statements are queued to workers instead of running on subscribing thread
+    private <T> Observable<T> onWorker(Observable<T> observable) {
+        return sessionProvider.scheduler()
+                .map(observable::subscribeOn)
+                .orElse(observable);
+    }
+
+    private Completable onWorker(Completable completable) {
+        return sessionProvider.scheduler()
+                .map(completable::subscribeOn)
+                .orElse(completable);
+    }
+
+    // Positional parameters are numbered across the whole script, so args of all statements are concatenated.
+    // Script transaction is re-run on concurrent modification (e.g. concurrent upserts of the same records).
+    // Within an active transaction script is not wrapped with begin/commit, and is committed with the transaction
+    private static SqlStatement toScript(List<SqlStatement> statements, boolean wrapWithTransaction) {
+        String script = statements.stream()
+                .map(SqlStatement::statement)
+                .collect(wrapWithTransaction
+                        ? Collectors.joining(";\n", "begin;\n", ";\ncommit retry " + commitRetryCount + ";")
+                        : Collectors.joining(";\n", "", ";"));
+        Object[] args = statements.stream()
+                .flatMap(statement -> Arrays.stream(statement.args()))
+                .toArray();
+        return SqlStatement.create(script, args);
     }
 
     private void logStatement(String title, SqlStatement statement) {
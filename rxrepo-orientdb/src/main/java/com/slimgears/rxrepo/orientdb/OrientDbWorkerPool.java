@@ -0,0 +1,111 @@
+package com.slimgears.rxrepo.orientdb;
+
+import com.google.common.base.Throwables;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Fixed set of worker threads, each owning a long-lived session which is opened on first use and stays
+// active on the thread until the pool is closed. Work submitted from other threads is queued to workers
+class OrientDbWorkerPool implements AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(OrientDbWorkerPool.class);
+    private final static AtomicInteger poolCounter = new AtomicInteger();
+    private final Supplier<ODatabaseDocument> sessionSupplier;
+    private final Consumer<ODatabaseDocument> sessionReleaser;
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+    private final Set<ODatabaseDocument> sessions = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<ODatabaseDocument> workerSession = new ThreadLocal<>();
+    private final ExecutorService executor;
+    private final Scheduler scheduler;
+
+    private OrientDbWorkerPool(int threadCount, Supplier<ODatabaseDocument> sessionSupplier, Consumer<ODatabaseDocument> sessionReleaser) {
+        this.sessionSupplier = sessionSupplier;
+        this.sessionReleaser = sessionReleaser;
+        int poolId = poolCounter.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "orientdb-worker-" + poolId + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            workers.add(thread);
+            return thread;
+        });
+        this.scheduler = Schedulers.from(executor);
+    }
+
+    static OrientDbWorkerPool create(int threadCount, Supplier<ODatabaseDocument> sessionSupplier, Consumer<ODatabaseDocument> sessionReleaser) {
+        return new OrientDbWorkerPool(threadCount, sessionSupplier, sessionReleaser);
+    }
+
+    Scheduler scheduler() {
+        return scheduler;
+    }
+
+    <T> T withSession(Function<ODatabaseDocument, T> func) {
+        if (workers.contains(Thread.currentThread())) {
+            return func.apply(session());
+        }
+        try {
+            return executor.submit(() -> func.apply(session())).get();
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Worker's own session, for work which keeps the session across several calls on the worker (e.g. open cursor)
+    ODatabaseDocument workerSession() {
+        if (!workers.contains(Thread.currentThread())) {
+            throw new IllegalStateException("Worker session requested outside of worker thread " + Thread.currentThread().getName());
+        }
+        return session();
+    }
+
+    // Activation is only needed if another session (e.g. of a transaction) was used on the worker meanwhile
+    private ODatabaseDocument session() {
+        ODatabaseDocument session = workerSession.get();
+        if (session == null) {
+            session = sessionSupplier.get();
+            sessions.add(session);
+            workerSession.set(session);
+            log.debug("Opened session for worker {}", Thread.currentThread().getName());
+        }
+        if (!session.isActiveOnCurrentThread()) {
+            session.activateOnCurrentThread();
+        }
+        return session;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(4, TimeUnit.SECONDS)) {
+                log.warn("Worker threads did not finish in time");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sessions.forEach(session -> {
+            session.activateOnCurrentThread();
+            sessionReleaser.accept(session);
+        });
+        sessions.clear();
+    }
+}
@@ -0,0 +1,81 @@
+package com.slimgears.rxrepo.orientdb;
+
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
+import com.slimgears.rxrepo.util.PropertyResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OResultPropertyResolverBenchmark {
+    private final static int rowCount = 100000;
+
+    @Param({"4", "16", "64"})
+    public int columnCount;
+
+    private List<OResult> rows;
+    private OrientDbLinkLoader linkLoader;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        linkLoader = OrientDbLinkLoader.create(OrientDbSessionProvider.create(() -> {
+            throw new UnsupportedOperationException();
+        }));
+        rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; ++i) {
+            OResultInternal row = new OResultInternal();
+            for (int c = 0; c < columnCount; ++c) {
+                row.setProperty(c % 4 == 0 ? "`nested`.`column" + c + "`" : "`column" + c + "`", i + c);
+            }
+            rows.add(row);
+        }
+    }
+
+    @Benchmark
+    public void readAllProperties(Blackhole blackhole) {
+        for (OResult row : rows) {
+            read(OResultPropertyResolver.create(linkLoader, row), blackhole);
+        }
+    }
+
+    private void read(PropertyResolver resolver, Blackhole blackhole) {
+        for (String name : resolver.propertyNames()) {
+            Object value = resolver.getProperty(name, Object.class);
+            if (value instanceof PropertyResolver) {
+                read((PropertyResolver)value, blackhole);
+            } else {
+                blackhole.consume(value);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OResultPropertyResolverBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.slimgears.rxrepo.orientdb;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.orientechnologies.orient.core.record.OElement;
+import com.slimgears.rxrepo.sql.SqlStatement;
+import com.slimgears.rxrepo.test.Product;
+import com.slimgears.rxrepo.test.Products;
+import com.slimgears.rxrepo.test.UniqueId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.slimgears.rxrepo.test.UniqueId.productId;
+
+public class OrientDbObjectConverterTest {
+    @Test
+    public void testStatementWithPlainArgsIsNotCopied() {
+        SqlStatement statement = SqlStatement.create("select from Product where name = ?", "Product 1", 10, Product.Type.ComputerSoftware, null);
+        Assert.assertSame(statement, OrientDbObjectConverter.toOrientDb(statement));
+    }
+
+    @Test
+    public void testCollectionsWithPlainItemsAreNotCopied() {
+        List<String> list = ImmutableList.of("a", "b", "c");
+        ImmutableSet<Integer> set = ImmutableSet.of(1, 2, 3);
+        Object[] args = new Object[] {list, set};
+
+        Assert.assertSame(args, OrientDbObjectConverter.toOrientDbObjects(args));
+    }
+
+    @Test
+    public void testMixedListKeepsOrderAndSize() {
+        UniqueId id1 = productId(1);
+        UniqueId id2 = productId(2);
+        Object[] args = new Object[] {"arg", ImmutableList.of("a", id1, 1, id2)};
+
+        Object[] converted = OrientDbObjectConverter.toOrientDbObjects(args);
+        Assert.assertNotSame(args, converted);
+        Assert.assertEquals("arg", converted[0]);
+        assertConverted(new ArrayList<>((List<?>)converted[1]), id1, id2);
+    }
+
+    @Test
+    public void testMixedSetKeepsOrderAndSize() {
+        UniqueId id1 = productId(1);
+        UniqueId id2 = productId(2);
+
+        Object[] converted = OrientDbObjectConverter.toOrientDbObjects(new Object[] {ImmutableSet.of("a", id1, 1, id2)});
+        assertConverted(new ArrayList<>((Collection<?>)converted[0]), id1, id2);
+    }
+
+    @Test
+    public void testEmbeddedValueIsWrittenWithAsStringProperty() {
+        Product product = Products.createOne();
+
+        OElement element = (OElement)OrientDbObjectConverter.toOrientDbObjects(new Object[] {product})[0];
+        Assert.assertEquals(product.name(), element.getProperty("name"));
+        Assert.assertEquals(product.key().toString(), element.getProperty("keyAsString"));
+        Assert.assertTrue(element.getProperty("key") instanceof OElement);
+    }
+
+    private static void assertConverted(List<?> items, UniqueId id1, UniqueId id2) {
+        Assert.assertEquals(4, items.size());
+        Assert.assertEquals("a", items.get(0));
+        Assert.assertEquals(id1.id(), ((OElement)items.get(1)).<Integer>getProperty("id").intValue());
+        Assert.assertEquals(1, items.get(2));
+        Assert.assertEquals(id2.id(), ((OElement)items.get(3)).<Integer>getProperty("id").intValue());
+    }
+}
@@ -1,19 +1,40 @@
 package com.slimgears.rxrepo.orientdb;
 
+import com.google.common.collect.ImmutableMap;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.slimgears.rxrepo.orientdb.schema.Appliance;
+import com.slimgears.rxrepo.orientdb.schema.v1.Gadget;
 import com.slimgears.rxrepo.query.Repository;
 import com.slimgears.rxrepo.query.decorator.SchedulingQueryProviderDecorator;
 import com.slimgears.rxrepo.test.AbstractRepositoryTest;
+import com.slimgears.rxrepo.test.Product;
+import com.slimgears.rxrepo.test.Products;
+import com.slimgears.util.autovalue.annotations.MetaClass;
 import com.slimgears.util.generic.MoreStrings;
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @RunWith(Parameterized.class)
 public class OrientDbQueryProviderTest extends AbstractRepositoryTest {
     private static final String dbUrl = "embedded:db";
     private static final String dbName = "{}_{}";
 
+    private static final ImmutableMap<OrientDbRepository.Type, ODatabaseType> dbTypes = ImmutableMap.of(
+            OrientDbRepository.Type.Memory, ODatabaseType.MEMORY,
+            OrientDbRepository.Type.Persistent, ODatabaseType.PLOCAL);
+
     @Parameterized.Parameter public OrientDbRepository.Type dbType;
+    protected Repository repository;
 
     @Parameterized.Parameters
     public static OrientDbRepository.Type[] params() {
@@ -24,19 +45,128 @@ public class OrientDbQueryProviderTest extends AbstractRepositoryTest {
 
     @Override
     protected Repository createRepository() {
-        String name = MoreStrings.format(dbName, dbType, testNameRule.getMethodName().replaceAll("\\[\\d+]", ""));
-        return OrientDbRepository
+        repository = configure(OrientDbRepository
                 .builder()
                 .url(dbUrl)
                 .debounceTimeoutMillis(1000)
                 .type(dbType)
-                .name(name)
-                .decorate(SchedulingQueryProviderDecorator.createDefault())
+                .name(databaseName())
+                .decorate(SchedulingQueryProviderDecorator.createDefault()))
                 .build();
+        return repository;
+    }
+
+    protected OrientDbRepository.Builder configure(OrientDbRepository.Builder builder) {
+        return builder;
+    }
+
+    protected String databaseName() {
+        return MoreStrings.format(dbName, dbType, testNameRule.getMethodName().replaceAll("\\[\\d+]", ""));
     }
 
     @Test
     public void testInsertThenUpdate() throws InterruptedException {
         super.testInsertThenUpdate();
     }
+
+    // Statements of the same transaction, subscribed from different threads, share transaction's session
+    @Test
+    public void testConcurrentStatementsInTransaction() throws InterruptedException {
+        List<Product> products = new ArrayList<>();
+        Products.createMany(40).forEach(products::add);
+        repository
+                .transaction(repo -> Observable.range(0, 4)
+                        .flatMapCompletable(i -> repo.entities(Product.metaClass)
+                                .update(products.subList(i * 10, (i + 1) * 10))
+                                .ignoreElement()
+                                .andThen(repo.entities(Product.metaClass).query().count().ignoreElement())
+                                .subscribeOn(Schedulers.io())))
+                .test()
+                .await()
+                .assertNoErrors()
+                .assertComplete();
+
+        Assert.assertEquals(Long.valueOf(40), repository.entities(Product.metaClass).query().count().blockingGet());
+    }
+
+    @Test
+    public void testSchemaIntrospectionIsSkippedForUnchangedClass() {
+        String name = databaseName();
+        OrientDB client = new OrientDB(dbUrl, OrientDBConfig.defaultConfig());
+        client.createIfNotExists(name, dbTypes.get(dbType));
+        try {
+            OrientDbSessionProvider sessionProvider = OrientDbSessionProvider.create(() -> client.open(name, "admin", "admin"));
+            createOrUpdate(sessionProvider, Gadget.metaClass);
+            Assert.assertTrue(hasIndex(sessionProvider, "Gadget.idIndex"));
+
+            // Key index is dropped behind repository's back: as long as class is unchanged, it is not introspected
+            // (and the index is not recreated), while any schema change triggers full introspection
+            dropIndex(sessionProvider, "Gadget.idIndex");
+            createOrUpdate(sessionProvider, Gadget.metaClass);
+            Assert.assertFalse(hasIndex(sessionProvider, "Gadget.idIndex"));
+
+            createOrUpdate(sessionProvider, com.slimgears.rxrepo.orientdb.schema.v2.Gadget.metaClass);
+            Assert.assertTrue(hasIndex(sessionProvider, "Gadget.idIndex"));
+            Assert.assertTrue(sessionProvider.withSession(session -> {
+                return session.getClass("Gadget").existsProperty("description");
+            }));
+
+            dropIndex(sessionProvider, "Gadget.idIndex");
+            createOrUpdate(sessionProvider, com.slimgears.rxrepo.orientdb.schema.v3.Gadget.metaClass);
+            Assert.assertTrue(hasIndex(sessionProvider, "Gadget.idIndex"));
+            Assert.assertTrue(hasIndex(sessionProvider, "Gadget.descriptionIndex"));
+
+            dropIndex(sessionProvider, "Gadget.idIndex");
+            createOrUpdate(sessionProvider, com.slimgears.rxrepo.orientdb.schema.v4.Gadget.metaClass);
+            Assert.assertTrue(hasIndex(sessionProvider, "Gadget.idIndex"));
+
+            dropIndex(sessionProvider, "Gadget.idIndex");
+            createOrUpdate(sessionProvider, com.slimgears.rxrepo.orientdb.schema.v4.Gadget.metaClass);
+            Assert.assertFalse(hasIndex(sessionProvider, "Gadget.idIndex"));
+        } finally {
+            client.drop(name);
+            client.close();
+        }
+    }
+
+    @Test
+    public void testIndexTypeFollowsIndexableKind() {
+        String name = databaseName();
+        OrientDB client = new OrientDB(dbUrl, OrientDBConfig.defaultConfig());
+        client.createIfNotExists(name, dbTypes.get(dbType));
+        try {
+            OrientDbSessionProvider sessionProvider = OrientDbSessionProvider.create(() -> client.open(name, "admin", "admin"));
+            createOrUpdate(sessionProvider, Appliance.metaClass);
+            Assert.assertEquals(OClass.INDEX_TYPE.NOTUNIQUE_HASH_INDEX.name(), indexType(sessionProvider, "Appliance.nameIndex"));
+            Assert.assertEquals(OClass.INDEX_TYPE.UNIQUE_HASH_INDEX.name(), indexType(sessionProvider, "Appliance.codeIndex"));
+            Assert.assertEquals(OClass.INDEX_TYPE.NOTUNIQUE.name(), indexType(sessionProvider, "Appliance.ratingIndex"));
+            Assert.assertEquals(OClass.INDEX_TYPE.UNIQUE.name(), indexType(sessionProvider, "Appliance.serialIndex"));
+        } finally {
+            client.drop(name);
+            client.close();
+        }
+    }
+
+    // Each call uses new schema provider, as if database was reopened by another repository instance
+    private static void createOrUpdate(OrientDbSessionProvider sessionProvider, MetaClass<?> metaClass) {
+        new OrientDbSchemaProvider(sessionProvider).createOrUpdate(metaClass).blockingAwait();
+    }
+
+    private static boolean hasIndex(OrientDbSessionProvider sessionProvider, String indexName) {
+        return sessionProvider.withSession(session -> {
+            session.getMetadata().reload();
+            OClass oClass = session.getClass("Gadget");
+            return oClass != null && oClass.getClassIndex(indexName) != null;
+        });
+    }
+
+    private static String indexType(OrientDbSessionProvider sessionProvider, String indexName) {
+        return sessionProvider.withSession(session -> {
+            return session.getClass("Appliance").getClassIndex(indexName).getType();
+        });
+    }
+
+    private static void dropIndex(OrientDbSessionProvider sessionProvider, String indexName) {
+        sessionProvider.withSession(session -> session.command("drop index `" + indexName + "`").close());
+    }
 }
@@ -0,0 +1,83 @@
+package com.slimgears.rxrepo.orientdb;
+
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class OrientDbSessionPoolTest {
+    private static final String dbUrl = "embedded:db";
+    private static final String dbName = "sessionPoolTest";
+    private OrientDB client;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        client = new OrientDB(dbUrl, OrientDBConfig.defaultConfig());
+        client.createIfNotExists(dbName, ODatabaseType.MEMORY);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        client.drop(dbName);
+        client.close();
+    }
+
+    @Test
+    public void testAcquireIsBoundedByMaxSize() throws InterruptedException, ExecutionException {
+        try (OrientDbSessionPool pool = OrientDbSessionPool.create(client, dbName, "admin", "admin", 1, 2, 200)) {
+            ODatabaseDocument first = acquire(pool).get();
+            ODatabaseDocument second = acquire(pool).get();
+
+            try {
+                acquire(pool).get();
+                Assert.fail("Expected acquisition to time out");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            Assert.assertEquals(2, pool.acquireCount());
+            Assert.assertEquals(1, pool.acquireTimeoutCount());
+
+            release(pool, first).get();
+            release(pool, second).get();
+        }
+    }
+
+    @Test
+    public void testReleasedSessionIsHandedOffToWaiter() throws InterruptedException, ExecutionException, TimeoutException {
+        try (OrientDbSessionPool pool = OrientDbSessionPool.create(client, dbName, "admin", "admin", 1, 1, 2000)) {
+            ODatabaseDocument session = acquire(pool).get();
+            Future<ODatabaseDocument> waiter = acquire(pool);
+            while (pool.waitingCount() == 0) {
+                Thread.sleep(10);
+            }
+
+            release(pool, session).get();
+            release(pool, waiter.get(2, TimeUnit.SECONDS)).get();
+            Assert.assertEquals(2, pool.acquireCount());
+            Assert.assertEquals(0, pool.acquireTimeoutCount());
+        }
+    }
+
+    private Future<ODatabaseDocument> acquire(OrientDbSessionPool pool) {
+        return executor.submit(pool::acquire);
+    }
+
+    private Future<Void> release(OrientDbSessionPool pool, ODatabaseDocument session) {
+        return CompletableFuture.runAsync(() -> pool.release(session), executor);
+    }
+}
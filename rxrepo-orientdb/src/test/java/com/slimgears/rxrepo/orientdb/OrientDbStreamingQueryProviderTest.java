@@ -0,0 +1,48 @@
+package com.slimgears.rxrepo.orientdb;
+
+import com.slimgears.rxrepo.test.Product;
+import com.slimgears.rxrepo.test.Products;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Runs shared repository tests with query results streamed from open result set
+public class OrientDbStreamingQueryProviderTest extends OrientDbQueryProviderTest {
+    private final AtomicReference<OrientDbRepository.SessionPoolMetrics> sessionPoolMetrics = new AtomicReference<>();
+
+    @Override
+    protected OrientDbRepository.Builder configure(OrientDbRepository.Builder builder) {
+        return builder
+                .streamQueries(true)
+                .sessionPool(1, 16, 5000)
+                .sessionPoolMetrics(sessionPoolMetrics::set);
+    }
+
+    @Override
+    protected String databaseName() {
+        return "streaming_" + super.databaseName();
+    }
+
+    @Test
+    public void testResultSetIsClosedAfterFirst() throws InterruptedException {
+        repository.entities(Product.metaClass)
+                .update(Products.createMany(1000))
+                .ignoreElement()
+                .blockingAwait();
+
+        Product product = repository.entities(Product.metaClass)
+                .query()
+                .retrieve()
+                .blockingFirst();
+        Assert.assertNotNull(product);
+
+        // Cursor session is released once the result set is closed, which may happen on another thread
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (sessionPoolMetrics.get().activeCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, sessionPoolMetrics.get().activeCount());
+    }
+}
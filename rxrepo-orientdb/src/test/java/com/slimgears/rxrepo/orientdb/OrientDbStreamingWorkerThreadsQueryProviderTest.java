@@ -0,0 +1,69 @@
+package com.slimgears.rxrepo.orientdb;
+
+import com.slimgears.rxrepo.test.Product;
+import com.slimgears.rxrepo.test.Products;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Runs shared repository tests with streamed queries on worker threads, with session pool holding
+// worker sessions and a single session for transactions
+public class OrientDbStreamingWorkerThreadsQueryProviderTest extends OrientDbQueryProviderTest {
+    private final AtomicReference<OrientDbRepository.SessionPoolMetrics> sessionPoolMetrics = new AtomicReference<>();
+
+    @Override
+    protected OrientDbRepository.Builder configure(OrientDbRepository.Builder builder) {
+        return builder
+                .workerThreads(4)
+                .sessionPool(1, 5, 5000)
+                .streamQueries(true)
+                .sessionPoolMetrics(sessionPoolMetrics::set);
+    }
+
+    @Override
+    protected String databaseName() {
+        return "streaming_workers_" + super.databaseName();
+    }
+
+    @Test
+    public void testStreamedQueriesUseWorkerSessions() throws InterruptedException {
+        repository.entities(Product.metaClass)
+                .update(Products.createMany(100))
+                .ignoreElement()
+                .blockingAwait();
+
+        for (int i = 0; i < 10; ++i) {
+            Assert.assertEquals(100, repository.entities(Product.metaClass)
+                    .query()
+                    .retrieve()
+                    .count()
+                    .blockingGet()
+                    .intValue());
+        }
+        Assert.assertEquals(0, sessionPoolMetrics.get().acquireTimeoutCount());
+        Assert.assertTrue(sessionPoolMetrics.get().activeCount() <= 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSessionPoolWithoutSessionsForTransactionsIsRejected() {
+        OrientDbRepository.builder()
+                .workerThreads(4)
+                .sessionPool(1, 4, 1000)
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSessionPoolWithMinSizeAboveMaxSizeIsRejected() {
+        OrientDbRepository.builder()
+                .sessionPool(6, 5, 1000)
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSessionPoolWithoutAcquireTimeoutIsRejected() {
+        OrientDbRepository.builder()
+                .sessionPool(1, 5, 0)
+                .build();
+    }
+}
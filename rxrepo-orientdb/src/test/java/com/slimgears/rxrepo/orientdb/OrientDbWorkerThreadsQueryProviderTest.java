@@ -0,0 +1,26 @@
+package com.slimgears.rxrepo.orientdb;
+
+import org.junit.Test;
+
+// Runs shared repository tests with all database work dispatched to dedicated worker threads
+public class OrientDbWorkerThreadsQueryProviderTest extends OrientDbQueryProviderTest {
+    @Override
+    protected OrientDbRepository.Builder configure(OrientDbRepository.Builder builder) {
+        return builder
+                .workerThreads(4)
+                .sessionPool(1, 8, 5000);
+    }
+
+    @Override
+    protected String databaseName() {
+        return "workers_" + super.databaseName();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSessionPoolSmallerThanWorkerThreadsIsRejected() {
+        OrientDbRepository.builder()
+                .workerThreads(4)
+                .sessionPool(1, 2, 1000)
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.slimgears.rxrepo.orientdb.schema;
+
+import com.slimgears.rxrepo.annotations.Indexable;
+import com.slimgears.rxrepo.annotations.UseExpressions;
+import com.slimgears.util.autovalue.annotations.AutoValuePrototype;
+import com.slimgears.util.autovalue.annotations.Key;
+
+import javax.annotation.Nullable;
+
+@AutoValuePrototype
+@UseExpressions
+public interface AppliancePrototype {
+    @Key String id();
+    @Nullable @Indexable String name();
+    @Nullable @Indexable(unique = true, kind = Indexable.Kind.Hash) String code();
+    @Indexable(kind = Indexable.Kind.Auto) int rating();
+    @Nullable @Indexable(unique = true, kind = Indexable.Kind.Ordered) String serial();
+}
@@ -0,0 +1,14 @@
+package com.slimgears.rxrepo.orientdb.schema.v1;
+
+import com.slimgears.rxrepo.annotations.UseExpressions;
+import com.slimgears.util.autovalue.annotations.AutoValuePrototype;
+import com.slimgears.util.autovalue.annotations.Key;
+
+import javax.annotation.Nullable;
+
+@AutoValuePrototype
+@UseExpressions
+public interface GadgetPrototype {
+    @Key String id();
+    @Nullable String name();
+}
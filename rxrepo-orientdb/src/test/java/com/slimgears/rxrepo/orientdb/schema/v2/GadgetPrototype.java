@@ -0,0 +1,16 @@
+package com.slimgears.rxrepo.orientdb.schema.v2;
+
+import com.slimgears.rxrepo.annotations.UseExpressions;
+import com.slimgears.util.autovalue.annotations.AutoValuePrototype;
+import com.slimgears.util.autovalue.annotations.Key;
+
+import javax.annotation.Nullable;
+
+// Adds property to v1
+@AutoValuePrototype
+@UseExpressions
+public interface GadgetPrototype {
+    @Key String id();
+    @Nullable String name();
+    @Nullable String description();
+}
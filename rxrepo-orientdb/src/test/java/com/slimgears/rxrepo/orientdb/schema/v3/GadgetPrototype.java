@@ -0,0 +1,17 @@
+package com.slimgears.rxrepo.orientdb.schema.v3;
+
+import com.slimgears.rxrepo.annotations.Indexable;
+import com.slimgears.rxrepo.annotations.UseExpressions;
+import com.slimgears.util.autovalue.annotations.AutoValuePrototype;
+import com.slimgears.util.autovalue.annotations.Key;
+
+import javax.annotation.Nullable;
+
+// Adds index to v2
+@AutoValuePrototype
+@UseExpressions
+public interface GadgetPrototype {
+    @Key String id();
+    @Nullable String name();
+    @Nullable @Indexable String description();
+}
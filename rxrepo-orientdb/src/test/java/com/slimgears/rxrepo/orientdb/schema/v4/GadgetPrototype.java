@@ -0,0 +1,18 @@
+package com.slimgears.rxrepo.orientdb.schema.v4;
+
+import com.slimgears.rxrepo.annotations.Indexable;
+import com.slimgears.rxrepo.annotations.Searchable;
+import com.slimgears.rxrepo.annotations.UseExpressions;
+import com.slimgears.util.autovalue.annotations.AutoValuePrototype;
+import com.slimgears.util.autovalue.annotations.Key;
+
+import javax.annotation.Nullable;
+
+// Makes name of v3 searchable
+@AutoValuePrototype
+@UseExpressions
+public interface GadgetPrototype {
+    @Key String id();
+    @Nullable @Searchable String name();
+    @Nullable @Indexable String description();
+}
@@ -7,22 +7,38 @@ import com.slimgears.util.autovalue.annotations.PropertyMeta;
 import com.slimgears.util.stream.Lazy;
 import io.reactivex.Completable;
 import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class CacheSchemaProviderDecorator implements SchemaProvider {
+    private final static Logger log = LoggerFactory.getLogger(CacheSchemaProviderDecorator.class);
     private final SchemaProvider underlyingProvider;
     private final Lazy<String> dbName;
     private final Map<String, Completable> cache = new ConcurrentHashMap<>();
+    private final int maxConcurrency;
 
-    private CacheSchemaProviderDecorator(SchemaProvider underlyingProvider) {
+    private CacheSchemaProviderDecorator(SchemaProvider underlyingProvider, int maxConcurrency) {
         this.underlyingProvider = underlyingProvider;
         this.dbName = Lazy.of(underlyingProvider::databaseName);
+        this.maxConcurrency = maxConcurrency;
     }
 
     public static SchemaProvider decorate(SchemaProvider schemaProvider) {
-        return new CacheSchemaProviderDecorator(schemaProvider);
+        return decorate(schemaProvider, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static SchemaProvider decorate(SchemaProvider schemaProvider, int maxConcurrency) {
+        return new CacheSchemaProviderDecorator(schemaProvider, maxConcurrency);
     }
 
     @Override
@@ -37,6 +53,49 @@ public class CacheSchemaProviderDecorator implements SchemaProvider {
                 tn -> Completable.defer(() -> createOrUpdateWithReferences(metaClass)).cache());
     }
 
+    // Classes are grouped into levels of reference dependency graph: each class is placed above all classes
+    // it references (back references of cycles are ignored). Classes of the same level are independent,
+    // so they are created in parallel (up to maxConcurrency at a time), while levels are created one after another
+    @Override
+    public Completable createOrUpdate(Iterable<? extends MetaClass<?>> metaClasses) {
+        return Completable.defer(() -> {
+            Map<String, Integer> levels = new HashMap<>();
+            Map<Integer, List<MetaClass<?>>> classesByLevel = new TreeMap<>();
+            metaClasses.forEach(meta -> level(meta, levels, new HashSet<>(), classesByLevel));
+            log.debug("Creating {} classes in {} levels", levels.size(), classesByLevel.size());
+            return Observable
+                    .fromIterable(classesByLevel.values())
+                    .concatMapCompletable(level -> Observable
+                            .fromIterable(level)
+                            .flatMapCompletable(meta -> createOrUpdate(meta).subscribeOn(Schedulers.io()), false, maxConcurrency));
+        });
+    }
+
+    private int level(MetaClass<?> metaClass, Map<String, Integer> levels, Set<String> visiting, Map<Integer, List<MetaClass<?>>> classesByLevel) {
+        String tableName = tableName(metaClass);
+        Integer level = levels.get(tableName);
+        if (level != null) {
+            return level;
+        }
+        if (!visiting.add(tableName)) {
+            return -1;
+        }
+
+        int maxReferenceLevel = -1;
+        for (PropertyMeta<?, ?> property : metaClass.properties()) {
+            if (PropertyMetas.isReference(property)) {
+                MetaClass<?> meta = MetaClasses.forTokenUnchecked(property.type());
+                maxReferenceLevel = Math.max(maxReferenceLevel, level(meta, levels, visiting, classesByLevel));
+            }
+        }
+
+        visiting.remove(tableName);
+        int classLevel = maxReferenceLevel + 1;
+        levels.put(tableName, classLevel);
+        classesByLevel.computeIfAbsent(classLevel, l -> new ArrayList<>()).add(metaClass);
+        return classLevel;
+    }
+
     private <T> Completable createOrUpdateWithReferences(MetaClass<T> metaClass) {
         Completable references = Observable
                 .fromIterable(metaClass.properties())
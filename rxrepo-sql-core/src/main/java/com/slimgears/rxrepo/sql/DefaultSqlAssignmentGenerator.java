@@ -1,17 +1,17 @@
 package com.slimgears.rxrepo.sql;
 
+import com.google.common.collect.Maps;
 import com.slimgears.rxrepo.util.PropertyResolver;
 import com.slimgears.util.autovalue.annotations.HasMetaClassWithKey;
 import com.slimgears.util.autovalue.annotations.MetaClass;
 import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
 import com.slimgears.util.stream.Lazy;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
-import static com.slimgears.rxrepo.sql.StatementUtils.concat;
-
 public class DefaultSqlAssignmentGenerator implements SqlAssignmentGenerator {
     private final SqlExpressionGenerator sqlExpressionGenerator;
 
@@ -21,7 +21,7 @@ public class DefaultSqlAssignmentGenerator implements SqlAssignmentGenerator {
 
     @SuppressWarnings("unchecked")
     @Override
-    public <K, T> Function<String, Stream<String>> toAssignment(
+    public <K, T> Function<String, Stream<Map.Entry<String, String>>> toColumnValues(
             MetaClassWithKey<K, T> metaClass,
             PropertyResolver propertyResolver,
             ReferenceResolver referenceResolver) {
@@ -40,8 +40,7 @@ public class DefaultSqlAssignmentGenerator implements SqlAssignmentGenerator {
             String valStr = (val instanceof HasMetaClassWithKey)
                     ? sqlExpressionGenerator.fromStatement(referenceResolver.toReferenceValue((HasMetaClassWithKey)val))
                     : sqlExpressionGenerator.fromConstant(val);
-            String assignment = concat(toFullPropertyName(metaClass, prop), "=", valStr);
-            return Stream.of(assignment);
+            return Stream.of(Maps.immutableEntry(toFullPropertyName(metaClass, prop), valStr));
         };
     }
 
@@ -28,7 +28,8 @@ public class DefaultSqlServiceFactory implements SqlServiceFactory {
             @Nonnull Function<SqlServiceFactory, SchemaProvider> schemaProvider,
             @Nonnull Function<SqlServiceFactory, SqlExpressionGenerator> expressionGenerator,
             @Nonnull Function<SqlServiceFactory, SqlAssignmentGenerator> assignmentGenerator,
-            @Nonnull Completable shutdownSignal) {
+            @Nonnull Completable shutdownSignal,
+            int batchSize) {
 
         this.statementProvider = Lazy.of(() -> statementProvider.apply(this));
         this.statementExecutor = Lazy.of(() -> statementExecutor.apply(this));
@@ -41,7 +42,8 @@ public class DefaultSqlServiceFactory implements SqlServiceFactory {
                 statementProvider(),
                 statementExecutor(),
                 schemaProvider(),
-                referenceResolver()));
+                referenceResolver(),
+                batchSize));
     }
 
     @Override
@@ -102,6 +104,7 @@ public class DefaultSqlServiceFactory implements SqlServiceFactory {
         private Function<SqlServiceFactory, SqlAssignmentGenerator> assignmentGenerator;
         private Scheduler scheduler = Schedulers.single();
         private Completable shutdownSignal = Completable.never();
+        private int batchSize = 1000;
 
         @Override
         public SqlServiceFactory.Builder statementProvider(Function<SqlServiceFactory, SqlStatementProvider> statementProvider) {
@@ -145,6 +148,15 @@ public class DefaultSqlServiceFactory implements SqlServiceFactory {
             return this;
         }
 
+        @Override
+        public SqlServiceFactory.Builder batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("batchSize should be positive: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
         @Override
         public SqlServiceFactory build() {
             return new DefaultSqlServiceFactory(
@@ -154,7 +166,8 @@ public class DefaultSqlServiceFactory implements SqlServiceFactory {
                     requireNonNull(schemaProvider),
                     requireNonNull(expressionGenerator),
                     requireNonNull(assignmentGenerator),
-                    shutdownSignal);
+                    shutdownSignal,
+                    batchSize);
         }
     }
 }
@@ -28,18 +28,33 @@ public class DefaultSqlStatementProvider implements SqlStatementProvider {
     private final SqlExpressionGenerator sqlExpressionGenerator;
     private final SqlAssignmentGenerator sqlAssignmentGenerator;
     private final SchemaProvider schemaProvider;
+    private final SqlDialect dialect;
+    private final SqlStatementTemplateCache templateCache = new SqlStatementTemplateCache();
 
     public DefaultSqlStatementProvider(SqlExpressionGenerator sqlExpressionGenerator,
                                        SqlAssignmentGenerator sqlAssignmentGenerator,
                                        SchemaProvider schemaProvider) {
+        this(sqlExpressionGenerator, sqlAssignmentGenerator, schemaProvider, SqlDialect.defaultDialect);
+    }
+
+    public DefaultSqlStatementProvider(SqlExpressionGenerator sqlExpressionGenerator,
+                                       SqlAssignmentGenerator sqlAssignmentGenerator,
+                                       SchemaProvider schemaProvider,
+                                       SqlDialect dialect) {
         this.sqlExpressionGenerator = sqlExpressionGenerator;
         this.sqlAssignmentGenerator = sqlAssignmentGenerator;
         this.schemaProvider = schemaProvider;
+        this.dialect = dialect;
     }
 
     @Override
     public <K, S, T> SqlStatement forQuery(QueryInfo<K, S, T> queryInfo) {
-        return statement(() -> of(
+        SqlStatementTemplateCache.Shape shape = SqlStatementTemplateCache.shape("query", queryInfo.metaClass(), queryInfo.distinct());
+        addMapping(shape, queryInfo);
+        shape.add(queryInfo.predicate());
+        queryInfo.sorting().forEach(si -> shape.add(si.property()).add(si.ascending()));
+        shape.add(queryInfo.limit(), queryInfo.skip());
+        return statement(shape, () -> of(
                 selectClause(queryInfo),
                 fromClause(queryInfo),
                 whereClause(queryInfo),
@@ -50,7 +65,9 @@ public class DefaultSqlStatementProvider implements SqlStatementProvider {
 
     @Override
     public <K, S, T, R> SqlStatement forAggregation(QueryInfo<K, S, T> queryInfo, ObjectExpression<T, R> aggregation, String projectedName) {
-        return statement(() -> of(
+        SqlStatementTemplateCache.Shape shape = SqlStatementTemplateCache.shape("aggregation", queryInfo.metaClass(), projectedName);
+        shape.add(queryInfo.mapping()).add(aggregation).add(queryInfo.predicate());
+        return statement(shape, () -> of(
                 selectClause(queryInfo, aggregation, projectedName),
                 fromClause(queryInfo),
                 whereClause(queryInfo)));
@@ -58,7 +75,10 @@ public class DefaultSqlStatementProvider implements SqlStatementProvider {
 
     @Override
     public <K, S> SqlStatement forUpdate(UpdateInfo<K, S> updateInfo) {
-        return statement(() -> of(
+        SqlStatementTemplateCache.Shape shape = SqlStatementTemplateCache.shape("update", updateInfo.metaClass());
+        updateInfo.propertyUpdates().forEach(pu -> shape.add(pu.property()).add(pu.updater()));
+        shape.add(updateInfo.predicate()).add(updateInfo.limit());
+        return statement(shape, () -> of(
                 "update",
                 schemaProvider.tableName(updateInfo.metaClass()),
                 "set",
@@ -72,7 +92,9 @@ public class DefaultSqlStatementProvider implements SqlStatementProvider {
 
     @Override
     public <K, S> SqlStatement forDelete(DeleteInfo<K, S> deleteInfo) {
-        return statement(() -> of(
+        SqlStatementTemplateCache.Shape shape = SqlStatementTemplateCache.shape("delete", deleteInfo.metaClass());
+        shape.add(deleteInfo.predicate()).add(deleteInfo.limit());
+        return statement(shape, () -> of(
                 "delete",
                 fromClause(deleteInfo),
                 whereClause(deleteInfo),
@@ -91,44 +113,40 @@ public class DefaultSqlStatementProvider implements SqlStatementProvider {
 
     private <K, S> SqlStatement forInsertOrUpdate(MetaClassWithKey<K, S> metaClass, PropertyResolver propertyResolver, ReferenceResolver resolver, boolean forced) {
         PropertyMeta<S, K> keyProperty = metaClass.keyProperty();
-
-        return statement(() -> of(
-                "update",
-                schemaProvider.tableName(metaClass),
-                "set",
-                Streams
-                        .fromIterable(propertyResolver.propertyNames())
-                        .flatMap(sqlAssignmentGenerator.toAssignment(metaClass, propertyResolver, resolver))
-                        .collect(Collectors.joining(", ")),
-                forced ? "upsert" : "",
-                "return after",
-                "where",
-                toConditionClause(PropertyExpression.ofObject(keyProperty).eq(propertyResolver.getProperty(keyProperty)))
-        ));
+        Supplier<String> keyCondition = () -> toConditionClause(PropertyExpression.ofObject(keyProperty).eq(propertyResolver.getProperty(keyProperty)));
+
+        return statement(() -> {
+            String tableName = schemaProvider.tableName(metaClass);
+            List<Map.Entry<String, String>> columnValues = toColumnValues(metaClass, propertyResolver, resolver);
+            return of(forced
+                    ? dialect.upsert(tableName, sqlExpressionGenerator.fromProperty(keyProperty), columnValues, keyCondition)
+                    : dialect.update(tableName, columnValues, keyCondition));
+        });
     }
 
     @Override
     public <K, S> SqlStatement forDrop(MetaClassWithKey<K, S> metaClass) {
-        return statement(() -> of("drop", "table", schemaProvider.tableName(metaClass)));
+        return statement(() -> of(dialect.dropTable(schemaProvider.tableName(metaClass))));
     }
 
     @Override
     public SqlStatement forDrop() {
-        return statement(() -> of("drop", "database", schemaProvider.databaseName()));
+        return statement(() -> of(dialect.dropDatabase(schemaProvider.databaseName())));
     }
 
     @Override
     public <K, S> SqlStatement forInsert(MetaClassWithKey<K, S> metaClass, PropertyResolver propertyResolver, ReferenceResolver resolver) {
-        return statement(() -> of(
-                        "insert",
-                        "into",
-                        schemaProvider.tableName(metaClass),
-                        "set",
-                        Streams
-                                .fromIterable(propertyResolver.propertyNames())
-                                .flatMap(sqlAssignmentGenerator.toAssignment(metaClass, propertyResolver, resolver))
-                                .collect(Collectors.joining(", "))
-                ));
+        return statement(() -> {
+            String tableName = schemaProvider.tableName(metaClass);
+            return of(dialect.insert(tableName, toColumnValues(metaClass, propertyResolver, resolver)));
+        });
+    }
+
+    private <K, S> List<Map.Entry<String, String>> toColumnValues(MetaClassWithKey<K, S> metaClass, PropertyResolver propertyResolver, ReferenceResolver resolver) {
+        return Streams
+                .fromIterable(propertyResolver.propertyNames())
+                .flatMap(sqlAssignmentGenerator.toColumnValues(metaClass, propertyResolver, resolver))
+                .collect(Collectors.toList());
     }
 
     private SqlStatement statement(Supplier<SqlStatement> statementSupplier) {
@@ -137,6 +155,27 @@ public class DefaultSqlStatementProvider implements SqlStatementProvider {
         return statement.withArgs(params.toArray());
     }
 
+    private SqlStatement statement(SqlStatementTemplateCache.Shape shape, Supplier<SqlStatement> statementSupplier) {
+        return templateCache.statement(shape, () -> statement(statementSupplier));
+    }
+
+    long templateCacheHits() {
+        return templateCache.hitCount();
+    }
+
+    // Mirrors order in which selectClause emits mapping params: mapping is generated once per selected property
+    @SuppressWarnings("unchecked")
+    private <K, S, T> void addMapping(SqlStatementTemplateCache.Shape shape, QueryInfo<K, S, T> queryInfo) {
+        ObjectExpression<S, T> expression = Optional
+                .ofNullable(queryInfo.mapping())
+                .orElse(ObjectExpression.arg((TypeToken)queryInfo.metaClass().asType()));
+        if (queryInfo.properties() == null || queryInfo.properties().isEmpty()) {
+            shape.add(expression);
+            return;
+        }
+        eliminateRedundantProperties(queryInfo.properties()).forEach(prop -> shape.add(expression).add(prop));
+    }
+
     @SuppressWarnings("unchecked")
     private <K, S, T, Q extends HasMapping<S, T> & HasEntityMeta<K, S> & HasProperties<T>> String selectClause(Q queryInfo) {
         ObjectExpression<S, T> expression = Optional
@@ -148,7 +187,7 @@ public class DefaultSqlStatementProvider implements SqlStatementProvider {
         return Optional.of(toMappingClause(expression, queryInfo.properties()))
                 .filter(exp -> !exp.isEmpty())
                 .map(exp -> concat(selectOperator, exp))
-                .orElse(selectOperator);
+                .orElseGet(() -> concat(selectOperator, dialect.selectAll()));
     }
 
     private <K, S, T, R, Q extends HasMapping<S, T> & HasEntityMeta<K, S> & HasProperties<T>> String selectClause(Q statement, ObjectExpression<T, R> aggregation, String projectedName) {
@@ -158,7 +197,7 @@ public class DefaultSqlStatementProvider implements SqlStatementProvider {
                         .map(exp -> sqlExpressionGenerator.toSqlExpression(aggregation, exp))
                         .orElseGet(() -> sqlExpressionGenerator.toSqlExpression(aggregation)),
                 "as",
-                projectedName);
+                dialect.identifier(projectedName));
     }
 
     private <S, T> String toMappingClause(ObjectExpression<S, T> expression, Collection<PropertyExpression<T, ?, ?>> properties) {
@@ -189,13 +228,13 @@ public class DefaultSqlStatementProvider implements SqlStatementProvider {
 
     private <Q extends HasLimit> String limitClause(Q statement) {
         return Optional.ofNullable(statement.limit())
-                .map(count -> "limit " + count)
+                .map(dialect::limitClause)
                 .orElse("");
     }
 
     private <Q extends HasPagination> String skipClause(Q statement) {
         return Optional.ofNullable(statement.skip())
-                .map(count -> "skip " + count)
+                .map(dialect::skipClause)
                 .orElse("");
     }
 
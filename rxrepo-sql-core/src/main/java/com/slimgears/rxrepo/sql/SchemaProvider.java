@@ -2,9 +2,15 @@ package com.slimgears.rxrepo.sql;
 
 import com.slimgears.util.autovalue.annotations.MetaClass;
 import io.reactivex.Completable;
+import io.reactivex.Observable;
 
 public interface SchemaProvider {
     String databaseName();
     <T> Completable createOrUpdate(MetaClass<T> metaClass);
+
+    default Completable createOrUpdate(Iterable<? extends MetaClass<?>> metaClasses) {
+        return Observable.fromIterable(metaClasses).concatMapCompletable(this::createOrUpdate);
+    }
+
     <T> String tableName(MetaClass<T> metaClass);
 }
@@ -3,11 +3,21 @@ package com.slimgears.rxrepo.sql;
 import com.slimgears.rxrepo.util.PropertyResolver;
 import com.slimgears.util.autovalue.annotations.MetaClassWithKey;
 
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import static com.slimgears.rxrepo.sql.StatementUtils.concat;
+
 public interface SqlAssignmentGenerator {
-    <K, T> Function<String, Stream<String>> toAssignment(MetaClassWithKey<K, T> metaClass,
-                                                         PropertyResolver propertyResolver,
-                                                         ReferenceResolver referenceResolver);
+    <K, T> Function<String, Stream<Map.Entry<String, String>>> toColumnValues(MetaClassWithKey<K, T> metaClass,
+                                                                             PropertyResolver propertyResolver,
+                                                                             ReferenceResolver referenceResolver);
+
+    default <K, T> Function<String, Stream<String>> toAssignment(MetaClassWithKey<K, T> metaClass,
+                                                                 PropertyResolver propertyResolver,
+                                                                 ReferenceResolver referenceResolver) {
+        Function<String, Stream<Map.Entry<String, String>>> columnValues = toColumnValues(metaClass, propertyResolver, referenceResolver);
+        return prop -> columnValues.apply(prop).map(cv -> concat(cv.getKey(), "=", cv.getValue()));
+    }
 }
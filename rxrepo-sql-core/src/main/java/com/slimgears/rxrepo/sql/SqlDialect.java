@@ -0,0 +1,57 @@
+package com.slimgears.rxrepo.sql;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.slimgears.rxrepo.sql.StatementUtils.concat;
+
+// Statement forms which differ between SQL databases. Default implementation produces OrientDB flavored SQL.
+// Parameters are collected in generation order: implementations should not reorder or repeat value expressions.
+public interface SqlDialect {
+    SqlDialect defaultDialect = new SqlDialect() {};
+
+    default String selectAll() {
+        return "";
+    }
+
+    default String identifier(String name) {
+        return name;
+    }
+
+    default String limitClause(long limit) {
+        return "limit " + limit;
+    }
+
+    default String skipClause(long skip) {
+        return "skip " + skip;
+    }
+
+    default String insert(String tableName, List<Map.Entry<String, String>> columnValues) {
+        return concat("insert", "into", tableName, "set", toAssignments(columnValues));
+    }
+
+    default String update(String tableName, List<Map.Entry<String, String>> columnValues, Supplier<String> keyCondition) {
+        return concat("update", tableName, "set", toAssignments(columnValues), "return after", "where", keyCondition.get());
+    }
+
+    default String upsert(String tableName, String keyColumn, List<Map.Entry<String, String>> columnValues, Supplier<String> keyCondition) {
+        return concat("update", tableName, "set", toAssignments(columnValues), "upsert", "return after", "where", keyCondition.get());
+    }
+
+    default String dropTable(String tableName) {
+        return concat("drop", "table", tableName);
+    }
+
+    default String dropDatabase(String databaseName) {
+        return concat("drop", "database", databaseName);
+    }
+
+    static String toAssignments(List<Map.Entry<String, String>> columnValues) {
+        return columnValues
+                .stream()
+                .map(cv -> concat(cv.getKey(), "=", cv.getValue()))
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -8,6 +8,7 @@ import com.slimgears.rxrepo.expressions.ObjectExpression;
 import com.slimgears.rxrepo.expressions.PropertyExpression;
 import com.slimgears.rxrepo.expressions.internal.MoreTypeTokens;
 import com.slimgears.rxrepo.query.Notification;
+import com.slimgears.rxrepo.query.Notifications;
 import com.slimgears.rxrepo.query.provider.*;
 import com.slimgears.rxrepo.util.PropertyMetas;
 import com.slimgears.rxrepo.util.PropertyResolver;
@@ -22,8 +23,10 @@ import io.reactivex.functions.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static com.slimgears.util.generic.LazyString.lazy;
 
@@ -34,15 +37,33 @@ public class SqlQueryProvider implements QueryProvider {
     private final SqlStatementExecutor statementExecutor;
     private final SchemaProvider schemaProvider;
     private final ReferenceResolver referenceResolver;
+    private final int batchSize;
 
     SqlQueryProvider(SqlStatementProvider statementProvider,
                      SqlStatementExecutor statementExecutor,
                      SchemaProvider schemaProvider,
-                     ReferenceResolver referenceResolver) {
+                     ReferenceResolver referenceResolver,
+                     int batchSize) {
         this.statementProvider = statementProvider;
         this.statementExecutor = statementExecutor;
         this.schemaProvider = schemaProvider;
         this.referenceResolver = referenceResolver;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Single<Transaction> beginTransaction() {
+        return statementExecutor
+                .beginTransaction()
+                .map(tx -> Transaction.create(
+                        new SqlQueryProvider(statementProvider, tx.executor(), schemaProvider, referenceResolver, batchSize),
+                        tx.commit(),
+                        tx.rollback()));
+    }
+
+    @Override
+    public Completable warmUp(Iterable<? extends MetaClassWithKey<?, ?>> metaClasses) {
+        return schemaProvider.createOrUpdate(metaClasses);
     }
 
     @Override
@@ -54,11 +75,38 @@ public class SqlQueryProvider implements QueryProvider {
                         .doOnSubscribe(d -> log.debug("Beginning creating class {}", lazy(metaClass::simpleName)))
                         .doOnComplete(() -> log.debug("Finished creating class {}", lazy(metaClass::simpleName)))
                         .andThen(Observable.fromIterable(entities)
-                                .flatMapSingle(e -> insert(metaClass, e))
-                                .ignoreElements()))
+                                .map(e -> statementProvider.forInsert(metaClass, e, referenceResolver))
+                                .buffer(batchSize)
+                                .concatMapCompletable(statementExecutor::executeBatch)))
                 .orElseGet(Completable::complete);
     }
 
+    // Each batch of upserts is executed as a single batch statement, after which stored entities
+    // of the whole batch are retrieved with a single query by keys, and returned in order of given entities
+    @Override
+    public <K, S> Single<List<S>> insertOrUpdate(MetaClassWithKey<K, S> metaClass, Iterable<S> entities) {
+        return schemaProvider.createOrUpdate(metaClass)
+                .andThen(Observable.fromIterable(entities)
+                        .buffer(batchSize)
+                        .concatMap(batch -> statementExecutor
+                                .executeBatch(batch.stream()
+                                        .map(e -> statementProvider.forInsertOrUpdate(metaClass, e, referenceResolver))
+                                        .collect(Collectors.toList()))
+                                .andThen(Observable.defer(() -> storedEntities(metaClass, batch))))
+                        .toList());
+    }
+
+    private <K, S> Observable<S> storedEntities(MetaClassWithKey<K, S> metaClass, List<S> entities) {
+        List<K> keys = entities.stream().map(metaClass::keyOf).collect(Collectors.toList());
+        return statementExecutor
+                .executeQuery(forKeys(metaClass, keys))
+                .map(pr -> pr.toObject(metaClass))
+                .toMap(metaClass::keyOf)
+                .flatMapObservable(stored -> Observable.fromIterable(keys)
+                        .map(key -> Optional.ofNullable(stored.get(key))
+                                .orElseThrow(() -> new IllegalStateException("Stored entity not found: " + key))));
+    }
+
     @Override
     public <K, S> Single<S> insertOrUpdate(MetaClassWithKey<K, S> metaClass, S entity) {
         return insertOrUpdate(metaClass, PropertyResolver.fromObject(metaClass, entity));
@@ -66,16 +114,9 @@ public class SqlQueryProvider implements QueryProvider {
 
     @Override
     public <K, S> Maybe<S> insertOrUpdate(MetaClassWithKey<K, S> metaClass, K key, Function<Maybe<S>, Maybe<S>> entityUpdater) {
-        SqlStatement statement = statementProvider.forQuery(QueryInfo
-                .<K, S, S>builder()
-                .metaClass(metaClass)
-                .predicate(PropertyExpression.ofObject(metaClass.keyProperty()).eq(key))
-                .limit(1L)
-                .build());
-
         return schemaProvider.createOrUpdate(metaClass)
             .andThen(statementExecutor
-                .executeQuery(statement)
+                .executeQuery(forKey(metaClass, key))
                 .firstElement()
                 .flatMap((PropertyResolver pr) -> {
                     S oldObj = pr.toObject(metaClass);
@@ -90,17 +131,35 @@ public class SqlQueryProvider implements QueryProvider {
                         .flatMap(e -> insert(metaClass, e).toMaybe()))));
     }
 
+    private <K, S> SqlStatement forKey(MetaClassWithKey<K, S> metaClass, K key) {
+        return statementProvider.forQuery(QueryInfo
+                .<K, S, S>builder()
+                .metaClass(metaClass)
+                .predicate(PropertyExpression.ofObject(metaClass.keyProperty()).eq(key))
+                .limit(1L)
+                .build());
+    }
+
+    private <K, S> SqlStatement forKeys(MetaClassWithKey<K, S> metaClass, List<K> keys) {
+        return statementProvider.forQuery(QueryInfo
+                .<K, S, S>builder()
+                .metaClass(metaClass)
+                .predicate(PropertyExpression.ofObject(metaClass.keyProperty()).in(keys))
+                .build());
+    }
+
     private <K, S> Single<S> update(MetaClassWithKey<K, S> metaClass, PropertyResolver propertyResolver) {
         SqlStatement statement = statementProvider.forUpdate(metaClass, propertyResolver, referenceResolver);
-        return insertOrUpdate(metaClass, statement);
+        return insertOrUpdate(metaClass, propertyResolver.getProperty(metaClass.keyProperty()), statement);
     }
 
     private <K, S> Single<S> insertOrUpdate(MetaClassWithKey<K, S> metaClass, PropertyResolver propertyResolver) {
         SqlStatement statement = statementProvider.forInsertOrUpdate(metaClass, propertyResolver, referenceResolver);
-        return insertOrUpdate(metaClass, statement);
+        return insertOrUpdate(metaClass, propertyResolver.getProperty(metaClass.keyProperty()), statement);
     }
 
-    private <K, S> Single<S> insertOrUpdate(MetaClassWithKey<K, S> metaClass, SqlStatement statement) {
+    // Dialects which do not support returning affected rows are followed by query of the updated entity
+    private <K, S> Single<S> insertOrUpdate(MetaClassWithKey<K, S> metaClass, K key, SqlStatement statement) {
         return schemaProvider.createOrUpdate(metaClass)
                 .doOnSubscribe(d -> log.trace("Ensuring class {}", metaClass.simpleName()))
                 .doOnError(e -> log.trace("Error when updating class: {}", metaClass.simpleName(), e))
@@ -113,12 +172,15 @@ public class SqlQueryProvider implements QueryProvider {
                         .doOnComplete(() -> log.trace("Execution complete: {}", statement.statement()))
                         .doOnNext(obj -> log.trace("Updated {}", obj))
                         .take(1)
+                        .switchIfEmpty(Observable.defer(() -> statementExecutor
+                                .executeQuery(forKey(metaClass, key))
+                                .map(pr -> pr.toObject(metaClass))))
                         .singleOrError());
     }
 
     private <K, S> Single<S> insert(MetaClassWithKey<K, S> metaClass, S entity) {
         SqlStatement statement = statementProvider.forInsert(metaClass, entity, referenceResolver);
-        return insertOrUpdate(metaClass, statement);
+        return insertOrUpdate(metaClass, metaClass.keyProperty().getValue(entity), statement);
     }
 
     @Override
@@ -151,8 +213,14 @@ public class SqlQueryProvider implements QueryProvider {
     @Override
     public <K, S, T> Observable<Notification<T>> liveQuery(QueryInfo<K, S, T> query) {
         TypeToken<? extends T> objectType = HasMapping.objectType(query);
+        QueryInfo<K, S, T> liveQuery = QueryInfo.<K, S, T>builder()
+                .metaClass(query.metaClass())
+                .predicate(query.predicate())
+                .mapping(query.mapping())
+                .build();
         return schemaProvider.createOrUpdate(query.metaClass()).andThen(statementExecutor
-                .executeLiveQuery(statementProvider.forQuery(query))
+                .executeLiveQuery(statementProvider.forQuery(liveQuery))
+                .compose(Notifications.rawFieldsFilter(Notifications.watchedProperties(query)))
                 .map(notification -> notification.map(pr -> pr.toObject(objectType))));
     }
 
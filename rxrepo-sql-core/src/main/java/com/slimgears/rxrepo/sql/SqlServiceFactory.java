@@ -34,10 +34,11 @@ public interface SqlServiceFactory {
         public abstract Builder expressionGenerator(Function<SqlServiceFactory, SqlExpressionGenerator> expressionGenerator);
         public abstract Builder assignmentGenerator(Function<SqlServiceFactory, SqlAssignmentGenerator> assignmentGenerator);
         public abstract Builder shutdownSignal(Completable shutdown);
+        public abstract Builder batchSize(int batchSize);
         public abstract SqlServiceFactory build();
 
         public final Repository buildRepository(RepositoryConfigModel config, QueryProvider.Decorator... decorators) {
-            return Repository.fromProvider(this.decorator.apply(build().queryProvider()), config, decorators);
+            return Repository.fromProvider(build().queryProvider(), config, this.decorator, of(decorators));
         }
 
         public final SqlServiceFactory.Builder decorate(QueryProvider.Decorator... decorators) {
@@ -6,10 +6,46 @@ import io.reactivex.Completable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 
+import java.util.List;
+
 public interface SqlStatementExecutor {
     Observable<PropertyResolver> executeQuery(SqlStatement statement);
     Observable<PropertyResolver> executeCommandReturnEntries(SqlStatement statement);
     Single<Integer> executeCommandReturnCount(SqlStatement statement);
     Completable executeCommand(SqlStatement statement);
     Observable<Notification<PropertyResolver>> executeLiveQuery(SqlStatement statement);
+
+    default Completable executeBatch(List<SqlStatement> statements) {
+        return Observable.fromIterable(statements).flatMapCompletable(this::executeCommand);
+    }
+
+    default Single<Transaction> beginTransaction() {
+        return Single.just(Transaction.create(this, Completable.complete(), Completable.complete()));
+    }
+
+    // Statements executed through transaction executor are applied atomically on commit
+    interface Transaction {
+        SqlStatementExecutor executor();
+        Completable commit();
+        Completable rollback();
+
+        static Transaction create(SqlStatementExecutor executor, Completable commit, Completable rollback) {
+            return new Transaction() {
+                @Override
+                public SqlStatementExecutor executor() {
+                    return executor;
+                }
+
+                @Override
+                public Completable commit() {
+                    return commit;
+                }
+
+                @Override
+                public Completable rollback() {
+                    return rollback;
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,135 @@
+package com.slimgears.rxrepo.sql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.reflect.TypeToken;
+import com.slimgears.rxrepo.expressions.ConstantExpression;
+import com.slimgears.rxrepo.expressions.Expression;
+import com.slimgears.rxrepo.expressions.ExpressionVisitor;
+import com.slimgears.rxrepo.expressions.ObjectExpression;
+import com.slimgears.util.autovalue.annotations.PropertyMeta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Statement text depends only on the structure of expressions, while constants are always emitted as '?' params.
+// Shape of a statement (expression types, properties, constant types, inlined clauses) is used as a key,
+// and the generated text is reused for all statements of the same shape with constants bound as args.
+// Shapes for which generator rewrites constant values (e.g. search text wildcards) are never cached.
+class SqlStatementTemplateCache {
+    private final static Logger log = LoggerFactory.getLogger(SqlStatementTemplateCache.class);
+    static final String cacheSizeProperty = "rxrepo.sql.statementTemplateCacheSize";
+    private static final long defaultCacheSize = 1024;
+    private static final Optional<String> notCacheable = Optional.empty();
+
+    private final Cache<List<Object>, Optional<String>> templates = CacheBuilder.newBuilder()
+            .maximumSize(Long.getLong(cacheSizeProperty, defaultCacheSize))
+            .recordStats()
+            .build();
+
+    static Shape shape(Object... tokens) {
+        return new Shape().add(tokens);
+    }
+
+    SqlStatement statement(Shape shape, Supplier<SqlStatement> generator) {
+        Optional<String> template = templates.getIfPresent(shape.key);
+        if (template != null && template.isPresent()) {
+            return SqlStatement.create(template.get(), shape.args.toArray());
+        }
+
+        SqlStatement statement = generator.get();
+        if (template == null) {
+            boolean cacheable = Arrays.equals(statement.args(), shape.args.toArray());
+            log.trace("Caching statement template (cacheable: {}): {}", cacheable, statement.statement());
+            templates.put(shape.key, cacheable ? Optional.of(statement.statement()) : notCacheable);
+        }
+        return statement;
+    }
+
+    long hitCount() {
+        return templates.stats().hitCount();
+    }
+
+    static class Shape {
+        private final List<Object> key = new ArrayList<>();
+        private final List<Object> args = new ArrayList<>();
+        private final ShapeVisitor visitor = new ShapeVisitor();
+
+        Shape add(Object... tokens) {
+            key.addAll(Arrays.asList(tokens));
+            return this;
+        }
+
+        Shape add(ObjectExpression<?, ?> expression) {
+            if (expression == null) {
+                key.add(Void.class);
+                return this;
+            }
+            visitor.visit(expression, null);
+            return this;
+        }
+
+        private class ShapeVisitor extends ExpressionVisitor<Void, Void> {
+            @Override
+            protected Void reduceBinary(ObjectExpression<?, ?> expression, Expression.Type type, Void first, Void second) {
+                key.add(type);
+                return null;
+            }
+
+            @Override
+            protected Void reduceUnary(ObjectExpression<?, ?> expression, Expression.Type type, Void first) {
+                key.add(type);
+                return null;
+            }
+
+            @Override
+            protected <S, T> Void visitOther(ObjectExpression<S, T> expression, Void arg) {
+                key.add(expression);
+                return null;
+            }
+
+            @Override
+            protected <S, T> Void visitConstant(ConstantExpression<S, T> constantExpression, Void arg) {
+                Object value = constantExpression.value();
+                key.add(constantExpression.type());
+                key.add(value != null ? value.getClass() : Void.class);
+                if (value instanceof Collection) {
+                    key.add(elementClasses((Collection<?>)value));
+                }
+                args.add(value);
+                return null;
+            }
+
+            @Override
+            protected <T, V> Void visitProperty(PropertyMeta<T, V> propertyMeta, Void arg) {
+                key.add(propertyMeta);
+                return null;
+            }
+
+            @Override
+            protected <V> Void visitConstant(Expression.Type type, V value, Void arg) {
+                throw new IllegalStateException("Constants are visited through visitConstant(ConstantExpression)");
+            }
+
+            @Override
+            protected <T> Void visitArgument(TypeToken<T> argType, Void arg) {
+                key.add(argType);
+                return null;
+            }
+        }
+
+        private static Set<Class<?>> elementClasses(Collection<?> collection) {
+            Set<Class<?>> classes = new LinkedHashSet<>();
+            collection.forEach(e -> classes.add(e != null ? e.getClass() : Void.class));
+            return classes;
+        }
+    }
+}
@@ -72,6 +72,25 @@ public class SqlStatementProviderTest {
         Assert.assertArrayEquals(new Object[]{5, "substr", 100}, statement.args());
     }
 
+    @Test
+    public void testQueryStatementTemplateIsReused() {
+        SqlStatement first = statementProvider.forQuery(QueryInfo.<Integer, Product, Product>builder()
+                .metaClass(Product.metaClass)
+                .predicate(Product.$.name.contains("substr").and(Product.$.price.lessThan(100)))
+                .limit(10L)
+                .build());
+        long hits = ((DefaultSqlStatementProvider)statementProvider).templateCacheHits();
+        SqlStatement second = statementProvider.forQuery(QueryInfo.<Integer, Product, Product>builder()
+                .metaClass(Product.metaClass)
+                .predicate(Product.$.name.contains("other").and(Product.$.price.lessThan(200)))
+                .limit(10L)
+                .build());
+
+        Assert.assertEquals(hits + 1, ((DefaultSqlStatementProvider)statementProvider).templateCacheHits());
+        Assert.assertEquals(first.statement(), second.statement());
+        Assert.assertArrayEquals(new Object[]{"other", 200}, second.args());
+    }
+
     @Test
     public void testInsertOrUpdateStatementGeneration() {
         Product product = Product.builder()
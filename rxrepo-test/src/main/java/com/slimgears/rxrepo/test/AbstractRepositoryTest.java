@@ -10,8 +10,10 @@ import com.slimgears.util.stream.Streams;
 import com.slimgears.util.test.AnnotationRulesJUnit;
 import com.slimgears.util.test.logging.LogLevel;
 import com.slimgears.util.test.logging.UseLogLevel;
+import io.reactivex.Completable;
 import io.reactivex.Maybe;
 import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.observers.TestObserver;
 import io.reactivex.subjects.CompletableSubject;
 import org.junit.*;
@@ -21,11 +23,13 @@ import org.junit.rules.Timeout;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static com.slimgears.rxrepo.test.TestUtils.*;
 import static java.util.Objects.requireNonNull;
@@ -451,6 +455,30 @@ public abstract class AbstractRepositoryTest {
                 });
     }
 
+    @Test
+    public void testInsertThenBulkUpdateExisting() {
+        EntitySet<UniqueId, Product> productSet = repository.entities(Product.metaClass);
+        Iterable<Product> products = Products.createMany(50);
+        productSet.update(products).ignoreElement().blockingAwait();
+
+        List<Product> updatedProducts = Streams.fromIterable(products)
+                .map(p -> p.toBuilder().price(p.price() + 1000).build())
+                .collect(ImmutableList.toImmutableList());
+
+        List<UniqueId> keys = updatedProducts.stream().map(Product::key).collect(Collectors.toList());
+        productSet.update(updatedProducts)
+                .test()
+                .awaitDone(10, TimeUnit.SECONDS)
+                .assertNoErrors()
+                .assertValue(l -> l.stream().map(Product::key).collect(Collectors.toList()).equals(keys));
+
+        Assert.assertEquals(Long.valueOf(50), productSet
+                .query()
+                .where(Product.$.price.greaterThan(999))
+                .count()
+                .blockingGet());
+    }
+
     @Test
     public void testObserveReferencedObjectProperties() {
         repository.entities(Product.metaClass)
@@ -792,6 +820,32 @@ public abstract class AbstractRepositoryTest {
                 .assertValueAt(0, p -> requireNonNull(p.vendor()).id().equals(vendorId));
     }
 
+    @Test
+    public void testQueryByCompositeIndex() throws InterruptedException {
+        EntitySet<UniqueId, Product> products = repository.entities(Product.metaClass);
+        List<Product> productList = ImmutableList.copyOf(Products.createMany(40));
+        products.update(productList).ignoreElement().blockingAwait();
+        Product product = productList.get(5);
+        UniqueId vendorId = requireNonNull(product.vendor()).id();
+        long expectedCount = productList.stream()
+                .filter(p -> p.vendor() != null && p.vendor().id().equals(vendorId) && p.price() == product.price())
+                .count();
+
+        products.query()
+                .where(Product.$.vendor.id.eq(vendorId).and(Product.$.price.eq(product.price())))
+                .retrieve()
+                .test()
+                .await()
+                .assertValueCount((int)expectedCount)
+                .assertValueAt(0, p -> p.price() == product.price() && requireNonNull(p.vendor()).id().equals(vendorId));
+
+        products.delete(product.key()).blockingAwait();
+        Assert.assertEquals(Long.valueOf(expectedCount - 1), products.query()
+                .where(Product.$.vendor.id.eq(vendorId).and(Product.$.price.eq(product.price())))
+                .count()
+                .blockingGet());
+    }
+
     @Test
     @UseLogLevel(LogLevel.TRACE)
     public void testObserveAsList() {
@@ -1149,6 +1203,59 @@ public abstract class AbstractRepositoryTest {
                 .assertValue(p -> p.inventory() != null);
     }
 
+    @Test
+    public void testLiveQueryIgnoresModificationOfUnwatchedProperties() {
+        EntitySet<UniqueId, Product> productSet = repository.entities(Product.metaClass);
+        Product product = Products.createOne();
+        productSet.update(product).ignoreElement().blockingAwait();
+
+        TestObserver<Notification<Product>> productObserver = productSet
+                .query()
+                .liveSelect()
+                .properties(Product.$.name)
+                .observe()
+                .test();
+
+        productSet.update(product.toBuilder().price(product.price() + 1).build())
+                .ignoreElement()
+                .blockingAwait();
+
+        productObserver.assertOf(countLessThan(1));
+
+        productSet.update(product.toBuilder().price(product.price() + 1).name(product.name() + " - updated").build())
+                .ignoreElement()
+                .blockingAwait();
+
+        productObserver
+                .assertOf(countExactly(1))
+                .assertValueAt(0, Notification::isModify)
+                .assertValueAt(0, n -> Objects.equals(requireNonNull(n.newValue()).name(), product.name() + " - updated"));
+    }
+
+    @Test
+    public void testLiveQueryNotifiesModificationOfWatchedProperties() {
+        EntitySet<UniqueId, Product> productSet = repository.entities(Product.metaClass);
+        Product product = Products.createOne();
+        productSet.update(product).ignoreElement().blockingAwait();
+
+        TestObserver<Notification<Product>> productObserver = productSet
+                .query()
+                .liveSelect()
+                .properties(Product.$.price)
+                .observe()
+                .test();
+
+        productSet.update(product.toBuilder().price(product.price() + 1).build())
+                .ignoreElement()
+                .blockingAwait();
+
+        productObserver
+                .assertOf(countExactly(1))
+                .assertValueAt(0, Notification::isModify)
+                .assertValueAt(0, n -> requireNonNull(n.oldValue()).price() == product.price())
+                .assertValueAt(0, n -> requireNonNull(n.newValue()).price() == product.price() + 1);
+    }
+
     @Test
     @UseLogLevel(LogLevel.DEBUG)
     public void testLargeUpdate() throws InterruptedException {
@@ -1217,4 +1324,118 @@ public abstract class AbstractRepositoryTest {
                 .await()
                 .assertValue(0L);
     }
+
+    @Test
+    public void testWarmUpThenInsert() throws InterruptedException {
+        repository.warmUp(Product.metaClass, Inventory.metaClass)
+                .test()
+                .await()
+                .assertNoErrors()
+                .assertComplete();
+
+        repository.entities(Product.metaClass).update(Products.createMany(10)).blockingGet();
+        Assert.assertEquals(Long.valueOf(10), repository.entities(Product.metaClass).query().count().blockingGet());
+    }
+
+    @Test
+    public void testTransactionCommitsAllWrites() throws InterruptedException {
+        repository
+                .transaction(repo -> repo.entities(Product.metaClass)
+                        .update(Products.createMany(10))
+                        .ignoreElement())
+                .test()
+                .await()
+                .assertNoErrors()
+                .assertComplete();
+
+        Assert.assertEquals(Long.valueOf(10), repository.entities(Product.metaClass).query().count().blockingGet());
+        Assert.assertNotEquals(Long.valueOf(0), repository.entities(Inventory.metaClass).query().count().blockingGet());
+    }
+
+    @Test
+    public void testTransactionReadsOwnWrites() throws InterruptedException {
+        List<Product> products = new ArrayList<>();
+        Products.createMany(4).forEach(products::add);
+        Product product = products.get(0);
+        repository.entities(Product.metaClass)
+                .update(products.subList(0, 3))
+                .ignoreElement()
+                .blockingAwait();
+
+        List<String> namesInTransaction = new ArrayList<>();
+        List<Long> countsInTransaction = new ArrayList<>();
+        repository
+                .transaction(repo -> repo.entities(Product.metaClass)
+                        .update(product.toBuilder().name("Product - updated in transaction").build())
+                        .ignoreElement()
+                        .andThen(repo.entities(Product.metaClass)
+                                .update(products.get(3))
+                                .ignoreElement())
+                        .andThen(repo.entities(Product.metaClass)
+                                .query()
+                                .where(Product.$.key.eq(product.key()))
+                                .retrieve()
+                                .doOnNext(p -> namesInTransaction.add(p.name()))
+                                .ignoreElements())
+                        .andThen(repo.entities(Product.metaClass)
+                                .query()
+                                .count()
+                                .doOnSuccess(countsInTransaction::add)
+                                .ignoreElement()))
+                .test()
+                .await()
+                .assertNoErrors()
+                .assertComplete();
+
+        Assert.assertEquals(Collections.singletonList("Product - updated in transaction"), namesInTransaction);
+        Assert.assertEquals(Collections.singletonList(4L), countsInTransaction);
+        Assert.assertEquals(Long.valueOf(4), repository.entities(Product.metaClass).query().count().blockingGet());
+    }
+
+    @Test
+    public void testDisposedTransactionIsRolledBack() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        Disposable disposable = repository
+                .transaction(repo -> repo.entities(Product.metaClass)
+                        .update(Products.createMany(10))
+                        .ignoreElement()
+                        .andThen(Completable.fromAction(written::countDown))
+                        .andThen(Completable.never()))
+                .subscribe();
+
+        Assert.assertTrue(written.await(10, TimeUnit.SECONDS));
+        disposable.dispose();
+
+        Assert.assertEquals(Long.valueOf(0), repository.entities(Product.metaClass).query().count().blockingGet());
+
+        // Resources of disposed transaction are released, so that further transactions are not affected
+        repository
+                .transaction(repo -> repo.entities(Product.metaClass)
+                        .update(Products.createMany(5))
+                        .ignoreElement())
+                .test()
+                .await()
+                .assertNoErrors()
+                .assertComplete();
+        Assert.assertEquals(Long.valueOf(5), repository.entities(Product.metaClass).query().count().blockingGet());
+    }
+
+    @Test
+    public void testFailedTransactionIsRolledBack() throws InterruptedException {
+        repository.entities(Product.metaClass)
+                .update(Products.createOne())
+                .ignoreElement()
+                .blockingAwait();
+
+        repository
+                .transaction(repo -> repo.entities(Product.metaClass)
+                        .update(Products.createMany(10))
+                        .ignoreElement()
+                        .andThen(Completable.error(new IllegalStateException("Unit of work failed"))))
+                .test()
+                .await()
+                .assertError(IllegalStateException.class);
+
+        Assert.assertEquals(Long.valueOf(1), repository.entities(Product.metaClass).query().count().blockingGet());
+    }
 }
@@ -1,6 +1,8 @@
 package com.slimgears.rxrepo.test;
 
+import com.slimgears.rxrepo.annotations.CompositeIndex;
 import com.slimgears.rxrepo.annotations.Filterable;
+import com.slimgears.rxrepo.annotations.Indexable;
 import com.slimgears.rxrepo.annotations.Searchable;
 import com.slimgears.rxrepo.annotations.UseExpressions;
 import com.slimgears.util.autovalue.annotations.AutoValuePrototype;
@@ -14,6 +16,7 @@ import java.util.List;
 @AutoValuePrototype
 @UseExpressions
 @UseCopyAnnotator
+@CompositeIndex({"vendor", "price"})
 public interface ProductPrototype {
     enum Type {
         ConsumerElectronics,
@@ -25,7 +28,7 @@ public interface ProductPrototype {
     @Nullable @Filterable @Searchable String name();
     @Filterable @Nullable Inventory inventory();
     @Nullable @Searchable Type type();
-    int price();
+    @Indexable(kind = Indexable.Kind.Ordered) int price();
     @Nullable List<String> aliases();
     @Nullable List<UniqueId> relatedIds();
     @Nullable Vendor vendor();